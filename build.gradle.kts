@@ -31,6 +31,9 @@ dependencies {
     implementation("org.springframework.ai:spring-ai-anthropic")
     implementation("org.springframework.ai:spring-ai-ollama")
     implementation("org.springframework.ai:spring-ai-model")
+    // Shared JDK HttpClient-backed RestClient/WebClient for provider engines
+    implementation("org.springframework:spring-web")
+    implementation("org.springframework:spring-webflux")
     // api(project(":modules:template-parser"))
 
     // Jackson - let Spring AI BOM manage versions through Spring Framework BOM
@@ -39,6 +42,9 @@ dependencies {
     implementation("com.networknt:json-schema-validator:1.5.1")
     implementation("com.jayway.jsonpath:json-path:2.9.0")
     implementation("org.slf4j:slf4j-api:2.0.13")
+    // JUnit 5 extension API for PromptUnitExtension
+    implementation(platform("org.junit:junit-bom:5.11.0"))
+    implementation("org.junit.jupiter:junit-jupiter-api")
 
     // Testing
     testImplementation(platform("org.junit:junit-bom:5.11.0"))
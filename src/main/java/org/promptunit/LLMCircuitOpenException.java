@@ -0,0 +1,30 @@
+package org.promptunit;
+
+import java.time.Duration;
+
+/**
+ * Thrown without contacting the provider when its circuit breaker is open, i.e. recent calls failed
+ * or were slow often enough that further calls are expected to fail too.
+ */
+public class LLMCircuitOpenException extends LLMInvocationException {
+
+	private final String circuit;
+	private final Duration retryAfter;
+
+	public LLMCircuitOpenException(String circuit, Duration retryAfter) {
+		super("Circuit breaker for %s is open; calls are rejected for another %d ms"
+				.formatted(circuit, retryAfter.toMillis()));
+		this.circuit = circuit;
+		this.retryAfter = retryAfter;
+	}
+
+	/** Name of the open circuit, usually the provider. */
+	public String circuit() {
+		return circuit;
+	}
+
+	/** Time until the breaker lets a probe call through. */
+	public Duration retryAfter() {
+		return retryAfter;
+	}
+}
@@ -2,70 +2,117 @@ package org.promptunit;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
+import org.promptunit.core.SampleSet;
+import org.promptunit.core.StreamingMetrics;
+import org.promptunit.execution.AsyncExecution;
+import org.promptunit.execution.DefaultTimeout;
+import org.promptunit.execution.ExecutionScheduler;
+import org.promptunit.execution.SampleRunner;
 
-public interface LLMEngine {
+public interface LLMEngine extends AutoCloseable {
+    /**
+     * Executes with the {@link DefaultTimeout}, so a hung provider cannot block the caller forever.
+     */
     default PromptResult execute(PromptInstance instance) {
-        return execute(instance, Long.MAX_VALUE);
+        return execute(instance, DefaultTimeout.millis());
     }
 
+    /**
+     * Runs {@link #invokeOnce} once the shared {@link ExecutionScheduler} admits the call; time spent
+     * waiting for a slot counts against {@code timeoutMs}.
+     */
     default PromptResult execute(PromptInstance instance, long timeoutMs) {
-        return invokeOnce(instance, timeoutMs);
+        String provider = schedulingProvider(instance);
+        if (provider == null) return invokeOnce(instance, timeoutMs);
+        return ExecutionScheduler.shared().call(provider, timeoutMs, remainingMs -> invokeOnce(instance, remainingMs));
     }
 
+    default CompletableFuture<PromptResult> executeAsync(PromptInstance instance) {
+        return executeAsync(instance, DefaultTimeout.millis());
+    }
+
+    /**
+     * Runs {@link #execute(PromptInstance, long)} on the shared virtual-thread executor of
+     * {@link AsyncExecution}. Cancelling the returned future interrupts the provider call.
+     */
+    default CompletableFuture<PromptResult> executeAsync(PromptInstance instance, long timeoutMs) {
+        return AsyncExecution.supply(() -> execute(instance, timeoutMs));
+    }
+
+    /**
+     * Runs {@code nTimes} samples concurrently and fails if any of them fails or the deadline passes.
+     * Identical results collapse in the returned set; use {@link #sample} to keep every sample along
+     * with partial results and per-sample errors.
+     */
     default Set<PromptResult> execute(PromptInstance instance, long timeoutMs, int nTimes) {
-        if (nTimes <= 0) throw new IllegalArgumentException("nTimes must be greater than 0");
-
-        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-        Callable<PromptResult> task = () -> invokeOnce(instance, timeoutMs);
-        Set<Future<PromptResult>> allResponseFutures = new HashSet<>();
-        IntStream.range(0, nTimes).forEach(i -> allResponseFutures.add(executor.submit(task)));
-
-        long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
-        Set<PromptResult> results = new HashSet<>();
-        try {
-            for (Future<PromptResult> future : allResponseFutures) {
-                long remainingNs = deadlineNs - System.nanoTime();
-                if (remainingNs <= 0) {
-                    throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms");
-                }
-                PromptResult r = future.get(remainingNs, TimeUnit.NANOSECONDS);
-                results.add(r);
-            }
-            return results;
-        } catch (TimeoutException e) {
-            throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms", e);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause() != null ? e.getCause() : e;
-            if (cause instanceof LLMTimeoutException) throw (LLMTimeoutException) cause;
-            if (cause instanceof LLMInvocationException) throw (LLMInvocationException) cause;
-            throw new LLMInvocationException("Error invoking LLM: " + cause.getMessage(), cause);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new LLMTimeoutException("LLM invocation interrupted after " + timeoutMs + "ms", e);
-        } finally {
-            for (Future<PromptResult> f : allResponseFutures) {
-                f.cancel(true);
-            }
-            executor.shutdownNow();
-        }
+        return new HashSet<>(sample(instance, timeoutMs, nTimes, nTimes).resultsOrThrow());
+    }
+
+    default SampleSet sample(PromptInstance instance, long timeoutMs, int nTimes) {
+        return sample(instance, timeoutMs, nTimes, SampleRunner.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Runs {@code nTimes} samples with at most {@code maxInFlight} provider calls outstanding at once,
+     * all within a shared {@code timeoutMs} deadline. Never throws for failed or timed-out samples;
+     * they are reported on the returned {@link SampleSet} alongside the successful ones.
+     */
+    default SampleSet sample(PromptInstance instance, long timeoutMs, int nTimes, int maxInFlight) {
+        return SampleRunner.run(this, instance, timeoutMs, nTimes, maxInFlight);
+    }
+
+    default PromptResult executeStreaming(PromptInstance instance, Consumer<String> tokenConsumer) {
+        return executeStreaming(instance, DefaultTimeout.millis(), tokenConsumer);
+    }
+
+    default PromptResult executeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+        String provider = schedulingProvider(instance);
+        if (provider == null) return invokeStreaming(instance, timeoutMs, tokenConsumer);
+        return ExecutionScheduler.shared().call(provider, timeoutMs,
+                remainingMs -> invokeStreaming(instance, remainingMs, tokenConsumer));
+    }
+
+    /**
+     * Provider whose {@link ExecutionScheduler} slot {@code execute} and {@code sample} take for
+     * {@code instance}, or null for engines that admit each provider call themselves, such as a
+     * router whose target is only known once the call runs. A call made while the thread already
+     * holds a slot runs in that slot, so such engines must not be invoked from inside one.
+     */
+    default String schedulingProvider(PromptInstance instance) {
+        return provider();
     }
 
     PromptResult invokeOnce(PromptInstance instance, long timeoutMs);
 
+    /**
+     * Streams the generation, passing each text chunk to {@code tokenConsumer} as it arrives. The
+     * returned result carries {@link StreamingMetrics}. Engines without native streaming fall back to
+     * {@link #invokeOnce} and deliver the whole output as a single chunk.
+     */
+    default PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+        PromptResult result = invokeOnce(instance, timeoutMs);
+        if (tokenConsumer != null && result.rawOutput() != null && !result.rawOutput().isEmpty()) {
+            tokenConsumer.accept(result.rawOutput());
+        }
+        return result.withStreamingMetrics(StreamingMetrics.singleChunk(result.latencyMs()));
+    }
+
     String provider();
 
     String model();
 
+    /**
+     * Releases provider clients and pooled connections held by this engine. The default is a no-op
+     * for engines that hold no resources.
+     */
+    @Override
+    default void close() {
+    }
+
 }
 
 
@@ -0,0 +1,28 @@
+package org.promptunit;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Thrown when a provider answers with a non-successful HTTP status, keeping the status code and any
+ * {@code Retry-After} hint so callers can decide whether the failure is worth retrying.
+ */
+public class LLMHttpException extends LLMInvocationException {
+
+	private final int statusCode;
+	private final Duration retryAfter;
+
+	public LLMHttpException(String message, int statusCode, Duration retryAfter) {
+		super(message);
+		this.statusCode = statusCode;
+		this.retryAfter = retryAfter;
+	}
+
+	public int statusCode() {
+		return statusCode;
+	}
+
+	public Optional<Duration> retryAfter() {
+		return Optional.ofNullable(retryAfter);
+	}
+}
@@ -0,0 +1,107 @@
+package org.promptunit.core;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+
+/**
+ * Stable content hash of a {@link PromptInstance}: two instances with the same conversation, model,
+ * provider, sampling parameters and output schema produce the same fingerprint across JVM runs.
+ * Messages contribute their role and text, plus the name and arguments of assistant tool calls and
+ * the name and payload of tool responses. The output schema, tool arguments and JSON payloads are
+ * compared by JSON content, so key order and whitespace do not matter.
+ */
+public final class PromptFingerprint {
+
+	private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+			.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+			// Text that merely starts with a JSON value, like "42 degrees", is kept verbatim
+			.enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+	private PromptFingerprint() {}
+
+	/**
+	 * Hex-encoded SHA-256 of the canonical form of {@code instance}.
+	 */
+	public static String of(PromptInstance instance) {
+		return sha256Hex(canonicalForm(instance));
+	}
+
+	/**
+	 * Deterministic JSON rendering of everything that influences the provider's response.
+	 */
+	public static String canonicalForm(PromptInstance instance) {
+		Map<String, Object> canonical = new LinkedHashMap<>();
+		List<Map<String, Object>> conversation = new ArrayList<>();
+		for (Message m : instance.conversation()) {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("role", m.getMessageType() != null ? m.getMessageType().getValue() : m.getClass().getSimpleName());
+			entry.put("text", m.getText());
+			// Only present when non-empty, so fingerprints of plain conversations stay as they were
+			if (m instanceof AssistantMessage assistant && assistant.hasToolCalls()) {
+				entry.put("toolCalls", assistant.getToolCalls().stream()
+						.map(call -> canonicalTool(call.name(), "arguments", call.arguments()))
+						.toList());
+			}
+			if (m instanceof ToolResponseMessage tool && !tool.getResponses().isEmpty()) {
+				entry.put("toolResponses", tool.getResponses().stream()
+						.map(response -> canonicalTool(response.name(), "responseData", response.responseData()))
+						.toList());
+			}
+			conversation.add(entry);
+		}
+		canonical.put("conversation", conversation);
+		canonical.put("model", instance.model());
+		canonical.put("provider", instance.provider());
+		canonical.put("temperature", instance.temperature());
+		canonical.put("topP", instance.topP());
+		canonical.put("maxTokens", instance.maxTokens());
+		canonical.put("outputSchema", instance.outputSchema() != null
+				? instance.outputSchema().map(s -> canonicalJson(s.jsonSchema())).orElse(null)
+				: null);
+		try {
+			return CANONICAL_MAPPER.writeValueAsString(canonical);
+		} catch (Exception e) {
+			throw new IllegalStateException("Unable to render canonical prompt form: " + e.getMessage(), e);
+		}
+	}
+
+	private static Map<String, Object> canonicalTool(String name, String payloadKey, String payload) {
+		Map<String, Object> tool = new LinkedHashMap<>();
+		tool.put("name", name);
+		tool.put(payloadKey, canonicalJson(payload));
+		return tool;
+	}
+
+	private static Object canonicalJson(String json) {
+		if (json == null) return null;
+		try {
+			JsonNode node = CANONICAL_MAPPER.readTree(json);
+			// Converting to plain maps lets ORDER_MAP_ENTRIES_BY_KEYS sort nested object keys
+			return CANONICAL_MAPPER.treeToValue(node, Object.class);
+		} catch (Exception e) {
+			return json;
+		}
+	}
+
+	static String sha256Hex(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+}
@@ -24,6 +24,11 @@ public record PromptInstance(
 		return new Builder();
 	}
 
+	/** This prompt addressed to {@code model} of {@code provider}, e.g. when routed to another engine. */
+	public PromptInstance withProviderAndModel(String provider, String model) {
+		return new PromptInstance(conversation, model, provider, temperature, topP, maxTokens, outputSchema);
+	}
+
 	public String systemMessagesAsString() {
 		return conversation.stream()
 				.filter(m -> m instanceof SystemMessage)
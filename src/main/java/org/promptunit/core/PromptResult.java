@@ -11,15 +11,44 @@ public record PromptResult(
         int tokenUsage,
         PromptInstance promptInstance,
         LLMEngineInfo engineInfo,
-        List<ToolCall> toolCalls
+        List<ToolCall> toolCalls,
+        StreamingMetrics streamingMetrics,
+        TokenUsage usage
 ) {
 
+    public PromptResult {
+        if (usage == null) usage = TokenUsage.UNKNOWN;
+    }
+
+    public PromptResult(String rawOutput, long latencyMs, double cost, int tokenUsage,
+                        PromptInstance promptInstance, LLMEngineInfo engineInfo, List<ToolCall> toolCalls,
+                        StreamingMetrics streamingMetrics) {
+        this(rawOutput, latencyMs, cost, tokenUsage, promptInstance, engineInfo, toolCalls, streamingMetrics, TokenUsage.UNKNOWN);
+    }
+
+    public PromptResult(String rawOutput, long latencyMs, double cost, int tokenUsage,
+                        PromptInstance promptInstance, LLMEngineInfo engineInfo, List<ToolCall> toolCalls) {
+        this(rawOutput, latencyMs, cost, tokenUsage, promptInstance, engineInfo, toolCalls, null, TokenUsage.UNKNOWN);
+    }
+
     public PromptResult(String rawOutput, long latencyMs, double cost, int tokenUsage) {
-        this(rawOutput, latencyMs, cost, tokenUsage, null, null, null);
+        this(rawOutput, latencyMs, cost, tokenUsage, null, null, null, null, TokenUsage.UNKNOWN);
     }
 
     PromptResult(String rawOutput) {
-        this(rawOutput, UNKNOWN_RESPONSE_TIME, UNKNOWN_COST, UNKNOWN_TOKENS_USED, null, null, null);
+        this(rawOutput, UNKNOWN_RESPONSE_TIME, UNKNOWN_COST, UNKNOWN_TOKENS_USED, null, null, null, null, TokenUsage.UNKNOWN);
+    }
+
+    public PromptResult withPromptInstance(PromptInstance instance) {
+        return new PromptResult(rawOutput, latencyMs, cost, tokenUsage, instance, engineInfo, toolCalls, streamingMetrics, usage);
+    }
+
+    public PromptResult withEngineInfo(LLMEngineInfo info) {
+        return new PromptResult(rawOutput, latencyMs, cost, tokenUsage, promptInstance, info, toolCalls, streamingMetrics, usage);
+    }
+
+    public PromptResult withStreamingMetrics(StreamingMetrics metrics) {
+        return new PromptResult(rawOutput, latencyMs, cost, tokenUsage, promptInstance, engineInfo, toolCalls, metrics, usage);
     }
 
     public static long UNKNOWN_RESPONSE_TIME = -1;
@@ -27,5 +56,3 @@ public record PromptResult(
     public static int UNKNOWN_TOKENS_USED = -1;
 
 }
-
-
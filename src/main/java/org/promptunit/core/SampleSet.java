@@ -0,0 +1,121 @@
+package org.promptunit.core;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
+
+/**
+ * Ordered outcome of a multi-sample run. Every requested sample is represented exactly once, in
+ * submission order, whether it succeeded, failed or ran out of time, so identical outputs are not
+ * merged and partial results survive individual failures.
+ * <p>
+ * Iterating a {@code SampleSet} yields the successful {@link PromptResult}s only.
+ */
+public final class SampleSet implements Iterable<PromptResult> {
+
+	public enum Status { SUCCEEDED, FAILED, TIMED_OUT }
+
+	/**
+	 * @param result the result when {@code status} is {@code SUCCEEDED}, otherwise null
+	 * @param error  the failure cause for {@code FAILED} samples, and for {@code TIMED_OUT} samples
+	 *               that were started; null for samples that never started before the deadline
+	 */
+	public record Sample(int index, Status status, PromptResult result, Throwable error) {
+		public static Sample succeeded(int index, PromptResult result) {
+			return new Sample(index, Status.SUCCEEDED, result, null);
+		}
+
+		public static Sample failed(int index, Throwable error) {
+			return new Sample(index, Status.FAILED, null, error);
+		}
+
+		public static Sample timedOut(int index, Throwable error) {
+			return new Sample(index, Status.TIMED_OUT, null, error);
+		}
+
+		public boolean succeeded() {
+			return status == Status.SUCCEEDED;
+		}
+	}
+
+	private final List<Sample> samples;
+	private final long timeoutMs;
+
+	public SampleSet(List<Sample> samples, long timeoutMs) {
+		this.samples = Objects.requireNonNull(samples, "samples").stream()
+				.sorted(Comparator.comparingInt(Sample::index))
+				.toList();
+		this.timeoutMs = timeoutMs;
+	}
+
+	public List<Sample> samples() {
+		return samples;
+	}
+
+	public List<PromptResult> results() {
+		return samples.stream().filter(Sample::succeeded).map(Sample::result).toList();
+	}
+
+	public List<Sample> failures() {
+		return withStatus(Status.FAILED);
+	}
+
+	public List<Sample> timeouts() {
+		return withStatus(Status.TIMED_OUT);
+	}
+
+	public int size() {
+		return samples.size();
+	}
+
+	public int successCount() {
+		return (int) samples.stream().filter(Sample::succeeded).count();
+	}
+
+	public int failureCount() {
+		return failures().size();
+	}
+
+	public int timeoutCount() {
+		return timeouts().size();
+	}
+
+	public boolean isComplete() {
+		return successCount() == samples.size();
+	}
+
+	/**
+	 * All results, or the first failure (in sample order) rethrown if any sample did not succeed.
+	 */
+	public List<PromptResult> resultsOrThrow() {
+		for (Sample s : samples) {
+			if (s.succeeded()) continue;
+			Throwable cause = s.error();
+			if (cause instanceof LLMTimeoutException e) throw e;
+			if (cause instanceof LLMInvocationException e) throw e;
+			if (s.status() == Status.TIMED_OUT) {
+				throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms", cause);
+			}
+			throw new LLMInvocationException("Error invoking LLM: " + (cause != null ? cause.getMessage() : "unknown"), cause);
+		}
+		return results();
+	}
+
+	@Override
+	public Iterator<PromptResult> iterator() {
+		return results().iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "SampleSet[size=" + size() + ", succeeded=" + successCount()
+				+ ", failed=" + failureCount() + ", timedOut=" + timeoutCount() + "]";
+	}
+
+	private List<Sample> withStatus(Status status) {
+		return samples.stream().filter(s -> s.status() == status).toList();
+	}
+}
@@ -0,0 +1,68 @@
+package org.promptunit.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency profile of a streamed generation.
+ *
+ * @param timeToFirstTokenMs time from sending the request until the first non-empty chunk arrived
+ * @param meanInterTokenMs   mean gap between consecutive non-empty chunks (0 for a single chunk)
+ * @param maxInterTokenMs    largest gap between consecutive non-empty chunks (0 for a single chunk)
+ * @param totalMs            time from sending the request until the stream completed
+ * @param chunkCount         number of non-empty chunks received
+ */
+public record StreamingMetrics(
+		long timeToFirstTokenMs,
+		double meanInterTokenMs,
+		long maxInterTokenMs,
+		long totalMs,
+		int chunkCount
+) {
+
+	/**
+	 * Metrics for an engine that cannot stream: the whole output arrives at once.
+	 */
+	public static StreamingMetrics singleChunk(long latencyMs) {
+		return new StreamingMetrics(latencyMs, 0.0, 0, latencyMs, 1);
+	}
+
+	public static Recorder recorder() {
+		return new Recorder();
+	}
+
+	/**
+	 * Collects chunk arrival times while a stream is consumed. Not thread-safe; a stream delivers
+	 * its chunks sequentially.
+	 */
+	public static final class Recorder {
+		private final long startNs = System.nanoTime();
+		private long firstNs = -1;
+		private long lastNs = -1;
+		private long maxGapNs;
+		private long gapSumNs;
+		private int chunks;
+
+		private Recorder() {}
+
+		public void onChunk() {
+			long now = System.nanoTime();
+			if (firstNs < 0) {
+				firstNs = now;
+			} else {
+				long gap = now - lastNs;
+				gapSumNs += gap;
+				maxGapNs = Math.max(maxGapNs, gap);
+			}
+			lastNs = now;
+			chunks++;
+		}
+
+		public StreamingMetrics finish() {
+			long endNs = System.nanoTime();
+			long totalMs = TimeUnit.NANOSECONDS.toMillis(endNs - startNs);
+			long ttftMs = firstNs < 0 ? totalMs : TimeUnit.NANOSECONDS.toMillis(firstNs - startNs);
+			double meanGapMs = chunks > 1 ? (gapSumNs / (double) (chunks - 1)) / 1_000_000.0 : 0.0;
+			return new StreamingMetrics(ttftMs, meanGapMs, TimeUnit.NANOSECONDS.toMillis(maxGapNs), totalMs, chunks);
+		}
+	}
+}
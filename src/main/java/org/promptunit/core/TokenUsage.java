@@ -0,0 +1,34 @@
+package org.promptunit.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Token counts reported by the provider for one call. {@code promptTokens} includes
+ * {@code cachedPromptTokens}, the part of the prompt served from the provider's prompt cache, and
+ * {@code cacheWritePromptTokens}, the part written to it, which Anthropic bills above the input rate.
+ * Counts the provider did not report are {@link PromptResult#UNKNOWN_TOKENS_USED}.
+ */
+public record TokenUsage(int promptTokens, int completionTokens, int cachedPromptTokens, int cacheWritePromptTokens) {
+
+	public static final TokenUsage UNKNOWN = new TokenUsage(
+			PromptResult.UNKNOWN_TOKENS_USED, PromptResult.UNKNOWN_TOKENS_USED,
+			PromptResult.UNKNOWN_TOKENS_USED, PromptResult.UNKNOWN_TOKENS_USED);
+
+	public TokenUsage(int promptTokens, int completionTokens, int cachedPromptTokens) {
+		this(promptTokens, completionTokens, cachedPromptTokens, 0);
+	}
+
+	public static TokenUsage of(int promptTokens, int completionTokens) {
+		return new TokenUsage(promptTokens, completionTokens, 0);
+	}
+
+	// Derived from the counts; kept out of recordings, which must read back into the record
+	@JsonIgnore
+	public boolean isKnown() {
+		return promptTokens >= 0 && completionTokens >= 0;
+	}
+
+	public int totalTokens() {
+		return isKnown() ? promptTokens + completionTokens : PromptResult.UNKNOWN_TOKENS_USED;
+	}
+}
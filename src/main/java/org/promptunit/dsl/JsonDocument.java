@@ -0,0 +1,105 @@
+package org.promptunit.dsl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+
+/**
+ * The JSON content of one result, parsed at most once per form and shared by every JSON assertion
+ * on it. JSONPath reads the same Jackson tree through a Jackson-backed provider, with expressions
+ * compiled once by {@link JsonPathCache}, instead of parsing the text again.
+ * <ul>
+ *   <li>{@link #strict()}: the whole raw output as JSON.</li>
+ *   <li>{@link #lenient()}: the raw output, or else the first candidate found inside it by
+ *   {@link JsonExtractors} that parses.</li>
+ *   <li>{@link #content()}: like {@link #lenient()}, but a leading JSON value followed by other text
+ *   counts, as it always has for the JSON accessors.</li>
+ * </ul>
+ * Schema and JSON-path checks use the first two forms, which reject trailing content.
+ * Not thread-safe, like the assertion object that owns it.
+ */
+final class JsonDocument {
+
+	static final ObjectMapper MAPPER = new ObjectMapper();
+	// Output that merely starts with a JSON value, like "2024 summary follows: ...", is not JSON
+	private static final ObjectMapper STRICT_MAPPER = new ObjectMapper().enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+	static final Configuration JSON_PATH = Configuration.builder()
+			.jsonProvider(new JacksonJsonNodeJsonProvider(MAPPER))
+			.mappingProvider(new JacksonMappingProvider(MAPPER))
+			.build();
+
+	private final String raw;
+	private boolean strictParsed;
+	private JsonNode strict;
+	private boolean extractedParsed;
+	private JsonNode extracted;
+	private boolean contentParsed;
+	private JsonNode content;
+
+	JsonDocument(String raw) {
+		this.raw = raw;
+	}
+
+	/** The raw output parsed as JSON, or null if it is not JSON. */
+	JsonNode strict() {
+		if (!strictParsed) {
+			strict = tryParse(STRICT_MAPPER, raw);
+			strictParsed = true;
+		}
+		return strict;
+	}
+
+	/** {@link #strict()}, or else the JSON extracted from the raw output; null if neither parses. */
+	JsonNode lenient() {
+		JsonNode node = strict();
+		if (node != null) return node;
+		if (!extractedParsed) {
+			extracted = extract(STRICT_MAPPER);
+			extractedParsed = true;
+		}
+		return extracted;
+	}
+
+	/** The raw output or the JSON extracted from it, allowing trailing text; null if neither parses. */
+	JsonNode content() {
+		if (!contentParsed) {
+			content = tryParse(MAPPER, raw);
+			if (content == null) content = extract(MAPPER);
+			contentParsed = true;
+		}
+		return content;
+	}
+
+	private JsonNode extract(ObjectMapper mapper) {
+		if (raw == null) return null;
+		for (JsonExtractors.Candidate candidate : JsonExtractors.ranked(JsonExtractors.candidates(raw))) {
+			JsonNode node = tryParse(mapper, candidate.text());
+			if (node != null) return node;
+		}
+		return null;
+	}
+
+	/**
+	 * Reads {@code path} from {@code node} as plain Java values: objects and arrays come back as maps
+	 * and lists, scalars as strings, numbers and booleans, so results compare with {@code equals}.
+	 *
+	 * @throws com.jayway.jsonpath.PathNotFoundException if the path selects nothing
+	 */
+	static Object read(JsonNode node, String path) {
+		Object value = JsonPathCache.shared().get(path).read(node, JSON_PATH);
+		return value instanceof JsonNode tree ? MAPPER.convertValue(tree, Object.class) : value;
+	}
+
+	private static JsonNode tryParse(ObjectMapper mapper, String text) {
+		if (text == null) return null;
+		try {
+			JsonNode node = mapper.readTree(text);
+			return node == null || node.isMissingNode() ? null : node;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
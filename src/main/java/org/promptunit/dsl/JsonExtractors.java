@@ -1,61 +1,180 @@
 package org.promptunit.dsl;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
+/**
+ * Finds JSON embedded in model output with one left-to-right pass: markdown fences and balanced
+ * top-level objects/arrays are tracked at the same time, and only the text of open regions is
+ * buffered, so large outputs and outputs with several JSON blocks are scanned in linear time.
+ */
 final class JsonExtractors {
 	private JsonExtractors() {}
 
+	enum Kind {
+		/** Contents of a fence tagged {@code json}, without the tag. */
+		JSON_FENCE,
+		/** Contents of any other fence. */
+		FENCE,
+		/** A balanced {@code {...}} outside of any string. */
+		OBJECT,
+		/** A balanced {@code [...]} outside of any string. */
+		ARRAY
+	}
+
+	/** A region of the scanned text; {@code start} and {@code end} are char offsets, end exclusive. */
+	record Candidate(Kind kind, long start, long end, String text) {
+		boolean looksJsonish() {
+			return (text.startsWith("{") && text.endsWith("}")) || (text.startsWith("[") && text.endsWith("]"));
+		}
+	}
+
+	/** The first candidate by the priority of {@link #ranked(List)}, or null. */
 	static String extract(String text) {
-		String s = extractMarkdownJsonFence(text);
-		if (s != null) return s;
-		s = extractAnyFence(text);
-		if (s != null && looksJsonish(s)) return s;
-		s = extractBalanced(text);
-		return s;
-	}
-
-	private static String extractMarkdownJsonFence(String text) {
-		Pattern p = Pattern.compile("```json\\s*([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
-		Matcher m = p.matcher(text);
-		if (m.find()) return m.group(1).trim();
-		return null;
-	}
-
-	private static String extractAnyFence(String text) {
-		Pattern p = Pattern.compile("```\\s*([\\s\\S]*?)```", Pattern.CASE_INSENSITIVE);
-		Matcher m = p.matcher(text);
-		if (m.find()) return m.group(1).trim();
-		return null;
-	}
-
-	private static boolean looksJsonish(String s) {
-		s = s.trim();
-		return (s.startsWith("{") && s.endsWith("}")) || (s.startsWith("[") && s.endsWith("]"));
-	}
-
-	private static String extractBalanced(String text) {
-		int objIdx = text.indexOf('{');
-		int arrIdx = text.indexOf('[');
-		if (objIdx == -1 && arrIdx == -1) return null;
-		int start = (objIdx >= 0 && (arrIdx < 0 || objIdx < arrIdx)) ? objIdx : arrIdx;
-		char open = text.charAt(start);
-		char close = open == '{' ? '}' : ']';
-		int depth = 0;
-		boolean inString = false;
-		boolean escaped = false;
-		for (int i = start; i < text.length(); i++) {
-			char c = text.charAt(i);
-			if (escaped) { escaped = false; continue; }
-			if (c == '\\' && inString) { escaped = true; continue; }
-			if (c == '"') { inString = !inString; continue; }
-			if (inString) continue;
-			if (c == open) depth++;
-			if (c == close) {
-				depth--;
-				if (depth == 0) return text.substring(start, i + 1);
+		List<Candidate> ranked = ranked(candidates(text));
+		return ranked.isEmpty() ? null : ranked.get(0).text();
+	}
+
+	/**
+	 * The candidates worth parsing, most likely first: {@code json} fences, other fences whose
+	 * contents look like JSON, then balanced objects and arrays, each group in text order.
+	 */
+	static List<Candidate> ranked(List<Candidate> candidates) {
+		List<Candidate> ranked = new ArrayList<>(candidates.size());
+		for (Candidate c : candidates) {
+			if (c.kind() != Kind.FENCE || c.looksJsonish()) ranked.add(c);
+		}
+		ranked.sort(Comparator.comparingInt(c -> rank(c.kind())));
+		return ranked;
+	}
+
+	private static int rank(Kind kind) {
+		return kind == Kind.ARRAY ? Kind.OBJECT.ordinal() : kind.ordinal();
+	}
+
+	/** Every fence and top-level balanced object/array in {@code text}, ordered by end offset. */
+	static List<Candidate> candidates(CharSequence text) {
+		Scanner scanner = new Scanner();
+		for (int i = 0, n = text.length(); i < n; i++) scanner.accept(text.charAt(i));
+		return scanner.finish();
+	}
+
+	/** As {@link #candidates(CharSequence)}, reading {@code reader} to the end without closing it. */
+	static List<Candidate> candidates(Reader reader) {
+		Scanner scanner = new Scanner();
+		char[] chunk = new char[8192];
+		try {
+			for (int read; (read = reader.read(chunk)) != -1; ) {
+				for (int i = 0; i < read; i++) scanner.accept(chunk[i]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return scanner.finish();
+	}
+
+	private static final class Scanner {
+		private final List<Candidate> found = new ArrayList<>();
+		/** Text of the open regions, starting at {@code bufferStart}; empty when none is open. */
+		private final StringBuilder buffer = new StringBuilder();
+		private long bufferStart;
+		private long pos;
+
+		private int backticks;
+		private long fenceStart = -1;
+
+		private char[] stack = new char[16];
+		private int depth;
+		private long balancedStart;
+		private boolean inString;
+		private boolean escaped;
+
+		void accept(char c) {
+			if (c == '`') {
+				backticks++;
+			} else {
+				if (backticks >= 3) toggleFence(pos - backticks);
+				backticks = 0;
+			}
+			if (fenceStart >= 0 || depth > 0) buffer.append(c);
+			balanced(c);
+			pos++;
+			if (fenceStart < 0 && depth == 0) buffer.setLength(0);
+		}
+
+		List<Candidate> finish() {
+			if (backticks >= 3) toggleFence(pos - backticks);
+			backticks = 0;
+			return found;
+		}
+
+		private void toggleFence(long markerStart) {
+			if (fenceStart < 0) {
+				fenceStart = pos;
+				if (depth == 0) bufferStart = pos;
+				return;
 			}
+			String content = buffer.substring((int) (fenceStart - bufferStart), (int) (markerStart - bufferStart));
+			long offset = fenceStart;
+			Kind kind = Kind.FENCE;
+			if (content.regionMatches(true, 0, "json", 0, 4)) {
+				kind = Kind.JSON_FENCE;
+				content = content.substring(4);
+				offset += 4;
+			}
+			int lead = 0;
+			while (lead < content.length() && Character.isWhitespace(content.charAt(lead))) lead++;
+			String text = content.strip();
+			found.add(new Candidate(kind, offset + lead, offset + lead + text.length(), text));
+			fenceStart = -1;
+		}
+
+		private void balanced(char c) {
+			if (depth == 0) {
+				if (c == '{' || c == '[') {
+					if (fenceStart < 0) {
+						bufferStart = pos;
+						buffer.setLength(0);
+						buffer.append(c);
+					}
+					balancedStart = pos;
+					push(c);
+				}
+				return;
+			}
+			if (inString) {
+				if (escaped) escaped = false;
+				else if (c == '\\') escaped = true;
+				else if (c == '"') inString = false;
+				return;
+			}
+			switch (c) {
+				case '"' -> inString = true;
+				case '{', '[' -> push(c);
+				case '}', ']' -> {
+					char open = stack[--depth];
+					if ((open == '{') != (c == '}')) {
+						depth = 0;
+						return;
+					}
+					if (depth == 0) {
+						int from = (int) (balancedStart - bufferStart);
+						String text = buffer.substring(from, buffer.length());
+						found.add(new Candidate(open == '{' ? Kind.OBJECT : Kind.ARRAY, balancedStart, pos + 1, text));
+					}
+				}
+				default -> { }
+			}
+		}
+
+		private void push(char open) {
+			if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+			stack[depth++] = open;
 		}
-		return null;
 	}
 }
@@ -0,0 +1,62 @@
+package org.promptunit.dsl;
+
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of compiled {@link JsonPath} expressions shared by the JSONPath assertions, so
+ * a path checked against every output of a suite is compiled once. Thread-safe.
+ */
+final class JsonPathCache {
+
+	static final int DEFAULT_MAX_ENTRIES = 512;
+
+	private static final JsonPathCache SHARED = new JsonPathCache(DEFAULT_MAX_ENTRIES);
+
+	private final Map<String, JsonPath> paths;
+
+	JsonPathCache(int maxEntries) {
+		if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+		this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, JsonPath> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	static JsonPathCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The compiled form of {@code path}.
+	 *
+	 * @throws IllegalArgumentException if {@code path} is not a valid JSONPath expression
+	 */
+	JsonPath get(String path) {
+		if (path == null) throw new IllegalArgumentException("JSONPath must not be null");
+		synchronized (paths) {
+			JsonPath cached = paths.get(path);
+			if (cached != null) return cached;
+		}
+		JsonPath compiled;
+		try {
+			compiled = JsonPath.compile(path);
+		} catch (InvalidPathException e) {
+			throw new IllegalArgumentException("Invalid JSONPath '" + path + "': " + e.getMessage(), e);
+		}
+		synchronized (paths) {
+			JsonPath raced = paths.putIfAbsent(path, compiled);
+			return raced != null ? raced : compiled;
+		}
+	}
+
+	int size() {
+		synchronized (paths) {
+			return paths.size();
+		}
+	}
+}
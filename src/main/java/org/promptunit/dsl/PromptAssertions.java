@@ -15,6 +15,10 @@ public final class PromptAssertions {
         return new PromptResultAssert(result);
     }
 
+    public static PromptResultsAssert assertThatResults(Iterable<PromptResult> results) {
+        return new PromptResultsAssert(results);
+    }
+
     public static PromptExecutor usingEngine(LLMEngine engine) {
         return new PromptExecutor(engine);
     }
@@ -1,14 +1,22 @@
 package org.promptunit.dsl;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.promptunit.LLMEngine;
+import org.promptunit.core.OutputSchema;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
+import org.promptunit.core.SampleSet;
+import org.promptunit.evaluation.StreamingSchemaCheck;
+import org.promptunit.execution.DefaultTimeout;
 
 public final class PromptExecutor {
 	private final LLMEngine engine;
 	private PromptInstance instance;
-	private long timeoutMs = Long.MAX_VALUE;
+	private long timeoutMs = DefaultTimeout.millis();
+	private boolean abortOnSchemaViolation;
 
 	public PromptExecutor(LLMEngine engine) {
 		this.engine = Objects.requireNonNull(engine, "engine");
@@ -25,10 +33,73 @@ public final class PromptExecutor {
 		return this;
 	}
 
+	/**
+	 * Makes {@link #executeStreaming} check the output against the instance's {@link OutputSchema} as
+	 * it arrives and fail as soon as it can no longer conform, cancelling the rest of the generation.
+	 * See {@link StreamingSchemaCheck} for what is decided early.
+	 */
+	public PromptExecutor abortOnSchemaViolation() {
+		this.abortOnSchemaViolation = true;
+		return this;
+	}
+
 	public PromptResultAssert execute() {
 		if (instance == null) throw new IllegalStateException("PromptInstance not set. Call withInstance(...) first.");
 		PromptResult result = engine.execute(instance, timeoutMs);
 		return new PromptResultAssert(result);
 	}
 
+	/**
+	 * Starts the prompt without blocking; the instance and timeout are captured when this is called,
+	 * so the executor can be reconfigured for the next prompt straight away.
+	 */
+	public CompletableFuture<PromptResultAssert> executeAsync() {
+		if (instance == null) throw new IllegalStateException("PromptInstance not set. Call withInstance(...) first.");
+		return engine.executeAsync(instance, timeoutMs).thenApply(PromptResultAssert::new);
+	}
+
+	public PromptResultAssert executeStreaming() {
+		return executeStreaming(token -> {});
+	}
+
+	public PromptResultAssert executeStreaming(Consumer<String> tokenConsumer) {
+		if (instance == null) throw new IllegalStateException("PromptInstance not set. Call withInstance(...) first.");
+		if (!abortOnSchemaViolation) {
+			return new PromptResultAssert(engine.executeStreaming(instance, timeoutMs, tokenConsumer));
+		}
+		OutputSchema schema = instance.outputSchema().orElseThrow(() ->
+				new IllegalStateException("abortOnSchemaViolation() requires a PromptInstance with an OutputSchema"));
+		StreamingSchemaCheck check = new StreamingSchemaCheck(schema.jsonSchema());
+		try {
+			PromptResult result = engine.executeStreaming(instance, timeoutMs,
+					tokenConsumer != null ? check.andThen(tokenConsumer) : check);
+			return new PromptResultAssert(result);
+		} catch (RuntimeException e) {
+			if (check.violation().isEmpty()) throw e;
+			throw new AssertionError("Expected streamed output to conform to JSON schema, but generation was aborted: "
+					+ check.violation().get(), e);
+		}
+	}
+
+	/**
+	 * Runs the prompt {@code nTimes} concurrently within the timeout and asserts over the successful
+	 * samples, with the wall-clock time they took for throughput assertions.
+	 */
+	public PromptResultsAssert sample(int nTimes) {
+		if (instance == null) throw new IllegalStateException("PromptInstance not set. Call withInstance(...) first.");
+		long startNs = System.nanoTime();
+		SampleSet samples = engine.sample(instance, timeoutMs, nTimes);
+		Duration elapsed = Duration.ofNanos(Math.max(1, System.nanoTime() - startNs));
+		return new PromptResultsAssert(samples).withElapsed(elapsed);
+	}
+
+	/**
+	 * Starts a sampling assertion that runs {@code check} against repeated executions of the prompt;
+	 * finish it with {@link SamplingAssert#passRateAtLeast(double)} and {@link SamplingAssert#verify()}.
+	 */
+	public SamplingAssert sampling(Consumer<PromptResultAssert> check) {
+		if (instance == null) throw new IllegalStateException("PromptInstance not set. Call withInstance(...) first.");
+		return new SamplingAssert(engine, instance, timeoutMs, check);
+	}
+
 }
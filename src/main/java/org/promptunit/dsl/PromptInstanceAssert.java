@@ -5,6 +5,8 @@ import org.promptunit.core.PromptInstance;
 import org.promptunit.embedding.EmbeddingModel;
 import org.promptunit.guardrails.GuardrailResult;
 import org.promptunit.guardrails.GuardrailRule;
+import org.promptunit.tokenizer.Tokenizer;
+import org.promptunit.tokenizer.Tokenizers;
 
 public class PromptInstanceAssert {
 
@@ -70,6 +72,31 @@ public class PromptInstanceAssert {
 		return this;
 	}
 
+	/**
+	 * Counts with the rank file for the prompt's model. Fails with {@link IllegalStateException} when that
+	 * file is not available rather than asserting against an estimate; pass a {@link Tokenizer} to opt in
+	 * to one.
+	 */
+	public PromptInstanceAssert tokenCountBelow(int maxTokens) {
+		Tokenizer tokenizer = Tokenizers.forModel(promptInstance.provider(), promptInstance.model());
+		if (!tokenizer.isExact())
+			throw new IllegalStateException("No rank file for %s: set %s or add %s%s.tiktoken to the classpath"
+					.formatted(tokenizer.name(), Tokenizers.ENV_VAR, Tokenizers.RESOURCE_DIR, tokenizer.name()));
+		return tokenCountBelow(maxTokens, tokenizer);
+	}
+
+	/**
+	 * Like every other {@code *Below} assertion, fails only when the count exceeds {@code maxTokens};
+	 * a prompt of exactly {@code maxTokens} tokens passes.
+	 */
+	public PromptInstanceAssert tokenCountBelow(int maxTokens, Tokenizer tokenizer) {
+		int tokens = tokenizer.countTokens(promptInstance);
+		if (tokens > maxTokens)
+			throw new AssertionError("Expected prompt tokens < %d but %s counted %d%s"
+					.formatted(maxTokens, tokenizer.name(), tokens, tokenizer.isExact() ? "" : " (estimated)"));
+		return this;
+	}
+
 	public PromptInstanceAssert conformsToGuardrail(GuardrailRule rule) {
 		GuardrailResult guardrailResult = rule.evaluatePromptInstance(promptInstance);
 		if (!guardrailResult.passed())
@@ -1,23 +1,26 @@
 package org.promptunit.dsl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import com.networknt.schema.JsonSchema;
-import com.networknt.schema.JsonSchemaFactory;
-import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.promptunit.LLMEngineInfo;
 import org.promptunit.core.OutputSchema;
 import org.promptunit.core.PromptResult;
+import org.promptunit.core.StreamingMetrics;
+import org.promptunit.core.TokenUsage;
 import org.promptunit.embedding.EmbeddingModel;
+import org.promptunit.evaluation.CompiledSchemaCache;
 import org.promptunit.guardrails.GuardrailResult;
 import org.promptunit.guardrails.GuardrailRule;
 import org.promptunit.tools.ToolCall;
@@ -27,23 +30,18 @@ import org.promptunit.tools.ToolRef;
 public class PromptResultAssert {
 
 	private final PromptResult result;
+	private final JsonDocument json;
 	private JsonNode readTree;
 	private EmbeddingModel embeddingModel;
 
 	PromptResultAssert(PromptResult result) {
 		this.result = result;
+		this.json = new JsonDocument(result.rawOutput());
 	}
 
 	public PromptResultAssert containsValidJson() {
-		JsonNode parsed = tryParse(result.rawOutput());
-		if (parsed == null) {
-			String extracted = JsonExtractors.extract(result.rawOutput());
-			if (extracted != null && !extracted.isBlank()) {
-				parsed = tryParse(extracted);
-			} else {
-				throw new AssertionError("Expected raw output to contain valid JSON content");
-			}
-		}
+		JsonNode parsed = json.lenient();
+		if (parsed == null) parsed = json.content();
 		if (parsed == null) {
 			throw new AssertionError("Expected raw output to contain valid JSON content");
 		}
@@ -63,18 +61,9 @@ public class PromptResultAssert {
 		}
 		String schemaJson = schemaOpt.get().jsonSchema();
 
-		JsonNode jsonNode;
-		// If engine declares schema support, try direct parse first
-		if (engineInfo.supportsOutputSchema()) {
-			jsonNode = tryParse(result.rawOutput());
-			if (jsonNode == null) {
-				jsonNode = extractThenParse(result.rawOutput());
-				if (jsonNode == null) failNotParsable();
-			}
-		} else {
-			jsonNode = extractThenParse(result.rawOutput());
-			if (jsonNode == null) failNotParsable();
-		}
+		// Engines with native schema support return bare JSON; the lenient form covers both cases
+		JsonNode jsonNode = json.lenient();
+		if (jsonNode == null) failNotParsable();
 
 		validateAgainstSchema(jsonNode, schemaJson);
 		this.readTree = jsonNode;
@@ -85,29 +74,8 @@ public class PromptResultAssert {
 		throw new AssertionError("Could not locate or parse valid JSON from LLM output for schema validation");
 	}
 
-	private JsonNode tryParse(String text) {
-		try {
-			return new ObjectMapper().readTree(text);
-		} catch (Exception e) {
-			return null;
-		}
-	}
-
-	private JsonNode extractThenParse(String text) {
-		String extracted = JsonExtractors.extract(text);
-		if (extracted == null) return null;
-		return tryParse(extracted);
-	}
-
 	private void validateAgainstSchema(JsonNode output, String schemaJson) {
-		JsonNode schemaNode;
-		try {
-			schemaNode = new ObjectMapper().readTree(schemaJson);
-		} catch (Exception e) {
-			throw new IllegalArgumentException("Invalid JSON schema provided: " + e.getMessage(), e);
-		}
-
-		JsonSchema jsonSchema = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7).getSchema(schemaNode);
+		JsonSchema jsonSchema = CompiledSchemaCache.shared().get(schemaJson);
 		Set<ValidationMessage> validationMessages = jsonSchema.validate(output);
 		if (!validationMessages.isEmpty()) {
 			String errors = validationMessages.stream()
@@ -117,36 +85,51 @@ public class PromptResultAssert {
 		}
 	}
 
-	private synchronized JsonNode getReadTree() {
+	private JsonNode getReadTree() {
 		if (readTree != null) return readTree;
-		try {
-			readTree = new ObjectMapper().readTree(result.rawOutput());
-			return readTree;
-		} catch (Exception e) {
-			throw new AssertionError("Expected raw output to be valid JSON: " + result.rawOutput(), e);
-		}
+		JsonNode parsed = json.strict();
+		if (parsed == null)
+			throw new AssertionError("Expected raw output to be valid JSON: " + result.rawOutput());
+		readTree = parsed;
+		return readTree;
 	}
 
 	public PromptResultAssert jsonPathExists(String path) {
 		try {
-			JsonPath.parse(result.rawOutput()).read(path);
+			JsonDocument.read(getReadTree(), path);
 		} catch (PathNotFoundException e) {
 			throw new AssertionError("Expected raw output to contain node at path: " + path, e);
 		}
 		return this;
 	}
 
-	public PromptResultAssert conformsToSchema(String schema) {
-		JsonNode schemaNode;
-		try {
-			ObjectMapper mapper = new ObjectMapper();
-			schemaNode = mapper.readTree(schema);
-		} catch (Exception e) {
-			throw new IllegalArgumentException("Invalid JSON schema provided: " + e.getMessage(), e);
+	/**
+	 * Evaluates every path against the parsed output and checks its value with the paired predicate,
+	 * reporting all paths that are missing or fail in one error. Values are plain Java objects as
+	 * described for {@link ToolCallAssert#withArgsMatching(String, Object)}.
+	 */
+	public PromptResultAssert jsonPaths(Map<String, ? extends Predicate<Object>> checks) {
+		JsonNode tree = getReadTree();
+		List<String> failures = new ArrayList<>();
+		for (Map.Entry<String, ? extends Predicate<Object>> check : checks.entrySet()) {
+			String path = check.getKey();
+			Object value;
+			try {
+				value = JsonDocument.read(tree, path);
+			} catch (PathNotFoundException e) {
+				failures.add(path + ": no node at path");
+				continue;
+			}
+			if (!check.getValue().test(value)) failures.add(path + ": predicate did not hold for " + value);
 		}
+		if (!failures.isEmpty())
+			throw new AssertionError("Expected all " + checks.size() + " JSONPath checks to pass, but "
+					+ failures.size() + " failed:\n  " + String.join("\n  ", failures));
+		return this;
+	}
 
-		JsonSchema jsonSchema = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7)
-				.getSchema(schemaNode);
+	public PromptResultAssert conformsToSchema(String schema) {
+		JsonSchema jsonSchema = CompiledSchemaCache.shared().get(schema);
 		Set<ValidationMessage> validationMessages = jsonSchema.validate(getReadTree());
 		if (!validationMessages.isEmpty()) {
 			String errors = validationMessages.stream()
@@ -182,12 +165,60 @@ public class PromptResultAssert {
 		return this;
 	}
 
+	public PromptResultAssert promptTokensBelow(int tokens) {
+		TokenUsage usage = requireUsage();
+		if (usage.promptTokens() > tokens)
+			throw new AssertionError("Expected prompt tokens < " + tokens + " but got " + usage.promptTokens());
+		return this;
+	}
+
+	public PromptResultAssert completionTokensBelow(int tokens) {
+		TokenUsage usage = requireUsage();
+		if (usage.completionTokens() > tokens)
+			throw new AssertionError("Expected completion tokens < " + tokens + " but got " + usage.completionTokens());
+		return this;
+	}
+
 	public PromptResultAssert costBelow(double amount) {
 		if (result.cost() > amount)
 			throw new AssertionError("Expected cost usage < " + amount + " but got " + result.cost());
 		return this;
 	}
 
+	public PromptResultAssert timeToFirstTokenBelow(long millis) {
+		StreamingMetrics metrics = requireStreamingMetrics();
+		if (metrics.timeToFirstTokenMs() > millis)
+			throw new AssertionError("Expected time to first token < " + millis + "ms but got " + metrics.timeToFirstTokenMs());
+		return this;
+	}
+
+	public PromptResultAssert interTokenLatencyBelow(long millis) {
+		StreamingMetrics metrics = requireStreamingMetrics();
+		if (metrics.meanInterTokenMs() > millis)
+			throw new AssertionError("Expected mean inter-token latency < " + millis + "ms but got " + metrics.meanInterTokenMs());
+		return this;
+	}
+
+	public PromptResultAssert maxInterTokenLatencyBelow(long millis) {
+		StreamingMetrics metrics = requireStreamingMetrics();
+		if (metrics.maxInterTokenMs() > millis)
+			throw new AssertionError("Expected max inter-token latency < " + millis + "ms but got " + metrics.maxInterTokenMs());
+		return this;
+	}
+
+	private TokenUsage requireUsage() {
+		TokenUsage usage = result.usage();
+		if (!usage.isKnown())
+			throw new AssertionError("No token usage reported on PromptResult; the engine or provider did not return usage metadata");
+		return usage;
+	}
+
+	private StreamingMetrics requireStreamingMetrics() {
+		if (result.streamingMetrics() == null)
+			throw new AssertionError("No streaming metrics available on PromptResult; execute the prompt with executeStreaming(...)");
+		return result.streamingMetrics();
+	}
+
 	public PromptResultAssert withEmbeddingModel(EmbeddingModel embeddingModel) {
 		this.embeddingModel = embeddingModel;
 		return this;
@@ -245,10 +276,9 @@ public class PromptResultAssert {
 	public String jsonString(boolean formatted) {
 		JsonNode node = ensureJsonNode();
 		try {
-			ObjectMapper mapper = new ObjectMapper();
 			return formatted
-					? mapper.writerWithDefaultPrettyPrinter().writeValueAsString(node)
-					: mapper.writeValueAsString(node);
+					? JsonDocument.MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(node)
+					: JsonDocument.MAPPER.writeValueAsString(node);
 		} catch (Exception e) {
 			throw new AssertionError("Failed to serialize JSON content", e);
 		}
@@ -257,10 +287,7 @@ public class PromptResultAssert {
 	// --- Internals ---
 	private JsonNode ensureJsonNode() {
 		if (readTree != null) return readTree;
-		JsonNode parsed = tryParse(result.rawOutput());
-		if (parsed == null) {
-			parsed = extractThenParse(result.rawOutput());
-		}
+		JsonNode parsed = json.content();
 		if (parsed == null) {
 			throw new AssertionError("Expected raw output to contain valid JSON content");
 		}
@@ -269,9 +296,7 @@ public class PromptResultAssert {
 	}
 
 	public <T> T toResult(Class<T> targetType) {
-		JsonNode jsonNode = jsonNode();
-		ObjectMapper mapper = new ObjectMapper();
-		return mapper.convertValue(jsonNode, targetType);
+		return JsonDocument.MAPPER.convertValue(jsonNode(), targetType);
 	}
 
 	// --- Tool call assertions ---
@@ -328,14 +353,20 @@ public class PromptResultAssert {
 			return parent();
 		}
 
+		/**
+		 * Reads {@code jsonPath} from the args and compares it with {@code expected} using {@code equals}.
+		 * Objects read as maps, arrays as lists, and scalars as {@code String}, {@code Boolean},
+		 * {@code Integer}, {@code Long} or {@code Double}, so {@code 123} matches but {@code "123"} and
+		 * {@code 123L} do not.
+		 */
 		public PromptResultAssert withArgsMatching(String jsonPath, Object expected) {
 			Object actual;
 			try {
-				actual = com.jayway.jsonpath.JsonPath.read(call.args().toString(), jsonPath);
+				actual = JsonDocument.read(call.args(), jsonPath);
 			} catch (Exception e) {
 				throw new AssertionError("Failed to read JSONPath '" + jsonPath + "' from tool args", e);
 			}
-			if (!java.util.Objects.equals(actual, expected))
+			if (!Objects.equals(actual, expected))
 				throw new AssertionError("Expected JSONPath " + jsonPath + " == " + expected + ", but was " + actual);
 			return parent();
 		}
@@ -353,7 +384,7 @@ public class PromptResultAssert {
 
 		private JsonNode parse(String json) {
 			try {
-				return new ObjectMapper().readTree(json);
+				return JsonDocument.MAPPER.readTree(json);
 			} catch (Exception e) {
 				throw new IllegalArgumentException("Invalid JSON provided: " + e.getMessage(), e);
 			}
@@ -0,0 +1,104 @@
+package org.promptunit.dsl;
+
+import java.time.Duration;
+import java.util.Objects;
+import org.promptunit.core.PromptResult;
+import org.promptunit.load.LatencyHistogram;
+
+/**
+ * Aggregate assertions over many results, e.g. the {@code SampleSet} from
+ * {@code LLMEngine.sample(...)} or the set from {@code execute(instance, timeoutMs, nTimes)}. The
+ * results are read once: latencies go into a {@link LatencyHistogram} (within 1% of the exact
+ * percentile) and tokens and cost into running sums, so nothing is sorted or retained. Results
+ * reporting unknown latency, tokens or cost ({@code -1}) are left out of that statistic.
+ * <p>
+ * {@link #throughputAtLeast(double)} needs the wall-clock time the results took to produce; it is
+ * measured by {@link PromptExecutor#sample(int)} and otherwise given with {@link #withElapsed(Duration)}.
+ */
+public class PromptResultsAssert {
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private long results;
+	private long tokenSamples;
+	private long totalTokens;
+	private double totalCost;
+	private Duration elapsed;
+
+	PromptResultsAssert(Iterable<PromptResult> results) {
+		for (PromptResult result : Objects.requireNonNull(results, "results")) {
+			this.results++;
+			if (result.latencyMs() >= 0) latency.recordMillis(result.latencyMs());
+			if (result.tokenUsage() >= 0) {
+				tokenSamples++;
+				totalTokens += result.tokenUsage();
+			}
+			if (result.cost() >= 0) totalCost += result.cost();
+		}
+	}
+
+	/** Wall-clock time over which the results were produced, for {@link #throughputAtLeast(double)}. */
+	public PromptResultsAssert withElapsed(Duration elapsed) {
+		if (elapsed.isNegative() || elapsed.isZero()) throw new IllegalArgumentException("elapsed must be > 0");
+		this.elapsed = elapsed;
+		return this;
+	}
+
+	public PromptResultsAssert hasSizeAtLeast(int n) {
+		if (results < n)
+			throw new AssertionError("Expected at least " + n + " results but got " + results);
+		return this;
+	}
+
+	public PromptResultsAssert latencyP50Below(long millis) {
+		return latencyPercentileBelow(50, millis);
+	}
+
+	public PromptResultsAssert latencyP95Below(long millis) {
+		return latencyPercentileBelow(95, millis);
+	}
+
+	public PromptResultsAssert latencyP99Below(long millis) {
+		return latencyPercentileBelow(99, millis);
+	}
+
+	public PromptResultsAssert latencyPercentileBelow(double percentile, long millis) {
+		if (latency.count() == 0)
+			throw new AssertionError("No latency reported on any of the " + results + " results");
+		double value = latency.valueAtPercentileMillis(percentile);
+		if (value > millis)
+			throw new AssertionError("Expected p" + format(percentile) + " latency < " + millis + "ms but got "
+					+ format(value) + "ms over " + latency.count() + " results (" + latency + ")");
+		return this;
+	}
+
+	public PromptResultsAssert meanTokenUsageBelow(double tokens) {
+		if (tokenSamples == 0)
+			throw new AssertionError("No token usage reported on any of the " + results + " results");
+		double mean = (double) totalTokens / tokenSamples;
+		if (mean > tokens)
+			throw new AssertionError("Expected mean token usage < " + format(tokens) + " but got " + format(mean)
+					+ " over " + tokenSamples + " results");
+		return this;
+	}
+
+	public PromptResultsAssert totalCostBelow(double amount) {
+		if (totalCost > amount)
+			throw new AssertionError("Expected total cost < " + amount + " but got " + totalCost + " over " + results + " results");
+		return this;
+	}
+
+	/** Results per second of wall-clock time. */
+	public PromptResultsAssert throughputAtLeast(double requestsPerSecond) {
+		if (elapsed == null)
+			throw new IllegalStateException("Elapsed time unknown. Call withElapsed(...) or use PromptExecutor.sample(...).");
+		double rps = results / (elapsed.toNanos() / 1e9);
+		if (rps < requestsPerSecond)
+			throw new AssertionError("Expected throughput >= " + format(requestsPerSecond) + " rps but got " + format(rps)
+					+ " rps (" + results + " results in " + elapsed.toMillis() + "ms)");
+		return this;
+	}
+
+	private static String format(double value) {
+		return value == Math.rint(value) ? String.valueOf((long) value) : "%.2f".formatted(value);
+	}
+}
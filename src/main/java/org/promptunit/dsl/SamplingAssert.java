@@ -0,0 +1,148 @@
+package org.promptunit.dsl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.promptunit.LLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.SampleSet;
+import org.promptunit.evaluation.SequentialPassRate;
+
+/**
+ * Asserts that a nondeterministic prompt passes a check often enough, drawing samples in small
+ * concurrent batches and stopping as soon as the outcome is statistically clear:
+ * <pre>{@code
+ * usingEngine(engine).withInstance(instance)
+ *     .sampling(r -> r.containsValidJson().jsonPathExists("$.summary"))
+ *     .passRateAtLeast(0.9).withConfidence(0.95)
+ *     .verify();
+ * }</pre>
+ * A sample passes when the check throws no {@link AssertionError}; failed and timed-out calls count
+ * as failing samples. If {@link #withMaxSamples(int) maxSamples} runs out before the test is
+ * conclusive, the assertion fails as inconclusive.
+ */
+public final class SamplingAssert {
+
+	public static final int DEFAULT_MAX_SAMPLES = 100;
+	public static final int DEFAULT_BATCH_SIZE = 4;
+	public static final double DEFAULT_CONFIDENCE = 0.95;
+
+	private static final int MAX_REPORTED_FAILURES = 3;
+
+	private final LLMEngine engine;
+	private final PromptInstance instance;
+	private final long timeoutMs;
+	private final Consumer<PromptResultAssert> check;
+	private double target = Double.NaN;
+	private double confidence = DEFAULT_CONFIDENCE;
+	private double indifference = SequentialPassRate.DEFAULT_INDIFFERENCE;
+	private SequentialPassRate.Method method = SequentialPassRate.Method.SPRT;
+	private int maxSamples = DEFAULT_MAX_SAMPLES;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private SequentialPassRate outcome;
+	private int samplesDrawn;
+
+	SamplingAssert(LLMEngine engine, PromptInstance instance, long timeoutMs, Consumer<PromptResultAssert> check) {
+		this.engine = engine;
+		this.instance = instance;
+		this.timeoutMs = timeoutMs;
+		this.check = Objects.requireNonNull(check, "check");
+	}
+
+	public SamplingAssert passRateAtLeast(double rate) {
+		if (!(rate > 0.0 && rate <= 1.0)) throw new IllegalArgumentException("rate must be in (0, 1]");
+		this.target = rate;
+		return this;
+	}
+
+	public SamplingAssert withConfidence(double confidence) {
+		if (!(confidence > 0.5 && confidence < 1.0)) throw new IllegalArgumentException("confidence must be in (0.5, 1)");
+		this.confidence = confidence;
+		return this;
+	}
+
+	/** Half-width of the region around the target rate where the sequential test may decide either way. */
+	public SamplingAssert withIndifference(double indifference) {
+		if (!(indifference > 0.0 && indifference < 0.5)) throw new IllegalArgumentException("indifference must be in (0, 0.5)");
+		this.indifference = indifference;
+		return this;
+	}
+
+	/** Decides on the Wilson score bounds instead of the sequential probability ratio test. */
+	public SamplingAssert usingWilsonBound() {
+		this.method = SequentialPassRate.Method.WILSON;
+		return this;
+	}
+
+	public SamplingAssert withMaxSamples(int maxSamples) {
+		if (maxSamples < 1) throw new IllegalArgumentException("maxSamples must be >= 1");
+		this.maxSamples = maxSamples;
+		return this;
+	}
+
+	/** Samples drawn concurrently between checks; larger batches finish sooner but may overshoot. */
+	public SamplingAssert withBatchSize(int batchSize) {
+		if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * Draws samples until the pass rate is shown to be at least the target, or shown to be below it,
+	 * or {@code maxSamples} is used up. Each batch shares one {@code timeoutMs} deadline.
+	 */
+	public SamplingAssert verify() {
+		if (Double.isNaN(target)) throw new IllegalStateException("Pass rate not set. Call passRateAtLeast(...) first.");
+		SequentialPassRate test = new SequentialPassRate(target, confidence, method, indifference);
+		List<String> failures = new ArrayList<>();
+		int drawn = 0;
+		while (test.verdict() == SequentialPassRate.Verdict.CONTINUE && drawn < maxSamples) {
+			int n = Math.min(batchSize, maxSamples - drawn);
+			SampleSet batch = engine.sample(instance, timeoutMs, n, n);
+			drawn += n;
+			for (SampleSet.Sample sample : batch.samples()) {
+				String failure = evaluate(sample);
+				if (failure != null && failures.size() < MAX_REPORTED_FAILURES) {
+					failures.add("sample " + (drawn - n + sample.index()) + ": " + failure);
+				}
+				if (test.record(failure == null) != SequentialPassRate.Verdict.CONTINUE) break;
+			}
+		}
+		this.outcome = test;
+		this.samplesDrawn = drawn;
+
+		if (test.verdict() == SequentialPassRate.Verdict.PASS) return this;
+		String reason = test.verdict() == SequentialPassRate.Verdict.FAIL
+				? "but it is below the target"
+				: "but the result was inconclusive after " + drawn + " samples; raise withMaxSamples(...) or lower the confidence";
+		StringBuilder message = new StringBuilder("Expected pass rate >= %s at %.0f%% confidence %s: %s"
+				.formatted(target, confidence * 100, reason, test));
+		for (String failure : failures) message.append(System.lineSeparator()).append("  ").append(failure);
+		throw new AssertionError(message.toString());
+	}
+
+	/** The sequential test after {@link #verify()}, with the counts and bounds it decided on. */
+	public SequentialPassRate outcome() {
+		if (outcome == null) throw new IllegalStateException("verify() has not been called");
+		return outcome;
+	}
+
+	/** Provider calls made by {@link #verify()}, including any drawn after the decision within the last batch. */
+	public int samplesDrawn() {
+		return samplesDrawn;
+	}
+
+	private String evaluate(SampleSet.Sample sample) {
+		if (!sample.succeeded()) {
+			Throwable error = sample.error();
+			return sample.status() + (error != null ? " (" + error.getMessage() + ")" : "");
+		}
+		try {
+			check.accept(new PromptResultAssert(sample.result()));
+			return null;
+		} catch (AssertionError e) {
+			return e.getMessage();
+		}
+	}
+}
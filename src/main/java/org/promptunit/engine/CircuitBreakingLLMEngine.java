@@ -0,0 +1,80 @@
+package org.promptunit.engine;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.promptunit.LLMCircuitOpenException;
+import org.promptunit.LLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.CircuitBreaker;
+import org.promptunit.execution.CircuitBreakerRegistry;
+
+/**
+ * Guards the wrapped engine with the {@link CircuitBreaker} registered for its provider. While the
+ * breaker is open, calls fail immediately with {@link LLMCircuitOpenException} instead of waiting
+ * for their timeout.
+ * <p>
+ * By default only failures {@link TransientFailures} considers transient (timeouts, connection
+ * errors, 429 and 5xx) count against the provider; other failures, such as a rejected request, are
+ * passed through without affecting the breaker.
+ */
+public class CircuitBreakingLLMEngine extends ForwardingLLMEngine {
+
+	private final CircuitBreakerRegistry registry;
+	private final Predicate<Throwable> recordAsFailure;
+
+	public CircuitBreakingLLMEngine(LLMEngine delegate) {
+		this(delegate, CircuitBreakerRegistry.shared());
+	}
+
+	public CircuitBreakingLLMEngine(LLMEngine delegate, CircuitBreakerRegistry registry) {
+		this(delegate, registry, TransientFailures::isTransient);
+	}
+
+	public CircuitBreakingLLMEngine(LLMEngine delegate, CircuitBreakerRegistry registry, Predicate<Throwable> recordAsFailure) {
+		super(delegate);
+		this.registry = Objects.requireNonNull(registry, "registry");
+		this.recordAsFailure = Objects.requireNonNull(recordAsFailure, "recordAsFailure");
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		CircuitBreaker breaker = breaker();
+		CircuitBreaker.Permit permit = breaker.acquirePermission();
+		long start = System.nanoTime();
+		try {
+			PromptResult result = delegate.invokeOnce(instance, timeoutMs);
+			breaker.onSuccess(permit, System.nanoTime() - start);
+			return result;
+		} catch (Throwable e) {
+			// Errors too, or a half-open probe would keep its permit and the breaker never close
+			recordFailure(breaker, permit, e, System.nanoTime() - start);
+			throw e;
+		}
+	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		CircuitBreaker breaker = breaker();
+		CircuitBreaker.Permit permit = breaker.acquirePermission();
+		long start = System.nanoTime();
+		try {
+			PromptResult result = delegate.invokeStreaming(instance, timeoutMs, tokenConsumer);
+			breaker.onSuccess(permit, System.nanoTime() - start);
+			return result;
+		} catch (Throwable e) {
+			recordFailure(breaker, permit, e, System.nanoTime() - start);
+			throw e;
+		}
+	}
+
+	public CircuitBreaker breaker() {
+		return registry.breakerFor(delegate.provider());
+	}
+
+	private void recordFailure(CircuitBreaker breaker, CircuitBreaker.Permit permit, Throwable e, long durationNanos) {
+		if (recordAsFailure.test(e)) breaker.onFailure(permit, durationNanos);
+		else breaker.onIgnored(permit);
+	}
+}
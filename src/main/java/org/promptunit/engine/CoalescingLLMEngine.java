@@ -0,0 +1,113 @@
+package org.promptunit.engine;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptFingerprint;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.Deadline;
+
+/**
+ * Single-flight decorator: concurrent {@link #invokeOnce} calls for the same {@link PromptFingerprint}
+ * share one provider call. The first caller performs the call; callers arriving while it is in flight
+ * wait for its result instead of issuing their own. Nothing is cached once the call completes.
+ * <p>
+ * By default only deterministic prompts (temperature 0) are coalesced, so sampling a
+ * non-deterministic prompt still yields independent samples. Each waiting caller honours its own
+ * timeout; a failure of the shared call is reported to every caller that joined it.
+ * Streaming calls are not coalesced, since each caller consumes its own chunks.
+ */
+public class CoalescingLLMEngine extends ForwardingLLMEngine {
+
+	private final Predicate<PromptInstance> eligible;
+	private final ConcurrentHashMap<String, CompletableFuture<PromptResult>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder providerCalls = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	public CoalescingLLMEngine(LLMEngine delegate) {
+		this(delegate, CoalescingLLMEngine::isDeterministic);
+	}
+
+	public CoalescingLLMEngine(LLMEngine delegate, Predicate<PromptInstance> eligible) {
+		super(delegate);
+		this.eligible = Objects.requireNonNull(eligible, "eligible");
+	}
+
+	public static boolean isDeterministic(PromptInstance instance) {
+		return instance.temperature() != null && instance.temperature() == 0.0;
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		if (!eligible.test(instance)) {
+			providerCalls.increment();
+			return delegate.invokeOnce(instance, timeoutMs);
+		}
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		String fingerprint = PromptFingerprint.of(instance);
+		CompletableFuture<PromptResult> call = new CompletableFuture<>();
+		CompletableFuture<PromptResult> existing = inFlight.putIfAbsent(fingerprint, call);
+		if (existing != null) {
+			coalesced.increment();
+			return await(existing, deadline, timeoutMs).withPromptInstance(instance);
+		}
+
+		providerCalls.increment();
+		try {
+			PromptResult result = delegate.invokeOnce(instance, timeoutMs);
+			call.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(fingerprint, call);
+		}
+	}
+
+	private static PromptResult await(CompletableFuture<PromptResult> call, Deadline deadline, long timeoutMs) {
+		try {
+			return deadline.isUnbounded() ? call.get() : call.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			throw new LLMTimeoutException("Timed out after " + timeoutMs + " ms waiting for a coalesced call", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMTimeoutException("Interrupted while waiting for a coalesced call", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof LLMTimeoutException) {
+				throw new LLMTimeoutException(cause.getMessage(), cause);
+			}
+			if (cause instanceof LLMInvocationException) {
+				throw new LLMInvocationException(cause.getMessage(), cause);
+			}
+			if (cause instanceof RuntimeException re) throw re;
+			if (cause instanceof Error err) throw err;
+			throw new LLMInvocationException("Coalesced call failed: " + cause.getMessage(), cause);
+		}
+	}
+
+	/** Number of calls actually forwarded to the wrapped engine. */
+	public long providerCallCount() {
+		return providerCalls.sum();
+	}
+
+	/** Number of calls served by joining another caller's in-flight call. */
+	public long coalescedCount() {
+		return coalesced.sum();
+	}
+
+	/** Number of distinct prompts currently in flight. */
+	public int inFlightCount() {
+		return inFlight.size();
+	}
+}
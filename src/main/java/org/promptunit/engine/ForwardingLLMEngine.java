@@ -0,0 +1,66 @@
+package org.promptunit.engine;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMEngineInfo;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+
+/**
+ * Base class for {@link LLMEngine} decorators. Every operation is forwarded to the wrapped engine;
+ * subclasses override the ones they add behaviour to.
+ */
+public abstract class ForwardingLLMEngine implements LLMEngine, LLMEngineInfo {
+
+	protected final LLMEngine delegate;
+
+	protected ForwardingLLMEngine(LLMEngine delegate) {
+		this.delegate = Objects.requireNonNull(delegate, "delegate");
+	}
+
+	public LLMEngine delegate() {
+		return delegate;
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		return delegate.invokeOnce(instance, timeoutMs);
+	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		return delegate.invokeStreaming(instance, timeoutMs, tokenConsumer);
+	}
+
+	@Override
+	public String schedulingProvider(PromptInstance instance) {
+		return delegate.schedulingProvider(instance);
+	}
+
+	@Override
+	public String provider() {
+		return delegate.provider();
+	}
+
+	@Override
+	public String model() {
+		return delegate.model();
+	}
+
+	@Override
+	public boolean supportsOutputSchema() {
+		return delegate instanceof LLMEngineInfo info && info.supportsOutputSchema();
+	}
+
+	@Override
+	public Optional<String> version() {
+		return delegate instanceof LLMEngineInfo info ? info.version() : Optional.empty();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+}
@@ -0,0 +1,71 @@
+package org.promptunit.engine;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import org.promptunit.LLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.Deadline;
+import org.promptunit.execution.RateLimiter;
+import org.promptunit.execution.RateLimiterRegistry;
+
+/**
+ * Throttles calls to the wrapped engine with the {@link RateLimiter} registered for the provider and
+ * the effective model of each prompt. Time spent waiting for the limiter counts against the caller's
+ * timeout. Once a call returns, the limiter's token budget is corrected with the reported usage.
+ */
+public class RateLimitedLLMEngine extends ForwardingLLMEngine {
+
+	private final RateLimiterRegistry registry;
+	private final ToLongFunction<PromptInstance> tokenEstimator;
+
+	public RateLimitedLLMEngine(LLMEngine delegate) {
+		this(delegate, RateLimiterRegistry.shared());
+	}
+
+	public RateLimitedLLMEngine(LLMEngine delegate, RateLimiterRegistry registry) {
+		this(delegate, registry, RateLimiter::estimateTokens);
+	}
+
+	public RateLimitedLLMEngine(LLMEngine delegate, RateLimiterRegistry registry, ToLongFunction<PromptInstance> tokenEstimator) {
+		super(delegate);
+		this.registry = Objects.requireNonNull(registry, "registry");
+		this.tokenEstimator = Objects.requireNonNull(tokenEstimator, "tokenEstimator");
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		PromptInstance served = asServed(instance);
+		RateLimiter limiter = registry.limiterFor(served.provider(), served.model());
+		long estimate = tokenEstimator.applyAsLong(served);
+		limiter.acquire(estimate, timeoutMs);
+		PromptResult result = delegate.invokeOnce(instance, deadline.remainingMillis());
+		limiter.reconcile(estimate, result.tokenUsage());
+		return result;
+	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		PromptInstance served = asServed(instance);
+		RateLimiter limiter = registry.limiterFor(served.provider(), served.model());
+		long estimate = tokenEstimator.applyAsLong(served);
+		limiter.acquire(estimate, timeoutMs);
+		PromptResult result = delegate.invokeStreaming(instance, deadline.remainingMillis(), tokenConsumer);
+		limiter.reconcile(estimate, result.tokenUsage());
+		return result;
+	}
+
+	public RateLimiter limiterFor(PromptInstance instance) {
+		PromptInstance served = asServed(instance);
+		return registry.limiterFor(served.provider(), served.model());
+	}
+
+	// The prompt as the delegate serves it, so the limiter and the token estimate agree on the model
+	private PromptInstance asServed(PromptInstance instance) {
+		String model = instance.model() != null ? instance.model() : delegate.model();
+		return instance.withProviderAndModel(delegate.provider(), model);
+	}
+}
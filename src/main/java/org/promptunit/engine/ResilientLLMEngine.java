@@ -0,0 +1,320 @@
+package org.promptunit.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.Deadline;
+import org.promptunit.execution.ExecutionScheduler;
+
+/**
+ * Adds classified retries and optional request hedging to the wrapped engine.
+ * <p>
+ * Failures that {@link TransientFailures} considers transient are retried with exponential backoff
+ * and full jitter, or after the provider's {@code Retry-After} hint when one is given. All attempts
+ * share the caller's timeout; no retry is started that could not finish before it.
+ * <p>
+ * With hedging enabled, a duplicate request is sent when the first has not answered within the
+ * configured percentile of recently observed latencies, and whichever answers first wins; the others
+ * are cancelled. Hedging only starts once enough latencies have been observed. Each hedge is admitted
+ * by the shared {@link ExecutionScheduler} for the caller's tenant, so it counts against the same
+ * limits as any other call. Streaming calls are retried only while no chunk has been delivered, and
+ * are never hedged.
+ */
+public class ResilientLLMEngine extends ForwardingLLMEngine {
+
+	private static final int LATENCY_WINDOW = 256;
+
+	private final int maxAttempts;
+	private final Duration initialBackoff;
+	private final Duration maxBackoff;
+	private final double multiplier;
+	private final Predicate<Throwable> retryable;
+	private final double hedgePercentile;
+	private final int maxHedges;
+	private final Duration minHedgeDelay;
+	private final int minLatencySamples;
+
+	private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_WINDOW);
+	private final AtomicLong latencyCount = new AtomicLong();
+	private final ExecutorService hedgeExecutor = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("promptunit-hedge-", 0).factory());
+
+	private final LongAdder attempts = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+
+	private ResilientLLMEngine(Builder builder) {
+		super(builder.delegate);
+		this.maxAttempts = builder.maxAttempts;
+		this.initialBackoff = builder.initialBackoff;
+		this.maxBackoff = builder.maxBackoff;
+		this.multiplier = builder.multiplier;
+		this.retryable = builder.retryable;
+		this.hedgePercentile = builder.hedgePercentile;
+		this.maxHedges = builder.maxHedges;
+		this.minHedgeDelay = builder.minHedgeDelay;
+		this.minLatencySamples = builder.minLatencySamples;
+	}
+
+	public static Builder builder(LLMEngine delegate) {
+		return new Builder(delegate);
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return maxHedges > 0 ? hedgedAttempt(instance, deadline) : timedAttempt(instance, deadline.remainingMillis());
+			} catch (RuntimeException e) {
+				backOffOrRethrow(attempt, e, deadline);
+			}
+		}
+	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		AtomicBoolean delivered = new AtomicBoolean();
+		Consumer<String> tracking = chunk -> {
+			delivered.set(true);
+			if (tokenConsumer != null) tokenConsumer.accept(chunk);
+		};
+		for (int attempt = 1; ; attempt++) {
+			attempts.increment();
+			try {
+				return delegate.invokeStreaming(instance, deadline.remainingMillis(), tracking);
+			} catch (RuntimeException e) {
+				// Chunks already handed to the caller cannot be taken back
+				if (delivered.get()) throw e;
+				backOffOrRethrow(attempt, e, deadline);
+			}
+		}
+	}
+
+	private PromptResult timedAttempt(PromptInstance instance, long timeoutMs) {
+		attempts.increment();
+		long start = System.nanoTime();
+		PromptResult result = delegate.invokeOnce(instance, timeoutMs);
+		recordLatency(System.nanoTime() - start);
+		return result;
+	}
+
+	private PromptResult hedgedAttempt(PromptInstance instance, Deadline deadline) {
+		Optional<Duration> hedgeDelay = hedgeDelay();
+		if (hedgeDelay.isEmpty()) return timedAttempt(instance, deadline.remainingMillis());
+
+		String tenant = ExecutionScheduler.currentTenant();
+		CompletableFuture<Attempt> winner = new CompletableFuture<>();
+		AtomicInteger outstanding = new AtomicInteger();
+		List<Future<?>> running = new ArrayList<>(maxHedges + 1);
+		try {
+			running.add(launch(instance, deadline, tenant, winner, outstanding, false));
+			for (int h = 0; h < maxHedges; h++) {
+				long waitNs = Math.min(hedgeDelay.get().toNanos(), deadline.remainingNanos());
+				try {
+					return won(winner.get(waitNs, TimeUnit.NANOSECONDS));
+				} catch (TimeoutException e) {
+					if (deadline.isExpired() || winner.isDone()) break;
+					hedges.increment();
+					running.add(launch(instance, deadline, tenant, winner, outstanding, true));
+				}
+			}
+			return won(deadline.isUnbounded() ? winner.get() : winner.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS));
+		} catch (TimeoutException e) {
+			throw new LLMTimeoutException("LLM invocation timed out after hedging", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMTimeoutException("Interrupted while waiting for hedged requests", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException re) throw re;
+			if (e.getCause() instanceof Error err) throw err;
+			throw new LLMInvocationException("Hedged request failed: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			for (Future<?> f : running) {
+				f.cancel(true);
+			}
+		}
+	}
+
+	/** Counted by the caller, so the count is visible as soon as the winning result is returned. */
+	private PromptResult won(Attempt attempt) {
+		if (attempt.hedge()) hedgeWins.increment();
+		return attempt.result();
+	}
+
+	private record Attempt(PromptResult result, boolean hedge) {}
+
+	/**
+	 * Runs an attempt on its own thread as {@code tenant}. The first attempt runs in the caller's slot;
+	 * each hedge is an extra provider call, so it waits for a slot of its own.
+	 */
+	private Future<?> launch(PromptInstance instance, Deadline deadline, String tenant,
+			CompletableFuture<Attempt> winner, AtomicInteger outstanding, boolean hedge) {
+		outstanding.incrementAndGet();
+		String provider = hedge ? delegate.schedulingProvider(instance) : null;
+		return hedgeExecutor.submit(() -> {
+			try (ExecutionScheduler.TenantScope scope = ExecutionScheduler.useTenant(tenant)) {
+				PromptResult result = provider == null
+						? timedAttempt(instance, deadline.remainingMillis())
+						: ExecutionScheduler.shared().call(provider, deadline.remainingMillis(), ms -> timedAttempt(instance, ms));
+				winner.complete(new Attempt(result, hedge));
+			} catch (Throwable t) {
+				// Only fail the attempt once no other request can still succeed
+				if (outstanding.decrementAndGet() == 0) winner.completeExceptionally(t);
+			}
+		});
+	}
+
+	private void backOffOrRethrow(int attempt, RuntimeException failure, Deadline deadline) {
+		if (attempt >= maxAttempts || !retryable.test(failure)) throw failure;
+		Duration backoff = TransientFailures.retryAfter(failure).orElseGet(() -> jitteredBackoff(attempt));
+		if (backoff.toMillis() >= deadline.remainingMillis()) throw failure;
+		retries.increment();
+		try {
+			Thread.sleep(backoff);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMTimeoutException("Interrupted while backing off before retry", e);
+		}
+	}
+
+	private Duration jitteredBackoff(int attempt) {
+		double ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() * Math.pow(multiplier, attempt - 1));
+		return Duration.ofMillis(ThreadLocalRandom.current().nextLong((long) ceiling + 1));
+	}
+
+	private void recordLatency(long nanos) {
+		long slot = latencyCount.getAndIncrement();
+		latencies.set((int) (slot % LATENCY_WINDOW), nanos);
+	}
+
+	/** The current hedge delay, or empty until enough latencies have been observed. */
+	public Optional<Duration> hedgeDelay() {
+		int n = (int) Math.min(latencyCount.get(), LATENCY_WINDOW);
+		if (maxHedges == 0 || n < minLatencySamples) return Optional.empty();
+		long[] window = new long[n];
+		for (int i = 0; i < n; i++) {
+			window[i] = latencies.get(i);
+		}
+		Arrays.sort(window);
+		int rank = (int) Math.ceil(hedgePercentile * n) - 1;
+		Duration observed = Duration.ofNanos(window[Math.max(0, Math.min(n - 1, rank))]);
+		return Optional.of(observed.compareTo(minHedgeDelay) < 0 ? minHedgeDelay : observed);
+	}
+
+	/** Calls forwarded to the wrapped engine, including retries and hedges. */
+	public long attemptCount() {
+		return attempts.sum();
+	}
+
+	public long retryCount() {
+		return retries.sum();
+	}
+
+	public long hedgeCount() {
+		return hedges.sum();
+	}
+
+	/** Hedged requests that answered before the request they duplicated. */
+	public long hedgeWinCount() {
+		return hedgeWins.sum();
+	}
+
+	@Override
+	public void close() {
+		hedgeExecutor.shutdownNow();
+		super.close();
+	}
+
+	public static final class Builder {
+		private final LLMEngine delegate;
+		private int maxAttempts = 3;
+		private Duration initialBackoff = Duration.ofMillis(500);
+		private Duration maxBackoff = Duration.ofSeconds(20);
+		private double multiplier = 2.0;
+		private Predicate<Throwable> retryable = TransientFailures::isTransient;
+		private double hedgePercentile = 0.95;
+		private int maxHedges;
+		private Duration minHedgeDelay = Duration.ofMillis(50);
+		private int minLatencySamples = 20;
+
+		private Builder(LLMEngine delegate) {
+			this.delegate = Objects.requireNonNull(delegate, "delegate");
+		}
+
+		/** Total attempts per call, including the first; {@code 1} disables retries. */
+		public Builder withMaxAttempts(int maxAttempts) {
+			if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1");
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		public Builder withBackoff(Duration initial, Duration max, double multiplier) {
+			if (initial.isNegative() || max.compareTo(initial) < 0 || multiplier < 1.0) {
+				throw new IllegalArgumentException("Backoff requires 0 <= initial <= max and multiplier >= 1");
+			}
+			this.initialBackoff = initial;
+			this.maxBackoff = max;
+			this.multiplier = multiplier;
+			return this;
+		}
+
+		public Builder withRetryOn(Predicate<Throwable> retryable) {
+			this.retryable = Objects.requireNonNull(retryable, "retryable");
+			return this;
+		}
+
+		/**
+		 * Sends up to {@code maxHedges} duplicates, each after the {@code percentile} latency of the last
+		 * 256 successful calls has elapsed without an answer.
+		 */
+		public Builder withHedging(double percentile, int maxHedges) {
+			if (percentile <= 0.0 || percentile >= 1.0) throw new IllegalArgumentException("percentile must be in (0, 1)");
+			if (maxHedges < 0) throw new IllegalArgumentException("maxHedges must not be negative");
+			this.hedgePercentile = percentile;
+			this.maxHedges = maxHedges;
+			return this;
+		}
+
+		public Builder withMinHedgeDelay(Duration minHedgeDelay) {
+			this.minHedgeDelay = Objects.requireNonNull(minHedgeDelay, "minHedgeDelay");
+			return this;
+		}
+
+		/** Successful calls to observe before hedging starts. */
+		public Builder withMinLatencySamples(int minLatencySamples) {
+			if (minLatencySamples < 1) throw new IllegalArgumentException("minLatencySamples must be at least 1");
+			this.minLatencySamples = minLatencySamples;
+			return this;
+		}
+
+		public ResilientLLMEngine build() {
+			return new ResilientLLMEngine(this);
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package org.promptunit.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.promptunit.LLMCircuitOpenException;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMEngineInfo;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.Deadline;
+import org.promptunit.execution.ExecutionScheduler;
+
+/**
+ * Routes each prompt to one of several engines, preferring the one expected to answer fastest, and
+ * falls back to the next when a target fails.
+ * <p>
+ * Every target keeps an exponentially weighted moving average of its successful call latency and of
+ * its error rate. Targets are ranked by {@code latency * (inFlight + 1) / (1 - errorRate)}, so load
+ * spreads to slower targets once the fastest one is busy, and targets that have not answered yet are
+ * tried first unless they have only failed. Ties keep the order the targets were added in. A target's error rate decays towards
+ * zero while it is not called, so a provider that failed earlier is eventually tried again.
+ * <p>
+ * The prompt is re-addressed to each target's own provider and model. Failures accepted by the
+ * fallback predicate (by default transient failures and open circuits) move on to the next target
+ * within the caller's timeout; streaming calls only fall back while no chunk has been delivered.
+ * Results keep the {@link PromptResult#engineInfo() engine info} of the target that served them.
+ * <p>
+ * Each target call is admitted by the {@link ExecutionScheduler} (by default the shared one) under
+ * the target's provider, so provider limits apply to the provider actually called. The router
+ * reports no {@link #schedulingProvider scheduling provider}, so {@code execute}, {@code sample} and
+ * decorators around it take no slot of their own for it.
+ */
+public class RoutingLLMEngine implements LLMEngine, LLMEngineInfo {
+
+	private final List<Target> targets;
+	private final double smoothing;
+	private final long errorHalfLifeNs;
+	private final Predicate<Throwable> fallbackOn;
+	private final ExecutionScheduler scheduler;
+
+	private RoutingLLMEngine(Builder builder) {
+		this.smoothing = builder.smoothing;
+		this.errorHalfLifeNs = builder.errorHalfLife.toNanos();
+		this.fallbackOn = builder.fallbackOn;
+		this.scheduler = builder.scheduler;
+		List<Target> list = new ArrayList<>();
+		for (int i = 0; i < builder.engines.size(); i++) {
+			list.add(new Target(builder.engines.get(i), i));
+		}
+		this.targets = List.copyOf(list);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/** None: each target call is admitted under the target's own provider instead. */
+	@Override
+	public String schedulingProvider(PromptInstance instance) {
+		return null;
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		List<RuntimeException> failures = new ArrayList<>();
+		for (Target target : ranked()) {
+			long start = target.begin();
+			try {
+				PromptInstance routed = retarget(instance, target.engine);
+				PromptResult result = scheduler.call(target.engine.provider(), deadline.remainingMillis(),
+						remainingMs -> target.engine.invokeOnce(routed, remainingMs));
+				target.succeeded(System.nanoTime() - start);
+				return served(result, target);
+			} catch (RuntimeException e) {
+				target.failed();
+				failures.add(e);
+				if (!fallbackOn.test(e) || deadline.isExpired()) break;
+			}
+		}
+		throw exhausted(failures);
+	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		AtomicBoolean delivered = new AtomicBoolean();
+		Consumer<String> tracking = chunk -> {
+			delivered.set(true);
+			if (tokenConsumer != null) tokenConsumer.accept(chunk);
+		};
+		List<RuntimeException> failures = new ArrayList<>();
+		for (Target target : ranked()) {
+			long start = target.begin();
+			try {
+				PromptInstance routed = retarget(instance, target.engine);
+				PromptResult result = scheduler.call(target.engine.provider(), deadline.remainingMillis(),
+						remainingMs -> target.engine.invokeStreaming(routed, remainingMs, tracking));
+				target.succeeded(System.nanoTime() - start);
+				return served(result, target);
+			} catch (RuntimeException e) {
+				target.failed();
+				failures.add(e);
+				if (delivered.get() || !fallbackOn.test(e) || deadline.isExpired()) break;
+			}
+		}
+		throw exhausted(failures);
+	}
+
+	/** Current routing statistics of every target, in the order they were added. */
+	public List<TargetStats> stats() {
+		return targets.stream().map(Target::stats).toList();
+	}
+
+	@Override
+	public String provider() {
+		return "routing";
+	}
+
+	@Override
+	public String model() {
+		return targets.stream()
+				.map(t -> t.engine.provider() + "/" + t.engine.model())
+				.collect(Collectors.joining(","));
+	}
+
+	@Override
+	public boolean supportsOutputSchema() {
+		return targets.stream().allMatch(t -> t.engine instanceof LLMEngineInfo info && info.supportsOutputSchema());
+	}
+
+	@Override
+	public void close() {
+		targets.forEach(t -> t.engine.close());
+	}
+
+	private List<Target> ranked() {
+		long now = System.nanoTime();
+		double[] scores = new double[targets.size()];
+		for (Target t : targets) scores[t.order] = t.score(now);
+		List<Target> ranked = new ArrayList<>(targets);
+		ranked.sort(Comparator.<Target>comparingDouble(t -> scores[t.order]).thenComparingInt(t -> t.order));
+		return ranked;
+	}
+
+	private static PromptInstance retarget(PromptInstance instance, LLMEngine engine) {
+		return instance.withProviderAndModel(engine.provider(), engine.model());
+	}
+
+	private static PromptResult served(PromptResult result, Target target) {
+		if (result.engineInfo() != null || !(target.engine instanceof LLMEngineInfo info)) return result;
+		return result.withEngineInfo(info);
+	}
+
+	/** The last failure, with those of the targets tried before it attached as suppressed. */
+	private static RuntimeException exhausted(List<RuntimeException> failures) {
+		RuntimeException last = failures.getLast();
+		for (RuntimeException f : failures.subList(0, failures.size() - 1)) last.addSuppressed(f);
+		return last;
+	}
+
+	public record TargetStats(String provider, String model, double latencyMs, double errorRate, int inFlight,
+			long calls, long failures) {}
+
+	private final class Target {
+		final LLMEngine engine;
+		final int order;
+		private double latencyNs = Double.NaN;
+		private double errorRate;
+		private long errorUpdatedNs = System.nanoTime();
+		private int inFlight;
+		private long calls;
+		private long failures;
+
+		Target(LLMEngine engine, int order) {
+			this.engine = engine;
+			this.order = order;
+		}
+
+		synchronized long begin() {
+			inFlight++;
+			calls++;
+			return System.nanoTime();
+		}
+
+		synchronized void succeeded(long latency) {
+			inFlight--;
+			latencyNs = Double.isNaN(latencyNs) ? latency : smoothing * latency + (1 - smoothing) * latencyNs;
+			updateErrorRate(0.0);
+		}
+
+		synchronized void failed() {
+			inFlight--;
+			failures++;
+			updateErrorRate(1.0);
+		}
+
+		synchronized double score(long now) {
+			double error = decayedErrorRate(now);
+			// Unmeasured targets go first, unless all they have done so far is fail
+			if (Double.isNaN(latencyNs)) return error < 0.01 ? 0.0 : Double.MAX_VALUE;
+			return latencyNs * (inFlight + 1) / Math.max(0.05, 1.0 - error);
+		}
+
+		synchronized TargetStats stats() {
+			return new TargetStats(engine.provider(), engine.model(),
+					Double.isNaN(latencyNs) ? Double.NaN : latencyNs / 1_000_000.0,
+					decayedErrorRate(System.nanoTime()), inFlight, calls, failures);
+		}
+
+		private void updateErrorRate(double sample) {
+			long now = System.nanoTime();
+			errorRate = smoothing * sample + (1 - smoothing) * decayedErrorRate(now);
+			errorUpdatedNs = now;
+		}
+
+		private double decayedErrorRate(long now) {
+			if (errorHalfLifeNs <= 0) return errorRate;
+			return errorRate * Math.pow(0.5, (double) (now - errorUpdatedNs) / errorHalfLifeNs);
+		}
+	}
+
+	public static final class Builder {
+		private final List<LLMEngine> engines = new ArrayList<>();
+		private double smoothing = 0.2;
+		private Duration errorHalfLife = Duration.ofSeconds(30);
+		private Predicate<Throwable> fallbackOn = e -> e instanceof LLMCircuitOpenException || TransientFailures.isTransient(e);
+		private ExecutionScheduler scheduler = ExecutionScheduler.shared();
+
+		private Builder() {}
+
+		/** Adds a target; earlier targets win ties and are tried first before latencies are known. */
+		public Builder withTarget(LLMEngine engine) {
+			engines.add(Objects.requireNonNull(engine, "engine"));
+			return this;
+		}
+
+		public Builder withTargets(LLMEngine... engines) {
+			Arrays.stream(engines).forEach(this::withTarget);
+			return this;
+		}
+
+		/** Weight of the newest sample in the latency and error-rate averages. */
+		public Builder withSmoothing(double smoothing) {
+			if (smoothing <= 0 || smoothing > 1) throw new IllegalArgumentException("Smoothing must be in (0, 1]");
+			this.smoothing = smoothing;
+			return this;
+		}
+
+		/** Time for an idle target's error rate to halve; zero disables the decay. */
+		public Builder withErrorHalfLife(Duration halfLife) {
+			if (halfLife.isNegative()) throw new IllegalArgumentException("Error half-life must not be negative");
+			this.errorHalfLife = halfLife;
+			return this;
+		}
+
+		public Builder withFallbackOn(Predicate<Throwable> fallbackOn) {
+			this.fallbackOn = Objects.requireNonNull(fallbackOn, "fallbackOn");
+			return this;
+		}
+
+		/** Scheduler admitting the target calls; defaults to {@link ExecutionScheduler#shared()}. */
+		public Builder withScheduler(ExecutionScheduler scheduler) {
+			this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+			return this;
+		}
+
+		public RoutingLLMEngine build() {
+			if (engines.isEmpty()) throw new IllegalArgumentException("At least one target engine is required");
+			return new RoutingLLMEngine(this);
+		}
+	}
+}
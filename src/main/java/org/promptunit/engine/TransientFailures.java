@@ -0,0 +1,97 @@
+package org.promptunit.engine;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.promptunit.LLMHttpException;
+import org.promptunit.LLMTimeoutException;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Classifies engine failures as transient (worth retrying) or permanent, looking through the cause
+ * chain for the HTTP status and {@code Retry-After} hint of whichever client produced the error.
+ * Rate limiting (429), overload (503, 529), gateway errors, request timeouts and connection failures
+ * are transient; other client errors, such as an invalid API key or a malformed request, are not.
+ */
+public final class TransientFailures {
+
+	private static final Set<Integer> TRANSIENT_STATUS = Set.of(408, 409, 425, 429, 500, 502, 503, 504, 529);
+	// Spring AI's response error handler formats messages as "<status> - <body>"
+	private static final Pattern SPRING_AI_STATUS = Pattern.compile("^(\\d{3}) - ");
+
+	private TransientFailures() {}
+
+	public static boolean isTransient(Throwable failure) {
+		OptionalInt status = statusCode(failure);
+		if (status.isPresent()) return TRANSIENT_STATUS.contains(status.getAsInt());
+		for (Throwable t = failure; t != null; t = t.getCause()) {
+			if (t instanceof TransientAiException || t instanceof LLMTimeoutException || t instanceof IOException) {
+				return true;
+			}
+			if (t instanceof NonTransientAiException) return false;
+		}
+		return false;
+	}
+
+	public static OptionalInt statusCode(Throwable failure) {
+		for (Throwable t = failure; t != null; t = t.getCause()) {
+			if (t instanceof LLMHttpException http) return OptionalInt.of(http.statusCode());
+			if (t instanceof RestClientResponseException rest) return OptionalInt.of(rest.getStatusCode().value());
+			if (t instanceof WebClientResponseException web) return OptionalInt.of(web.getStatusCode().value());
+			if (t instanceof TransientAiException || t instanceof NonTransientAiException) {
+				Matcher m = t.getMessage() != null ? SPRING_AI_STATUS.matcher(t.getMessage()) : null;
+				if (m != null && m.find()) return OptionalInt.of(Integer.parseInt(m.group(1)));
+			}
+		}
+		return OptionalInt.empty();
+	}
+
+	public static Optional<Duration> retryAfter(Throwable failure) {
+		for (Throwable t = failure; t != null; t = t.getCause()) {
+			if (t instanceof LLMHttpException http) return http.retryAfter();
+			if (t instanceof RestClientResponseException rest) return retryAfter(rest.getResponseHeaders());
+			if (t instanceof WebClientResponseException web) return retryAfter(web.getHeaders());
+		}
+		return Optional.empty();
+	}
+
+	static Optional<Duration> retryAfter(HttpHeaders headers) {
+		if (headers == null) return Optional.empty();
+		return parseRetryAfter(headers.getFirst("retry-after-ms"), headers.getFirst("Retry-After"));
+	}
+
+	/**
+	 * Parses the millisecond variant some providers send, falling back to the standard header, which
+	 * is either delta-seconds or an HTTP date.
+	 */
+	public static Optional<Duration> parseRetryAfter(String retryAfterMs, String retryAfter) {
+		try {
+			if (retryAfterMs != null) return Optional.of(Duration.ofMillis((long) Double.parseDouble(retryAfterMs.trim())));
+		} catch (NumberFormatException ignored) {
+			// fall through to Retry-After
+		}
+		if (retryAfter == null || retryAfter.isBlank()) return Optional.empty();
+		String value = retryAfter.trim();
+		try {
+			return Optional.of(Duration.ofMillis((long) (Double.parseDouble(value) * 1000)));
+		} catch (NumberFormatException e) {
+			try {
+				Duration until = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+				return Optional.of(until.isNegative() ? Duration.ZERO : until);
+			} catch (DateTimeParseException ignored) {
+				return Optional.empty();
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package org.promptunit.evaluation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of compiled draft-7 {@link JsonSchema}s, keyed by the SHA-256 of the schema
+ * text, so validating many outputs against the same {@code OutputSchema} parses and compiles the
+ * schema once. Thread-safe; compilation runs outside the lock, so two threads missing on the same
+ * schema at once may both compile it and the first stored copy wins.
+ */
+public final class CompiledSchemaCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	public record Metrics(long hits, long misses, long evictions, int size) {
+		public double hitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0.0 : (double) hits / lookups;
+		}
+	}
+
+	private static final CompiledSchemaCache SHARED = new CompiledSchemaCache(DEFAULT_MAX_ENTRIES);
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final JsonSchemaFactory factory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
+
+	private final int maxEntries;
+	private final Map<String, JsonSchema> schemas;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public CompiledSchemaCache(int maxEntries) {
+		if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+		this.maxEntries = maxEntries;
+		this.schemas = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, JsonSchema> eldest) {
+				if (size() <= CompiledSchemaCache.this.maxEntries) return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+
+	/** The process-wide cache used by the schema assertions. */
+	public static CompiledSchemaCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The compiled schema for {@code schemaJson}.
+	 *
+	 * @throws IllegalArgumentException if {@code schemaJson} is not valid JSON
+	 */
+	public JsonSchema get(String schemaJson) {
+		if (schemaJson == null) throw new IllegalArgumentException("Invalid JSON schema provided: null");
+		String key = sha256Hex(schemaJson);
+		synchronized (schemas) {
+			JsonSchema cached = schemas.get(key);
+			if (cached != null) {
+				hits.increment();
+				return cached;
+			}
+		}
+		misses.increment();
+		JsonSchema compiled = factory.getSchema(parse(schemaJson));
+		synchronized (schemas) {
+			JsonSchema raced = schemas.putIfAbsent(key, compiled);
+			return raced != null ? raced : compiled;
+		}
+	}
+
+	public Metrics metrics() {
+		synchronized (schemas) {
+			return new Metrics(hits.sum(), misses.sum(), evictions.sum(), schemas.size());
+		}
+	}
+
+	public void clear() {
+		synchronized (schemas) {
+			schemas.clear();
+		}
+	}
+
+	private static JsonNode parse(String schemaJson) {
+		try {
+			return mapper.readTree(schemaJson);
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid JSON schema provided: " + e.getMessage(), e);
+		}
+	}
+
+	private static String sha256Hex(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package org.promptunit.evaluation;
+
+/**
+ * Sequential test of whether a pass rate is at least a target, fed one pass/fail outcome at a time
+ * and stopping as soon as the outcomes so far are conclusive at the requested confidence.
+ * <ul>
+ *   <li>{@link Method#SPRT}: Wald's sequential probability ratio test between a pass rate
+ *   {@code indifference} above the target and one {@code indifference} below it, with both error
+ *   rates set to {@code 1 - confidence}. Needs the fewest samples on average; rates inside the
+ *   indifference region may go either way.</li>
+ *   <li>{@link Method#WILSON}: passes once the one-sided Wilson score lower bound reaches the target
+ *   and fails once the upper bound drops below it. No indifference region, so it needs more
+ *   samples close to the target.</li>
+ * </ul>
+ * Not thread-safe; record outcomes from one thread.
+ */
+public final class SequentialPassRate {
+
+	public enum Method { SPRT, WILSON }
+
+	public enum Verdict { PASS, FAIL, CONTINUE }
+
+	public static final double DEFAULT_INDIFFERENCE = 0.05;
+
+	private final double target;
+	private final double confidence;
+	private final Method method;
+	private final double z;
+	private final double passRate;
+	private final double failRate;
+	private final double acceptPass;
+	private final double acceptFail;
+	private int trials;
+	private int passes;
+	private double logLikelihoodRatio;
+	private Verdict verdict = Verdict.CONTINUE;
+
+	public SequentialPassRate(double target, double confidence, Method method, double indifference) {
+		if (!(target > 0.0 && target <= 1.0)) throw new IllegalArgumentException("target must be in (0, 1]");
+		if (!(confidence > 0.5 && confidence < 1.0)) throw new IllegalArgumentException("confidence must be in (0.5, 1)");
+		if (!(indifference > 0.0 && indifference < 0.5)) throw new IllegalArgumentException("indifference must be in (0, 0.5)");
+		if (method == null) throw new IllegalArgumentException("method must not be null");
+		this.target = target;
+		this.confidence = confidence;
+		this.method = method;
+		this.z = normalQuantile(confidence);
+		// Keep both hypotheses strictly inside (0, 1) where possible, so a single outcome is not conclusive.
+		this.passRate = target + Math.min(indifference, (1.0 - target) / 2);
+		this.failRate = Math.max(target - indifference, target / 2);
+		double error = 1.0 - confidence;
+		this.acceptPass = Math.log(error / (1.0 - error));
+		this.acceptFail = Math.log((1.0 - error) / error);
+	}
+
+	public SequentialPassRate(double target, double confidence) {
+		this(target, confidence, Method.SPRT, DEFAULT_INDIFFERENCE);
+	}
+
+	/** Adds one outcome and returns the verdict; outcomes after a conclusive verdict are ignored. */
+	public Verdict record(boolean passed) {
+		if (verdict != Verdict.CONTINUE) return verdict;
+		trials++;
+		if (passed) passes++;
+		verdict = method == Method.SPRT ? sprt(passed) : wilson();
+		return verdict;
+	}
+
+	private Verdict sprt(boolean passed) {
+		if (passed) {
+			logLikelihoodRatio += Math.log(failRate / passRate);
+		} else if (passRate >= 1.0) {
+			logLikelihoodRatio = Double.POSITIVE_INFINITY;
+		} else {
+			logLikelihoodRatio += Math.log((1.0 - failRate) / (1.0 - passRate));
+		}
+		if (logLikelihoodRatio <= acceptPass) return Verdict.PASS;
+		if (logLikelihoodRatio >= acceptFail) return Verdict.FAIL;
+		return Verdict.CONTINUE;
+	}
+
+	private Verdict wilson() {
+		if (lowerBound() >= target) return Verdict.PASS;
+		if (upperBound() < target) return Verdict.FAIL;
+		return Verdict.CONTINUE;
+	}
+
+	public Verdict verdict() {
+		return verdict;
+	}
+
+	public int trials() {
+		return trials;
+	}
+
+	public int passes() {
+		return passes;
+	}
+
+	public double target() {
+		return target;
+	}
+
+	public double confidence() {
+		return confidence;
+	}
+
+	public Method method() {
+		return method;
+	}
+
+	public double observedRate() {
+		return trials == 0 ? 0.0 : (double) passes / trials;
+	}
+
+	/** One-sided Wilson score lower bound on the pass rate at this test's confidence. */
+	public double lowerBound() {
+		return wilsonBound(-1);
+	}
+
+	/** One-sided Wilson score upper bound on the pass rate at this test's confidence. */
+	public double upperBound() {
+		return wilsonBound(1);
+	}
+
+	private double wilsonBound(int sign) {
+		if (trials == 0) return sign < 0 ? 0.0 : 1.0;
+		double n = trials;
+		double p = passes / n;
+		double z2 = z * z;
+		double centre = p + z2 / (2 * n);
+		double spread = z * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+		double bound = (centre + sign * spread) / (1 + z2 / n);
+		return Math.max(0.0, Math.min(1.0, bound));
+	}
+
+	@Override
+	public String toString() {
+		return "%d/%d passed (%.1f%%, %.0f%% bounds [%.3f, %.3f]) against target %.3f: %s".formatted(
+				passes, trials, observedRate() * 100, confidence * 100, lowerBound(), upperBound(), target, verdict);
+	}
+
+	/** Inverse of the standard normal CDF (Acklam's rational approximation, relative error < 1.2e-9). */
+	static double normalQuantile(double p) {
+		double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+				1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+		double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+				6.680131188771972e+01, -1.328068155288572e+01};
+		double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+				-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+		double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+				3.754408661907416e+00};
+		double low = 0.02425;
+		if (p < low) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+					/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if (p > 1 - low) return -normalQuantile(1 - p);
+		double q = p - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+				/ (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+}
@@ -0,0 +1,258 @@
+package org.promptunit.evaluation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Checks streamed output against a JSON schema while it arrives, so a generation that can no longer
+ * conform is cancelled instead of run to completion. Chunks are fed to Jackson's non-blocking parser
+ * and each token is checked against the keywords that are decided as soon as it is seen:
+ * {@code type}, {@code additionalProperties: false} and {@code maxItems}, nested through
+ * {@code properties}, {@code additionalProperties} and {@code items}. Subschemas using composition
+ * or {@code $ref} are not checked; everything else is left to full validation of the final output.
+ * <p>
+ * Checking starts at the opening brace or bracket that follows leading whitespace and an optional
+ * markdown fence. Output that starts any other way is not checked, since the JSON may come later in
+ * it. Checking stops at the end of the root value or at the first syntax error.
+ * <p>
+ * Use it as the token consumer of a streaming call: on a violation it throws
+ * {@link SchemaViolationException}, which aborts the stream. Not thread-safe; engines deliver chunks
+ * in order.
+ */
+public final class StreamingSchemaCheck implements Consumer<String> {
+
+	/** Thrown from {@link #accept(String)} to abort the stream once the output cannot conform. */
+	public static final class SchemaViolationException extends RuntimeException {
+		SchemaViolationException(String message) {
+			super(message);
+		}
+	}
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final Set<String> UNCHECKED_KEYWORDS = Set.of("$ref", "allOf", "anyOf", "oneOf", "not", "if");
+
+	private enum State { PREFIX, FENCE_TAG, PARSING, DONE }
+
+	private static final class Frame {
+		final boolean array;
+		final JsonNode schema;
+		final String path;
+		int items;
+		String field;
+		JsonNode fieldSchema;
+
+		Frame(boolean array, JsonNode schema, String path) {
+			this.array = array;
+			this.schema = schema;
+			this.path = path;
+		}
+	}
+
+	private final JsonNode rootSchema;
+	private final JsonParser parser;
+	private final ByteArrayFeeder feeder;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	private State state = State.PREFIX;
+	private int backticks;
+	private char pendingHighSurrogate;
+	private String violation;
+
+	/**
+	 * @throws IllegalArgumentException if {@code schemaJson} is not valid JSON
+	 */
+	public StreamingSchemaCheck(String schemaJson) {
+		try {
+			this.rootSchema = checkable(mapper.readTree(schemaJson));
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid JSON schema provided: " + e.getMessage(), e);
+		}
+		try {
+			this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+	}
+
+	/** Why the output was found not to conform, once it has been. */
+	public Optional<String> violation() {
+		return Optional.ofNullable(violation);
+	}
+
+	@Override
+	public void accept(String chunk) {
+		if (chunk == null || chunk.isEmpty() || state == State.DONE) return;
+		int from = state == State.PARSING ? 0 : skipPrefix(chunk);
+		if (state == State.PARSING && from < chunk.length()) feed(chunk, from);
+	}
+
+	/** Advances past leading whitespace and an opening fence; returns where the JSON starts, if it has. */
+	private int skipPrefix(String chunk) {
+		for (int i = 0; i < chunk.length(); i++) {
+			char c = chunk.charAt(i);
+			if (state == State.FENCE_TAG) {
+				if (c == '\n') state = State.PREFIX;
+			} else if (c == '`') {
+				if (++backticks == 3) {
+					state = State.FENCE_TAG;
+					backticks = 0;
+				}
+			} else if (backticks > 0) {
+				state = State.DONE;
+				return chunk.length();
+			} else if (c == '{' || c == '[') {
+				state = State.PARSING;
+				return i;
+			} else if (!Character.isWhitespace(c)) {
+				state = State.DONE;
+				return chunk.length();
+			}
+		}
+		return chunk.length();
+	}
+
+	private void feed(String chunk, int from) {
+		StringBuilder text = new StringBuilder(chunk.length() - from + 1);
+		if (pendingHighSurrogate != 0) text.append(pendingHighSurrogate);
+		text.append(chunk, from, chunk.length());
+		pendingHighSurrogate = 0;
+		// A surrogate pair split across chunks is encoded once both halves have arrived
+		if (Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+			pendingHighSurrogate = text.charAt(text.length() - 1);
+			text.setLength(text.length() - 1);
+		}
+		byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+		try {
+			feeder.feedInput(bytes, 0, bytes.length);
+			for (JsonToken token; (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE; ) {
+				onToken(token);
+				if (state == State.DONE) return;
+			}
+		} catch (IOException e) {
+			// Not well-formed after all; the final output is validated in full anyway
+			state = State.DONE;
+		}
+	}
+
+	private void onToken(JsonToken token) throws IOException {
+		switch (token) {
+			case FIELD_NAME -> onField(frames.peek(), parser.currentName());
+			case END_OBJECT, END_ARRAY -> {
+				frames.pop();
+				if (frames.isEmpty()) state = State.DONE;
+			}
+			default -> onValue(token);
+		}
+	}
+
+	private void onField(Frame frame, String name) {
+		frame.field = name;
+		frame.fieldSchema = null;
+		if (frame.schema == null) return;
+		JsonNode property = frame.schema.path("properties").get(name);
+		if (property != null) {
+			frame.fieldSchema = checkable(property);
+			return;
+		}
+		JsonNode additional = frame.schema.get("additionalProperties");
+		if (additional == null) return;
+		if (additional.isBoolean() && !additional.asBoolean() && !frame.schema.has("patternProperties"))
+			fail("property '" + name + "' is not allowed at " + frame.path);
+		frame.fieldSchema = checkable(additional);
+	}
+
+	private void onValue(JsonToken token) throws IOException {
+		Frame parent = frames.peek();
+		JsonNode schema;
+		String path;
+		if (parent == null) {
+			schema = rootSchema;
+			path = "$";
+		} else if (parent.array) {
+			int index = parent.items++;
+			JsonNode maxItems = parent.schema != null ? parent.schema.get("maxItems") : null;
+			if (maxItems != null && maxItems.canConvertToLong() && parent.items > maxItems.asLong())
+				fail("array at " + parent.path + " has more than " + maxItems.asLong() + " items");
+			schema = parent.schema != null ? checkable(parent.schema.get("items")) : null;
+			path = parent.path + "[" + index + "]";
+		} else {
+			schema = parent.fieldSchema;
+			path = parent.path + "." + parent.field;
+		}
+		checkType(schema, token, path);
+		if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+			frames.push(new Frame(token == JsonToken.START_ARRAY, schema, path));
+		}
+	}
+
+	private void checkType(JsonNode schema, JsonToken token, String path) throws IOException {
+		JsonNode type = schema != null ? schema.get("type") : null;
+		if (type == null) return;
+		List<String> allowed = new ArrayList<>();
+		if (type.isTextual()) allowed.add(type.asText());
+		else if (type.isArray()) type.forEach(t -> allowed.add(t.asText()));
+		for (String name : allowed) {
+			if (matches(name, token)) return;
+		}
+		if (allowed.isEmpty()) return;
+		fail("value at " + path + " is " + describe(token) + " but the schema requires " + String.join(" or ", allowed));
+	}
+
+	private boolean matches(String type, JsonToken token) throws IOException {
+		return switch (type) {
+			case "object" -> token == JsonToken.START_OBJECT;
+			case "array" -> token == JsonToken.START_ARRAY;
+			case "string" -> token == JsonToken.VALUE_STRING;
+			case "boolean" -> token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE;
+			case "null" -> token == JsonToken.VALUE_NULL;
+			case "number" -> token.isNumeric();
+			case "integer" -> token == JsonToken.VALUE_NUMBER_INT
+					|| (token == JsonToken.VALUE_NUMBER_FLOAT && isIntegral(parser.getDecimalValue()));
+			default -> true;
+		};
+	}
+
+	private static boolean isIntegral(BigDecimal value) {
+		return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+	}
+
+	private static String describe(JsonToken token) {
+		return switch (token) {
+			case START_OBJECT -> "an object";
+			case START_ARRAY -> "an array";
+			case VALUE_STRING -> "a string";
+			case VALUE_TRUE, VALUE_FALSE -> "a boolean";
+			case VALUE_NULL -> "null";
+			default -> "a number";
+		};
+	}
+
+	/** {@code schema} if its keywords can be checked token by token, else null. */
+	private static JsonNode checkable(JsonNode schema) {
+		if (schema == null || !schema.isObject()) return null;
+		for (String keyword : UNCHECKED_KEYWORDS) {
+			if (schema.has(keyword)) return null;
+		}
+		return schema;
+	}
+
+	private void fail(String message) {
+		violation = message;
+		state = State.DONE;
+		throw new SchemaViolationException(message);
+	}
+}
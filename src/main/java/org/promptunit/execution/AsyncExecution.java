@@ -0,0 +1,45 @@
+package org.promptunit.execution;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide virtual-thread executor behind the asynchronous engine API. One virtual thread is
+ * started per task, so hundreds of blocking provider calls can be in flight without a pool to size,
+ * and nothing needs to be shut down: virtual threads never keep the JVM alive.
+ */
+public final class AsyncExecution {
+
+	private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("promptunit-async-", 0).factory());
+
+	private AsyncExecution() {}
+
+	public static ExecutorService executor() {
+		return EXECUTOR;
+	}
+
+	/**
+	 * Runs {@code task} on the shared executor. Unlike {@link CompletableFuture#supplyAsync}, cancelling
+	 * the returned future interrupts the running task, which aborts a blocking provider call. The task
+	 * runs as the {@link ExecutionScheduler#currentTenant() tenant} of the submitting thread.
+	 */
+	public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		String tenant = ExecutionScheduler.currentTenant();
+		Future<?> running = EXECUTOR.submit(() -> {
+			try (ExecutionScheduler.TenantScope scope = ExecutionScheduler.useTenant(tenant)) {
+				future.complete(task.get());
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+		future.whenComplete((result, error) -> {
+			if (future.isCancelled()) running.cancel(true);
+		});
+		return future;
+	}
+}
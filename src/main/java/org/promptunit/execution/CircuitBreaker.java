@@ -0,0 +1,245 @@
+package org.promptunit.execution;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.promptunit.LLMCircuitOpenException;
+
+/**
+ * Circuit breaker over a count-based sliding window of recent call outcomes.
+ * <p>
+ * While {@link State#CLOSED}, every call outcome is recorded; once the window holds at least
+ * {@link Config#minimumCalls()} outcomes and either the failure rate or the slow-call rate reaches
+ * its threshold, the breaker opens. While {@link State#OPEN}, {@link #acquirePermission()} fails
+ * immediately with {@link LLMCircuitOpenException}. After {@link Config#openDuration()} the breaker
+ * turns {@link State#HALF_OPEN} and lets {@link Config#halfOpenProbes()} probe calls through: if all
+ * succeed in time it closes with an empty window, the first failed or slow probe opens it again.
+ * <p>
+ * Each {@link Permit} belongs to the state it was granted in. Outcomes reported after the breaker
+ * has changed state since are ignored, so a call admitted while closed that finishes during the
+ * half-open phase neither counts as a probe nor frees a probe's place.
+ * <p>
+ * State changes are reported to {@link Listener listeners} on the thread that caused them, after the
+ * breaker's lock has been released.
+ */
+public final class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	/**
+	 * @param failureRateThreshold  fraction of failed calls in the window that opens the breaker
+	 * @param slowCallRateThreshold fraction of calls slower than {@code slowCallDuration} that opens it
+	 * @param slowCallDuration      calls taking at least this long count as slow
+	 * @param windowSize            number of most recent outcomes considered
+	 * @param minimumCalls          outcomes needed before the rates are evaluated
+	 * @param openDuration          how long calls are rejected before probing
+	 * @param halfOpenProbes        successful probes needed to close again
+	 */
+	public record Config(double failureRateThreshold, double slowCallRateThreshold, Duration slowCallDuration,
+			int windowSize, int minimumCalls, Duration openDuration, int halfOpenProbes) {
+
+		public static final Config DEFAULTS = new Config(0.5, 1.0, Duration.ofSeconds(60), 20, 10, Duration.ofSeconds(30), 1);
+
+		public Config {
+			if (failureRateThreshold <= 0 || failureRateThreshold > 1 || slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+				throw new IllegalArgumentException("Rate thresholds must be in (0, 1]");
+			}
+			if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenProbes < 1) {
+				throw new IllegalArgumentException("Window size, minimum calls and probes must be positive, minimum calls at most the window size");
+			}
+			Objects.requireNonNull(slowCallDuration, "slowCallDuration");
+			Objects.requireNonNull(openDuration, "openDuration");
+		}
+	}
+
+	public record Metrics(State state, int bufferedCalls, double failureRate, double slowCallRate, long rejectedCalls) {}
+
+	/** An admitted call, to be handed back with its outcome. */
+	public static final class Permit {
+		private final long generation;
+
+		private Permit(long generation) {
+			this.generation = generation;
+		}
+	}
+
+	@FunctionalInterface
+	public interface Listener {
+		void onStateTransition(CircuitBreaker breaker, State from, State to);
+	}
+
+	private static final byte FAILED = 1;
+	private static final byte SLOW = 2;
+
+	private final String name;
+	private final Config config;
+	private final LongSupplier clock;
+	private final byte[] window;
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+	private final LongAdder rejected = new LongAdder();
+
+	private State state = State.CLOSED;
+	// Bumped on every state change; permits from an earlier generation no longer count
+	private long generation;
+	private int head;
+	private int buffered;
+	private int failures;
+	private int slowCalls;
+	private long openUntilNs;
+	private int probesInFlight;
+	private int probeSuccesses;
+
+	public CircuitBreaker(String name, Config config) {
+		this(name, config, System::nanoTime);
+	}
+
+	CircuitBreaker(String name, Config config, LongSupplier clock) {
+		this.name = Objects.requireNonNull(name, "name");
+		this.config = Objects.requireNonNull(config, "config");
+		this.clock = clock;
+		this.window = new byte[config.windowSize()];
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public Config config() {
+		return config;
+	}
+
+	public CircuitBreaker addListener(Listener listener) {
+		listeners.add(Objects.requireNonNull(listener, "listener"));
+		return this;
+	}
+
+	public synchronized State state() {
+		return state;
+	}
+
+	/**
+	 * Admits a call, or throws {@link LLMCircuitOpenException} if the breaker is open or all half-open
+	 * probes are already in flight. Every admitted call must be followed by exactly one of
+	 * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored} with the returned permit.
+	 */
+	public Permit acquirePermission() {
+		State from;
+		State to;
+		Permit permit;
+		synchronized (this) {
+			from = state;
+			if (state == State.OPEN) {
+				long remaining = openUntilNs - clock.getAsLong();
+				if (remaining > 0) {
+					rejected.increment();
+					throw new LLMCircuitOpenException(name, Duration.ofNanos(remaining));
+				}
+				state = State.HALF_OPEN;
+				generation++;
+				probesInFlight = 0;
+				probeSuccesses = 0;
+			}
+			if (state == State.HALF_OPEN) {
+				if (probesInFlight + probeSuccesses >= config.halfOpenProbes()) {
+					rejected.increment();
+					throw new LLMCircuitOpenException(name, Duration.ZERO);
+				}
+				probesInFlight++;
+			}
+			to = state;
+			permit = new Permit(generation);
+		}
+		notifyTransition(from, to);
+		return permit;
+	}
+
+	public void onSuccess(Permit permit, long durationNanos) {
+		record(permit, false, durationNanos);
+	}
+
+	public void onFailure(Permit permit, long durationNanos) {
+		record(permit, true, durationNanos);
+	}
+
+	/** Releases an admitted call whose outcome says nothing about the provider's health. */
+	public synchronized void onIgnored(Permit permit) {
+		if (permit.generation == generation && state == State.HALF_OPEN && probesInFlight > 0) probesInFlight--;
+	}
+
+	public synchronized Metrics metrics() {
+		return new Metrics(state, buffered, rate(failures), rate(slowCalls), rejected.sum());
+	}
+
+	private void record(Permit permit, boolean failed, long durationNanos) {
+		boolean slow = durationNanos >= config.slowCallDuration().toNanos();
+		State from;
+		State to;
+		synchronized (this) {
+			// admitted before the last state change; its outcome is already irrelevant
+			if (permit.generation != generation) return;
+			from = state;
+			switch (state) {
+				case HALF_OPEN -> {
+					if (probesInFlight > 0) probesInFlight--;
+					if (failed || slow) open();
+					else if (++probeSuccesses >= config.halfOpenProbes()) close();
+				}
+				case CLOSED -> {
+					append((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+					if (buffered >= config.minimumCalls()
+							&& (rate(failures) >= config.failureRateThreshold() || rate(slowCalls) >= config.slowCallRateThreshold())) {
+						open();
+					}
+				}
+				case OPEN -> {
+					// unreachable: opening starts a new generation
+				}
+			}
+			to = state;
+		}
+		notifyTransition(from, to);
+	}
+
+	private void append(byte outcome) {
+		if (buffered == window.length) {
+			byte evicted = window[head];
+			if ((evicted & FAILED) != 0) failures--;
+			if ((evicted & SLOW) != 0) slowCalls--;
+		} else {
+			buffered++;
+		}
+		window[head] = outcome;
+		head = (head + 1) % window.length;
+		if ((outcome & FAILED) != 0) failures++;
+		if ((outcome & SLOW) != 0) slowCalls++;
+	}
+
+	private void open() {
+		state = State.OPEN;
+		generation++;
+		openUntilNs = clock.getAsLong() + config.openDuration().toNanos();
+	}
+
+	private void close() {
+		state = State.CLOSED;
+		generation++;
+		head = 0;
+		buffered = 0;
+		failures = 0;
+		slowCalls = 0;
+	}
+
+	private double rate(int count) {
+		return buffered == 0 ? 0.0 : (double) count / buffered;
+	}
+
+	private void notifyTransition(State from, State to) {
+		if (from == to) return;
+		for (Listener listener : listeners) {
+			listener.onStateTransition(this, from, to);
+		}
+	}
+}
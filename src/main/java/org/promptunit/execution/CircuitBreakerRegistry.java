@@ -0,0 +1,55 @@
+package org.promptunit.execution;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Circuit breakers keyed by provider, so every engine instance talking to a degraded provider stops
+ * calling it at once. Listeners added here are attached to every breaker the registry creates.
+ */
+public final class CircuitBreakerRegistry {
+
+	private static final CircuitBreakerRegistry SHARED = new CircuitBreakerRegistry();
+
+	private final Map<String, CircuitBreaker.Config> configs = new ConcurrentHashMap<>();
+	private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+	private final List<CircuitBreaker.Listener> listeners = new CopyOnWriteArrayList<>();
+
+	/** The process-wide registry. */
+	public static CircuitBreakerRegistry shared() {
+		return SHARED;
+	}
+
+	/** Sets the configuration for {@code provider}; a breaker created earlier for it is replaced. */
+	public CircuitBreakerRegistry configure(String provider, CircuitBreaker.Config config) {
+		Objects.requireNonNull(provider, "provider");
+		configs.put(provider, Objects.requireNonNull(config, "config"));
+		breakers.remove(provider);
+		return this;
+	}
+
+	public CircuitBreakerRegistry addListener(CircuitBreaker.Listener listener) {
+		listeners.add(Objects.requireNonNull(listener, "listener"));
+		breakers.values().forEach(b -> b.addListener(listener));
+		return this;
+	}
+
+	public CircuitBreaker breakerFor(String provider) {
+		return breakers.computeIfAbsent(provider, p -> {
+			CircuitBreaker breaker = new CircuitBreaker(p, configs.getOrDefault(p, CircuitBreaker.Config.DEFAULTS));
+			listeners.forEach(breaker::addListener);
+			return breaker;
+		});
+	}
+
+	/** Metrics of every breaker in use, by provider. */
+	public Map<String, CircuitBreaker.Metrics> metrics() {
+		Map<String, CircuitBreaker.Metrics> snapshot = new TreeMap<>();
+		breakers.forEach((p, breaker) -> snapshot.put(p, breaker.metrics()));
+		return snapshot;
+	}
+}
@@ -0,0 +1,40 @@
+package org.promptunit.execution;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time derived from a millisecond timeout. {@code Long.MAX_VALUE} (the engines' "no timeout"
+ * value) yields a deadline that never expires instead of overflowing {@link System#nanoTime()}.
+ */
+public final class Deadline {
+
+	private final long startNs;
+	private final long timeoutNs;
+
+	private Deadline(long startNs, long timeoutNs) {
+		this.startNs = startNs;
+		this.timeoutNs = timeoutNs;
+	}
+
+	public static Deadline afterMillis(long timeoutMs) {
+		return new Deadline(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs)));
+	}
+
+	public boolean isUnbounded() {
+		return timeoutNs == Long.MAX_VALUE;
+	}
+
+	public long remainingNanos() {
+		if (isUnbounded()) return Long.MAX_VALUE;
+		return Math.max(0, timeoutNs - (System.nanoTime() - startNs));
+	}
+
+	public long remainingMillis() {
+		if (isUnbounded()) return Long.MAX_VALUE;
+		return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+	}
+
+	public boolean isExpired() {
+		return remainingNanos() <= 0;
+	}
+}
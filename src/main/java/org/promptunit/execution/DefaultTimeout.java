@@ -0,0 +1,27 @@
+package org.promptunit.execution;
+
+import org.promptunit.env.DotenvEnvironmentUtil;
+
+/**
+ * Timeout applied when a caller does not pass one, so a hung provider connection cannot block a test
+ * forever. Override with {@value #ENV_VAR} (environment or .env), in milliseconds.
+ */
+public final class DefaultTimeout {
+
+	public static final String ENV_VAR = "PROMPTUNIT_TIMEOUT_MS";
+	public static final long FALLBACK_MS = 120_000;
+
+	private DefaultTimeout() {}
+
+	public static long millis() {
+		String value = DotenvEnvironmentUtil.getEnvVarStringValue(ENV_VAR);
+		if (value == null || value.isBlank()) return FALLBACK_MS;
+		try {
+			long ms = Long.parseLong(value.trim());
+			if (ms <= 0) throw new NumberFormatException("not positive");
+			return ms;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + ENV_VAR + " value '" + value + "'; expected a positive number of milliseconds", e);
+		}
+	}
+}
@@ -0,0 +1,303 @@
+package org.promptunit.execution;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.env.DotenvEnvironmentUtil;
+
+/**
+ * Admits provider calls for the whole process, so test classes running in parallel share one
+ * concurrency budget instead of each flooding the providers.
+ * <p>
+ * At most {@link #maxConcurrency()} calls run at once, and at most the configured
+ * {@link #setProviderLimit provider limit} per provider. Calls that cannot run yet wait in a FIFO
+ * queue per tenant (by default the test class, see {@link #useTenant}); freed slots are handed to
+ * tenants round-robin, so a class submitting hundreds of samples cannot starve one submitting a
+ * few. Time spent queued counts against the call's timeout. A call made while the same thread
+ * already holds a slot runs directly, so nested engine calls cannot deadlock.
+ * <p>
+ * The default {@link #shared() shared} scheduler allows {@value #DEFAULT_MAX_CONCURRENCY} concurrent
+ * calls; override with {@value #ENV_VAR} (environment or .env).
+ */
+public final class ExecutionScheduler {
+
+	public static final String ENV_VAR = "PROMPTUNIT_MAX_CONCURRENCY";
+	public static final int DEFAULT_MAX_CONCURRENCY = 32;
+	public static final String DEFAULT_TENANT = "default";
+
+	public record Metrics(int maxConcurrency, int running, int queued, long admitted, long delayed,
+			long totalWaitMs, long maxWaitMs, Map<String, Integer> runningByProvider, Map<String, Integer> queuedByTenant) {
+
+		public double meanWaitMs() {
+			return admitted == 0 ? 0.0 : (double) totalWaitMs / admitted;
+		}
+	}
+
+	/** Restores the previous tenant of the thread when closed. */
+	public interface TenantScope extends AutoCloseable {
+		@Override
+		void close();
+	}
+
+	private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+	private static volatile ExecutionScheduler shared;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<String, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+	private final ArrayDeque<String> rotation = new ArrayDeque<>();
+	private final Map<String, Integer> runningByProvider = new HashMap<>();
+	private final Map<String, Integer> providerLimits = new ConcurrentHashMap<>();
+	private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+
+	private int maxConcurrency;
+	private int running;
+	private int queued;
+	private long admitted;
+	private long delayed;
+	private long totalWaitNs;
+	private long maxWaitNs;
+
+	public ExecutionScheduler(int maxConcurrency) {
+		setMaxConcurrency(maxConcurrency);
+	}
+
+	/** The process-wide scheduler used by the engines' {@code execute} methods. */
+	public static ExecutionScheduler shared() {
+		ExecutionScheduler scheduler = shared;
+		if (scheduler == null) {
+			synchronized (ExecutionScheduler.class) {
+				if (shared == null) shared = new ExecutionScheduler(configuredMaxConcurrency());
+				scheduler = shared;
+			}
+		}
+		return scheduler;
+	}
+
+	/** Makes {@code tenant} the tenant of calls submitted from this thread until the scope is closed. */
+	public static TenantScope useTenant(String tenant) {
+		Objects.requireNonNull(tenant, "tenant");
+		String previous = TENANT.get();
+		TENANT.set(tenant);
+		return () -> {
+			if (previous == null) TENANT.remove();
+			else TENANT.set(previous);
+		};
+	}
+
+	public static String currentTenant() {
+		String tenant = TENANT.get();
+		return tenant != null ? tenant : DEFAULT_TENANT;
+	}
+
+	public int maxConcurrency() {
+		lock.lock();
+		try {
+			return maxConcurrency;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public ExecutionScheduler setMaxConcurrency(int maxConcurrency) {
+		if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+		lock.lock();
+		try {
+			this.maxConcurrency = maxConcurrency;
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	/** Caps concurrent calls to {@code provider}; {@code 0} removes the cap. */
+	public ExecutionScheduler setProviderLimit(String provider, int maxConcurrency) {
+		Objects.requireNonNull(provider, "provider");
+		if (maxConcurrency < 0) throw new IllegalArgumentException("maxConcurrency must not be negative");
+		lock.lock();
+		try {
+			if (maxConcurrency == 0) providerLimits.remove(provider);
+			else providerLimits.put(provider, maxConcurrency);
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+		return this;
+	}
+
+	/** Runs {@code task} for the current tenant; see {@link #call(String, String, long, LongFunction)}. */
+	public <T> T call(String provider, long timeoutMs, LongFunction<T> task) {
+		return call(currentTenant(), provider, timeoutMs, task);
+	}
+
+	/**
+	 * Waits for a slot for {@code provider}, then runs {@code task} on the calling thread with the
+	 * milliseconds left of {@code timeoutMs}.
+	 *
+	 * @throws LLMTimeoutException if no slot frees up within the timeout
+	 */
+	public <T> T call(String tenant, String provider, long timeoutMs, LongFunction<T> task) {
+		int[] depth = held.get();
+		if (depth[0] > 0) return task.apply(timeoutMs);
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		String key = provider != null ? provider : "";
+		acquire(tenant != null ? tenant : DEFAULT_TENANT, key, deadline);
+		depth[0]++;
+		try {
+			return task.apply(deadline.remainingMillis());
+		} finally {
+			depth[0]--;
+			release(key);
+		}
+	}
+
+	public Metrics metrics() {
+		lock.lock();
+		try {
+			Map<String, Integer> queuedByTenant = new TreeMap<>();
+			queues.forEach((tenant, q) -> queuedByTenant.put(tenant, q.size()));
+			return new Metrics(maxConcurrency, running, queued, admitted, delayed,
+					TimeUnit.NANOSECONDS.toMillis(totalWaitNs), TimeUnit.NANOSECONDS.toMillis(maxWaitNs),
+					new TreeMap<>(runningByProvider), queuedByTenant);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void acquire(String tenant, String provider, Deadline deadline) {
+		lock.lock();
+		try {
+			Waiter waiter = new Waiter(provider, lock.newCondition(), System.nanoTime());
+			queues.computeIfAbsent(tenant, t -> {
+				rotation.addLast(t);
+				return new ArrayDeque<>();
+			}).addLast(waiter);
+			queued++;
+			dispatch();
+			while (!waiter.admitted) {
+				long remainingNs = deadline.remainingNanos();
+				if (remainingNs <= 0) {
+					withdraw(tenant, waiter);
+					throw new LLMTimeoutException("Timed out after %d ms waiting for an execution slot for %s"
+							.formatted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiter.enqueuedNs), provider));
+				}
+				try {
+					if (deadline.isUnbounded()) waiter.condition.await();
+					else waiter.condition.awaitNanos(remainingNs);
+				} catch (InterruptedException e) {
+					if (waiter.admitted) releaseLocked(provider);
+					else withdraw(tenant, waiter);
+					Thread.currentThread().interrupt();
+					throw new LLMTimeoutException("Interrupted while waiting for an execution slot for " + provider, e);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(String provider) {
+		lock.lock();
+		try {
+			releaseLocked(provider);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void releaseLocked(String provider) {
+		running--;
+		runningByProvider.merge(provider, -1, (a, b) -> a + b == 0 ? null : a + b);
+		dispatch();
+	}
+
+	private void withdraw(String tenant, Waiter waiter) {
+		ArrayDeque<Waiter> queue = queues.get(tenant);
+		if (queue != null && queue.remove(waiter)) {
+			queued--;
+			if (queue.isEmpty()) {
+				queues.remove(tenant);
+				rotation.remove(tenant);
+			}
+		}
+	}
+
+	/** Hands free slots to waiting tenants round-robin, each taking its oldest call that may run. */
+	private void dispatch() {
+		boolean progress = true;
+		while (progress && running < maxConcurrency && !rotation.isEmpty()) {
+			progress = false;
+			for (int i = rotation.size(); i > 0 && running < maxConcurrency; i--) {
+				String tenant = rotation.pollFirst();
+				ArrayDeque<Waiter> queue = queues.get(tenant);
+				Waiter next = firstRunnable(queue);
+				if (next != null) {
+					admit(next);
+					progress = true;
+				}
+				if (queue.isEmpty()) queues.remove(tenant);
+				else rotation.addLast(tenant);
+			}
+		}
+	}
+
+	private Waiter firstRunnable(ArrayDeque<Waiter> queue) {
+		for (Iterator<Waiter> it = queue.iterator(); it.hasNext(); ) {
+			Waiter w = it.next();
+			Integer limit = providerLimits.get(w.provider);
+			if (limit == null || runningByProvider.getOrDefault(w.provider, 0) < limit) {
+				it.remove();
+				return w;
+			}
+		}
+		return null;
+	}
+
+	private void admit(Waiter waiter) {
+		queued--;
+		running++;
+		runningByProvider.merge(waiter.provider, 1, Integer::sum);
+		long waitNs = System.nanoTime() - waiter.enqueuedNs;
+		admitted++;
+		if (waitNs > TimeUnit.MILLISECONDS.toNanos(1)) delayed++;
+		totalWaitNs += waitNs;
+		maxWaitNs = Math.max(maxWaitNs, waitNs);
+		waiter.admitted = true;
+		waiter.condition.signal();
+	}
+
+	private static int configuredMaxConcurrency() {
+		String value = DotenvEnvironmentUtil.getEnvVarStringValue(ENV_VAR);
+		if (value == null || value.isBlank()) return DEFAULT_MAX_CONCURRENCY;
+		try {
+			int max = Integer.parseInt(value.trim());
+			if (max <= 0) throw new NumberFormatException("not positive");
+			return max;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + ENV_VAR + " value '" + value + "'; expected a positive number of calls", e);
+		}
+	}
+
+	private static final class Waiter {
+		final String provider;
+		final Condition condition;
+		final long enqueuedNs;
+		boolean admitted;
+
+		Waiter(String provider, Condition condition, long enqueuedNs) {
+			this.provider = provider;
+			this.condition = condition;
+			this.enqueuedNs = enqueuedNs;
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package org.promptunit.execution;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.tokenizer.Tokenizers;
+
+/**
+ * Lock-free limiter enforcing a requests-per-minute and an estimated tokens-per-minute budget.
+ * <p>
+ * Both budgets are token buckets that start full and refill continuously, implemented as
+ * "theoretical arrival times" advanced with a compare-and-set. Each caller atomically reserves the
+ * next free slot and then sleeps until it, so callers are served in reservation order and nobody is
+ * rejected merely because the bucket is empty. A caller is only failed, with
+ * {@link LLMTimeoutException}, when its slot lies beyond its own timeout; in that case nothing is
+ * reserved. A caller interrupted while waiting hands its slot back. Sleeping is cheap on virtual threads, which is how {@link SampleRunner} runs samples.
+ */
+public final class RateLimiter {
+
+	private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	/**
+	 * Per-minute budgets; {@code 0} disables the corresponding limit.
+	 */
+	public record Limits(int requestsPerMinute, long tokensPerMinute) {
+
+		public static final Limits UNLIMITED = new Limits(0, 0);
+
+		public Limits {
+			if (requestsPerMinute < 0 || tokensPerMinute < 0) {
+				throw new IllegalArgumentException("Rate limits must not be negative");
+			}
+		}
+
+		public boolean isUnlimited() {
+			return requestsPerMinute == 0 && tokensPerMinute == 0;
+		}
+	}
+
+	public record Metrics(long permits, long delayedPermits, long totalWaitMs, long maxWaitMs, int waiting) {
+
+		public double meanWaitMs() {
+			return permits == 0 ? 0.0 : (double) totalWaitMs / permits;
+		}
+	}
+
+	interface Sleeper {
+		void sleepNanos(long nanos) throws InterruptedException;
+	}
+
+	private record State(long requestTat, long tokenTat) {}
+
+	private final String name;
+	private final Limits limits;
+	private final double requestIntervalNs;
+	private final double tokenIntervalNs;
+	private final LongSupplier clock;
+	private final Sleeper sleeper;
+	private final AtomicReference<State> state;
+
+	private final LongAdder permits = new LongAdder();
+	private final LongAdder delayed = new LongAdder();
+	private final LongAdder totalWaitNs = new LongAdder();
+	private final AtomicLong maxWaitNs = new AtomicLong();
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	public RateLimiter(String name, Limits limits) {
+		this(name, limits, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+	}
+
+	RateLimiter(String name, Limits limits, LongSupplier clock, Sleeper sleeper) {
+		this.name = Objects.requireNonNull(name, "name");
+		this.limits = Objects.requireNonNull(limits, "limits");
+		this.clock = clock;
+		this.sleeper = sleeper;
+		this.requestIntervalNs = limits.requestsPerMinute() > 0 ? (double) WINDOW_NANOS / limits.requestsPerMinute() : 0;
+		this.tokenIntervalNs = limits.tokensPerMinute() > 0 ? (double) WINDOW_NANOS / limits.tokensPerMinute() : 0;
+		long now = clock.getAsLong();
+		this.state = new AtomicReference<>(new State(now, now));
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public Limits limits() {
+		return limits;
+	}
+
+	/**
+	 * Blocks until one request carrying {@code estimatedTokens} fits both budgets.
+	 *
+	 * @return the time spent waiting, in nanoseconds
+	 * @throws LLMTimeoutException if the wait would exceed {@code timeoutMs}, or the thread is interrupted
+	 */
+	public long acquire(long estimatedTokens, long timeoutMs) {
+		if (limits.isUnlimited()) {
+			permits.increment();
+			return 0;
+		}
+		long tokens = limits.tokensPerMinute() > 0 ? Math.min(Math.max(0, estimatedTokens), limits.tokensPerMinute()) : 0;
+		long timeoutNs = Deadline.afterMillis(timeoutMs).remainingNanos();
+		long now;
+		long startAt;
+		State current;
+		State next;
+		do {
+			now = clock.getAsLong();
+			current = state.get();
+			startAt = now;
+			long requestTat = current.requestTat();
+			long tokenTat = current.tokenTat();
+			if (limits.requestsPerMinute() > 0) {
+				requestTat = Math.max(requestTat, now) + (long) requestIntervalNs;
+				startAt = Math.max(startAt, requestTat - WINDOW_NANOS);
+			}
+			if (tokens > 0) {
+				tokenTat = Math.max(tokenTat, now) + (long) (tokens * tokenIntervalNs);
+				startAt = Math.max(startAt, tokenTat - WINDOW_NANOS);
+			}
+			if (startAt - now > timeoutNs) {
+				throw new LLMTimeoutException("Rate limit " + name + " requires waiting "
+						+ TimeUnit.NANOSECONDS.toMillis(startAt - now) + " ms, exceeding the timeout of " + timeoutMs + " ms");
+			}
+			next = new State(requestTat, tokenTat);
+		} while (!state.compareAndSet(current, next));
+
+		long waitNs = startAt - now;
+		if (waitNs > 0) {
+			try {
+				sleepUntil(startAt);
+			} catch (RuntimeException e) {
+				release(tokens);
+				throw e;
+			}
+			delayed.increment();
+			totalWaitNs.add(waitNs);
+			maxWaitNs.accumulateAndGet(waitNs, Math::max);
+		}
+		permits.increment();
+		return Math.max(0, waitNs);
+	}
+
+	/**
+	 * Corrects the token budget once the actual usage of a request is known. Unknown usage (negative) is ignored.
+	 */
+	public void reconcile(long estimatedTokens, long actualTokens) {
+		if (limits.tokensPerMinute() == 0 || actualTokens < 0) return;
+		long estimated = Math.min(Math.max(0, estimatedTokens), limits.tokensPerMinute());
+		long deltaNs = (long) ((actualTokens - estimated) * tokenIntervalNs);
+		if (deltaNs == 0) return;
+		state.updateAndGet(s -> new State(s.requestTat(), s.tokenTat() + deltaNs));
+	}
+
+	public Metrics metrics() {
+		return new Metrics(
+				permits.sum(),
+				delayed.sum(),
+				TimeUnit.NANOSECONDS.toMillis(totalWaitNs.sum()),
+				TimeUnit.NANOSECONDS.toMillis(maxWaitNs.get()),
+				waiting.get());
+	}
+
+	// Returns an unused reservation, so callers queued behind it move up
+	private void release(long tokens) {
+		long requestNs = limits.requestsPerMinute() > 0 ? (long) requestIntervalNs : 0;
+		long tokenNs = tokens > 0 ? (long) (tokens * tokenIntervalNs) : 0;
+		state.updateAndGet(s -> new State(s.requestTat() - requestNs, s.tokenTat() - tokenNs));
+	}
+
+	private void sleepUntil(long startAt) {
+		waiting.incrementAndGet();
+		try {
+			long remaining;
+			while ((remaining = startAt - clock.getAsLong()) > 0) {
+				sleeper.sleepNanos(remaining);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMTimeoutException("Interrupted while waiting for rate limit " + name, e);
+		} finally {
+			waiting.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Token estimate used before the provider reports usage: the conversation counted with the model's
+	 * {@link Tokenizers tokenizer}, plus the completion budget, which providers count against TPM limits
+	 * up front. Without rank files the count is the four-characters-per-token estimate, which is
+	 * enough to pace requests but can drift from the provider's own count.
+	 */
+	public static long estimateTokens(PromptInstance instance) {
+		long promptTokens = Tokenizers.forModel(instance.provider(), instance.model()).countTokens(instance);
+		return promptTokens + (instance.maxTokens() != null ? instance.maxTokens() : 0);
+	}
+}
@@ -0,0 +1,58 @@
+package org.promptunit.execution;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limiters keyed by provider and model, so every engine instance talking to the same model
+ * shares one budget. Limits configured for a provider without a model apply to each of its models
+ * that has no limits of its own.
+ */
+public final class RateLimiterRegistry {
+
+	private static final RateLimiterRegistry SHARED = new RateLimiterRegistry();
+
+	private final Map<String, RateLimiter.Limits> limits = new ConcurrentHashMap<>();
+	private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+	/** The process-wide registry. */
+	public static RateLimiterRegistry shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Sets the limits for {@code provider}/{@code model}, or for all models of {@code provider} when
+	 * {@code model} is {@code null}. Limiters created earlier for affected keys are replaced.
+	 */
+	public RateLimiterRegistry setLimits(String provider, String model, RateLimiter.Limits newLimits) {
+		Objects.requireNonNull(provider, "provider");
+		Objects.requireNonNull(newLimits, "limits");
+		limits.put(key(provider, model), newLimits);
+		String prefix = key(provider, null);
+		limiters.keySet().removeIf(k -> model == null ? k.startsWith(prefix) : k.equals(key(provider, model)));
+		return this;
+	}
+
+	public RateLimiter limiterFor(String provider, String model) {
+		return limiters.computeIfAbsent(key(provider, model), k -> new RateLimiter(k, limitsFor(provider, model)));
+	}
+
+	public RateLimiter.Limits limitsFor(String provider, String model) {
+		RateLimiter.Limits specific = limits.get(key(provider, model));
+		if (specific != null) return specific;
+		return limits.getOrDefault(key(provider, null), RateLimiter.Limits.UNLIMITED);
+	}
+
+	/** Metrics of every limiter in use, by {@code provider/model}. */
+	public Map<String, RateLimiter.Metrics> metrics() {
+		Map<String, RateLimiter.Metrics> snapshot = new TreeMap<>();
+		limiters.forEach((k, limiter) -> snapshot.put(k, limiter.metrics()));
+		return snapshot;
+	}
+
+	private static String key(String provider, String model) {
+		return provider + "/" + (model == null ? "" : model);
+	}
+}
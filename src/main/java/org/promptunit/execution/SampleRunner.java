@@ -0,0 +1,108 @@
+package org.promptunit.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.SampleSet;
+import org.promptunit.core.SampleSet.Sample;
+
+/**
+ * Runs {@code n} invocations of the same prompt with at most {@code maxInFlight} outstanding at once,
+ * all sharing one overall deadline. Samples that finish are kept even when others fail or time out;
+ * with a {@code timeoutMs} of zero or less the deadline has already passed and every sample times out.
+ * Samples run on the shared {@link AsyncExecution} executor and are admitted by the shared
+ * {@link ExecutionScheduler} on behalf of the caller's tenant.
+ */
+public final class SampleRunner {
+
+	public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+	private SampleRunner() {}
+
+	public static SampleSet run(LLMEngine engine, PromptInstance instance, long timeoutMs, int nTimes, int maxInFlight) {
+		if (nTimes <= 0) throw new IllegalArgumentException("nTimes must be greater than 0");
+		if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be greater than 0");
+		if (timeoutMs <= 0) {
+			LLMTimeoutException timeout = new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms");
+			List<Sample> timedOut = new ArrayList<>(nTimes);
+			for (int i = 0; i < nTimes; i++) timedOut.add(Sample.timedOut(i, timeout));
+			return new SampleSet(timedOut, timeoutMs);
+		}
+
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		Semaphore permits = new Semaphore(maxInFlight, true);
+		AtomicReferenceArray<Sample> samples = new AtomicReferenceArray<>(nTimes);
+		List<Future<?>> futures = new ArrayList<>(nTimes);
+
+		ExecutionScheduler scheduler = ExecutionScheduler.shared();
+		String tenant = ExecutionScheduler.currentTenant();
+		String provider = engine.schedulingProvider(instance);
+		ExecutorService executor = AsyncExecution.executor();
+		try {
+			for (int i = 0; i < nTimes; i++) {
+				if (!permits.tryAcquire(deadline.remainingNanos(), TimeUnit.NANOSECONDS)) break;
+				final int index = i;
+				futures.add(executor.submit(() -> {
+					try {
+						long remainingMs = deadline.remainingMillis();
+						if (remainingMs <= 0) return;
+						samples.set(index, Sample.succeeded(index, provider != null
+								? scheduler.call(tenant, provider, remainingMs, ms -> engine.invokeOnce(instance, ms))
+								: invokeAs(tenant, engine, instance, remainingMs)));
+					} catch (LLMTimeoutException e) {
+						samples.set(index, Sample.timedOut(index, e));
+					} catch (Throwable e) {
+						// Work cut short by the deadline counts as a timeout, not a provider failure
+						boolean cutShort = deadline.isExpired() || Thread.currentThread().isInterrupted();
+						samples.set(index, cutShort ? Sample.timedOut(index, e) : Sample.failed(index, e));
+					} finally {
+						permits.release();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				long remainingNs = deadline.remainingNanos();
+				if (remainingNs <= 0) break;
+				try {
+					future.get(remainingNs, TimeUnit.NANOSECONDS);
+				} catch (TimeoutException | CancellationException e) {
+					break;
+				} catch (ExecutionException e) {
+					// recorded by the task itself
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (Future<?> f : futures) {
+				f.cancel(true);
+			}
+		}
+
+		LLMTimeoutException timeout = new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms");
+		List<Sample> collected = new ArrayList<>(nTimes);
+		for (int i = 0; i < nTimes; i++) {
+			Sample s = samples.get(i);
+			collected.add(s != null ? s : Sample.timedOut(i, i < futures.size() ? timeout : null));
+		}
+		return new SampleSet(collected, timeoutMs);
+	}
+
+	/** Runs an engine that admits its own provider calls, on behalf of {@code tenant}. */
+	private static PromptResult invokeAs(String tenant, LLMEngine engine, PromptInstance instance, long timeoutMs) {
+		try (ExecutionScheduler.TenantScope scope = ExecutionScheduler.useTenant(tenant)) {
+			return engine.invokeOnce(instance, timeoutMs);
+		}
+	}
+}
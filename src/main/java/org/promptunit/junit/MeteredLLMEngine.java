@@ -0,0 +1,61 @@
+package org.promptunit.junit;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.opentest4j.TestAbortedException;
+import org.promptunit.LLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.engine.ForwardingLLMEngine;
+
+/**
+ * The engine handed to one test: records every call on the test's ledger entry and aborts the test
+ * once the suite budget is spent. The wrapped engine is shared across tests and closed by the
+ * extension at the end of the run, so closing this one does nothing.
+ */
+final class MeteredLLMEngine extends ForwardingLLMEngine {
+
+	private final SuiteLedger ledger;
+	private final SuiteLedger.TestRecord test;
+
+	MeteredLLMEngine(LLMEngine delegate, SuiteLedger ledger, SuiteLedger.TestRecord test) {
+		super(delegate);
+		this.ledger = ledger;
+		this.test = test;
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		checkBudget();
+		try {
+			PromptResult result = delegate.invokeOnce(instance, timeoutMs);
+			test.record(result);
+			return result;
+		} catch (RuntimeException e) {
+			test.recordFailure();
+			throw e;
+		}
+	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		checkBudget();
+		try {
+			PromptResult result = delegate.invokeStreaming(instance, timeoutMs, tokenConsumer);
+			test.record(result);
+			return result;
+		} catch (RuntimeException e) {
+			test.recordFailure();
+			throw e;
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private void checkBudget() {
+		Optional<String> exhausted = ledger.exhaustedBudget();
+		if (exhausted.isPresent()) throw new TestAbortedException("PromptUnit " + exhausted.get());
+	}
+}
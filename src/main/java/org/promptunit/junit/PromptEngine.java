@@ -0,0 +1,32 @@
+package org.promptunit.junit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.promptunit.LLMEngine;
+
+/**
+ * Selects the engine {@link PromptUnitExtension} injects into an {@link LLMEngine} parameter. On a
+ * parameter it applies to that parameter, on a test class to every engine parameter of the class
+ * and its nested classes. Without either, the {@code promptunit.engine.provider} and
+ * {@code promptunit.engine.model} configuration parameters are used.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER, ElementType.TYPE})
+public @interface PromptEngine {
+
+	/** {@code openai}, {@code anthropic} or {@code ollama}; ignored when {@link #type()} is set. */
+	String provider() default "";
+
+	/** Model name; empty for the engine's default model. */
+	String model() default "";
+
+	/**
+	 * Engine class to instantiate instead of a built-in provider, through its {@code (String model)}
+	 * constructor when a model is given, otherwise its no-argument constructor.
+	 */
+	Class<? extends LLMEngine> type() default LLMEngine.class;
+}
@@ -0,0 +1,173 @@
+package org.promptunit.junit;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.opentest4j.TestAbortedException;
+import org.promptunit.LLMEngine;
+import org.promptunit.execution.ExecutionScheduler;
+import org.promptunit.providers.anthropic.AnthropicEngine;
+import org.promptunit.providers.llama.OllamaEngine;
+import org.promptunit.providers.openai.OpenAIEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JUnit 5 extension for prompt tests.
+ * <ul>
+ *   <li>Injects {@link LLMEngine} parameters, chosen with {@link PromptEngine}. Engines are created
+ *   once per run and shared by all tests; each test gets a view that meters its calls.</li>
+ *   <li>Makes each test class a tenant of the shared {@link ExecutionScheduler}, so classes running
+ *   in parallel get fair turns at the provider slots. {@value #MAX_CONCURRENCY} sets the scheduler's
+ *   global cap.</li>
+ *   <li>Enforces the {@link SuiteBudget}: once any budget is spent, running tests are aborted at
+ *   their next provider call and remaining tests are skipped.</li>
+ *   <li>Logs the {@link SuiteLedger#summary() per-test latency, token and cost summary} when the
+ *   run ends.</li>
+ * </ul>
+ * Use {@link PromptUnitTest} to register it together with concurrent execution.
+ */
+public class PromptUnitExtension implements ExecutionCondition, BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+	public static final String MAX_CONCURRENCY = "promptunit.max-concurrency";
+	public static final String ENGINE_PROVIDER = "promptunit.engine.provider";
+	public static final String ENGINE_MODEL = "promptunit.engine.model";
+
+	private static final Logger log = LoggerFactory.getLogger(PromptUnitExtension.class);
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(PromptUnitExtension.class);
+	private static final String SUITE = "suite";
+	private static final String TENANT = "tenant";
+
+	@Override
+	public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+		if (context.getTestMethod().isEmpty()) return ConditionEvaluationResult.enabled("not a test method");
+		Suite suite = suite(context);
+		Optional<String> exhausted = suite.ledger.exhaustedBudget();
+		if (exhausted.isEmpty()) return ConditionEvaluationResult.enabled("within PromptUnit budget");
+		suite.ledger.test(context.getUniqueId(), testName(context)).finish(SuiteLedger.Status.SKIPPED);
+		return ConditionEvaluationResult.disabled("PromptUnit " + exhausted.get());
+	}
+
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		suite(context).ledger.test(context.getUniqueId(), testName(context));
+		ExecutionScheduler.TenantScope scope = ExecutionScheduler.useTenant(context.getRequiredTestClass().getName());
+		context.getStore(NAMESPACE).put(TENANT, scope);
+	}
+
+	@Override
+	public void afterEach(ExtensionContext context) {
+		ExecutionScheduler.TenantScope scope = context.getStore(NAMESPACE).remove(TENANT, ExecutionScheduler.TenantScope.class);
+		if (scope != null) scope.close();
+		SuiteLedger.Status status = context.getExecutionException()
+				.map(e -> e instanceof TestAbortedException ? SuiteLedger.Status.ABORTED : SuiteLedger.Status.FAILED)
+				.orElse(SuiteLedger.Status.PASSED);
+		suite(context).ledger.test(context.getUniqueId(), testName(context)).finish(status);
+	}
+
+	@Override
+	public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+		return parameterContext.getParameter().getType().isAssignableFrom(MeteredLLMEngine.class)
+				&& LLMEngine.class.isAssignableFrom(parameterContext.getParameter().getType());
+	}
+
+	@Override
+	public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+		PromptEngine selection = parameterContext.findAnnotation(PromptEngine.class)
+				.or(() -> classAnnotation(extensionContext))
+				.orElse(null);
+		Class<? extends LLMEngine> type = selection != null ? selection.type() : LLMEngine.class;
+		String provider = selection != null && !selection.provider().isEmpty() ? selection.provider()
+				: extensionContext.getConfigurationParameter(ENGINE_PROVIDER).orElse("");
+		String model = selection != null && !selection.model().isEmpty() ? selection.model()
+				: extensionContext.getConfigurationParameter(ENGINE_MODEL).orElse("");
+		if (type == LLMEngine.class && provider.isBlank()) {
+			throw new ParameterResolutionException("No engine selected for " + parameterContext.getParameter()
+					+ "; annotate it or the test class with @PromptEngine, or set " + ENGINE_PROVIDER);
+		}
+
+		Suite suite = suite(extensionContext);
+		LLMEngine engine = suite.engine(type, provider.trim(), model.trim());
+		return new MeteredLLMEngine(engine, suite.ledger, suite.ledger.test(extensionContext.getUniqueId(), testName(extensionContext)));
+	}
+
+	private static Optional<PromptEngine> classAnnotation(ExtensionContext context) {
+		for (Optional<Class<?>> c = context.getTestClass(); c.isPresent(); c = Optional.ofNullable(c.get().getEnclosingClass())) {
+			PromptEngine annotation = c.get().getAnnotation(PromptEngine.class);
+			if (annotation != null) return Optional.of(annotation);
+		}
+		return Optional.empty();
+	}
+
+	private static String testName(ExtensionContext context) {
+		String className = context.getTestClass().map(Class::getSimpleName).orElse("");
+		return context.getTestMethod().isPresent() ? className + "." + context.getDisplayName() : className;
+	}
+
+	private static Suite suite(ExtensionContext context) {
+		ExtensionContext root = context.getRoot();
+		return root.getStore(NAMESPACE).getOrComputeIfAbsent(SUITE, k -> new Suite(root), Suite.class);
+	}
+
+	/** State shared by every test of the run; closed by JUnit when the run ends. */
+	private static final class Suite implements ExtensionContext.Store.CloseableResource {
+		final SuiteLedger ledger;
+		final Map<String, LLMEngine> engines = new ConcurrentHashMap<>();
+
+		Suite(ExtensionContext root) {
+			this.ledger = new SuiteLedger(SuiteBudget.from(root::getConfigurationParameter));
+			root.getConfigurationParameter(MAX_CONCURRENCY)
+					.map(String::trim)
+					.map(Integer::parseInt)
+					.ifPresent(max -> ExecutionScheduler.shared().setMaxConcurrency(max));
+		}
+
+		LLMEngine engine(Class<? extends LLMEngine> type, String provider, String model) {
+			String key = (type == LLMEngine.class ? provider.toLowerCase(Locale.ROOT) : type.getName()) + "/" + model;
+			return engines.computeIfAbsent(key, k -> create(type, provider, model));
+		}
+
+		@Override
+		public void close() {
+			log.info("{}{}", System.lineSeparator(), ledger.summary());
+			for (LLMEngine engine : engines.values()) {
+				try {
+					engine.close();
+				} catch (RuntimeException e) {
+					log.warn("Failed to close engine {}/{}: {}", engine.provider(), engine.model(), e.toString());
+				}
+			}
+		}
+
+		private static LLMEngine create(Class<? extends LLMEngine> type, String provider, String model) {
+			if (type != LLMEngine.class) {
+				try {
+					return model.isEmpty()
+							? type.getDeclaredConstructor().newInstance()
+							: type.getDeclaredConstructor(String.class).newInstance(model);
+				} catch (InvocationTargetException e) {
+					throw new ParameterResolutionException("Failed to create " + type.getName(), e.getCause());
+				} catch (ReflectiveOperationException e) {
+					throw new ParameterResolutionException("Cannot instantiate " + type.getName(), e);
+				}
+			}
+			return switch (provider.toLowerCase(Locale.ROOT)) {
+				case "openai" -> model.isEmpty() ? new OpenAIEngine() : new OpenAIEngine(model);
+				case "anthropic" -> model.isEmpty() ? new AnthropicEngine() : new AnthropicEngine(model);
+				case "ollama", "llama" -> model.isEmpty() ? new OllamaEngine() : new OllamaEngine(model);
+				default -> throw new ParameterResolutionException("Unknown provider '" + provider
+						+ "'; use openai, anthropic or ollama, or @PromptEngine(type = ...)");
+			};
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package org.promptunit.junit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/**
+ * Registers {@link PromptUnitExtension} and lets the class's tests run concurrently once JUnit's
+ * parallel execution is enabled ({@code junit.jupiter.execution.parallel.enabled=true}). How many
+ * provider calls actually run at once is left to the shared
+ * {@link org.promptunit.execution.ExecutionScheduler ExecutionScheduler}.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@ExtendWith(PromptUnitExtension.class)
+@Execution(ExecutionMode.CONCURRENT)
+public @interface PromptUnitTest {
+}
@@ -0,0 +1,46 @@
+package org.promptunit.junit;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Limits for a whole test run; {@code 0} disables a limit. Read from JUnit configuration parameters
+ * (junit-platform.properties or system properties):
+ * <ul>
+ *   <li>{@value #WALL_CLOCK_MS} — milliseconds since the first prompt test started</li>
+ *   <li>{@value #TOKENS} — total tokens reported by the providers</li>
+ *   <li>{@value #COST_USD} — total cost in US dollars, as priced by the engines</li>
+ * </ul>
+ */
+public record SuiteBudget(Duration wallClock, long maxTokens, double maxCostUsd) {
+
+	public static final String WALL_CLOCK_MS = "promptunit.budget.wall-clock-ms";
+	public static final String TOKENS = "promptunit.budget.tokens";
+	public static final String COST_USD = "promptunit.budget.cost-usd";
+
+	public static final SuiteBudget UNLIMITED = new SuiteBudget(Duration.ZERO, 0, 0.0);
+
+	public SuiteBudget {
+		if (wallClock == null || wallClock.isNegative() || maxTokens < 0 || maxCostUsd < 0) {
+			throw new IllegalArgumentException("Budgets must not be negative");
+		}
+	}
+
+	public static SuiteBudget from(Function<String, Optional<String>> parameters) {
+		return new SuiteBudget(
+				Duration.ofMillis(parse(parameters, WALL_CLOCK_MS, Long::parseLong, 0L)),
+				parse(parameters, TOKENS, Long::parseLong, 0L),
+				parse(parameters, COST_USD, Double::parseDouble, 0.0));
+	}
+
+	private static <T> T parse(Function<String, Optional<String>> parameters, String key, Function<String, T> parser, T fallback) {
+		Optional<String> value = parameters.apply(key).map(String::trim).filter(v -> !v.isEmpty());
+		if (value.isEmpty()) return fallback;
+		try {
+			return parser.apply(value.get());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + key + " value '" + value.get() + "'", e);
+		}
+	}
+}
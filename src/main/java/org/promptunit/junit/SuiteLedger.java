@@ -0,0 +1,179 @@
+package org.promptunit.junit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.promptunit.core.PromptResult;
+
+/**
+ * Running totals of provider calls per test and for the whole run, checked against a
+ * {@link SuiteBudget}. Thread-safe: tests and their samples record concurrently.
+ */
+public final class SuiteLedger {
+
+	public enum Status { RUNNING, PASSED, FAILED, ABORTED, SKIPPED }
+
+	private final SuiteBudget budget;
+	private final LongSupplier clock;
+	private final long startNs;
+	private final Map<String, TestRecord> tests = new ConcurrentHashMap<>();
+	private final AtomicLong order = new AtomicLong();
+	private final LongAdder tokens = new LongAdder();
+	private final DoubleAdder cost = new DoubleAdder();
+
+	public SuiteLedger(SuiteBudget budget) {
+		this(budget, System::nanoTime);
+	}
+
+	SuiteLedger(SuiteBudget budget, LongSupplier clock) {
+		this.budget = budget;
+		this.clock = clock;
+		this.startNs = clock.getAsLong();
+	}
+
+	public SuiteBudget budget() {
+		return budget;
+	}
+
+	public TestRecord test(String id, String name) {
+		return tests.computeIfAbsent(id, k -> new TestRecord(name, order.getAndIncrement()));
+	}
+
+	public long totalTokens() {
+		return tokens.sum();
+	}
+
+	public double totalCostUsd() {
+		return cost.sum();
+	}
+
+	public Duration elapsed() {
+		return Duration.ofNanos(clock.getAsLong() - startNs);
+	}
+
+	/** Describes the first budget that has been used up, if any. */
+	public Optional<String> exhaustedBudget() {
+		if (!budget.wallClock().isZero() && elapsed().compareTo(budget.wallClock()) >= 0) {
+			return Optional.of("wall-clock budget of %d ms spent".formatted(budget.wallClock().toMillis()));
+		}
+		if (budget.maxTokens() > 0 && totalTokens() >= budget.maxTokens()) {
+			return Optional.of("token budget of %d spent (%d used)".formatted(budget.maxTokens(), totalTokens()));
+		}
+		if (budget.maxCostUsd() > 0 && totalCostUsd() >= budget.maxCostUsd()) {
+			return Optional.of("cost budget of $%.4f spent ($%.4f used)".formatted(budget.maxCostUsd(), totalCostUsd()));
+		}
+		return Optional.empty();
+	}
+
+	public List<TestRecord> tests() {
+		List<TestRecord> list = new ArrayList<>(tests.values());
+		list.sort(Comparator.comparingLong(t -> t.order));
+		return list;
+	}
+
+	/** Run totals followed by a per-test table of calls, latency, tokens and cost. */
+	public String summary() {
+		List<TestRecord> records = tests();
+		int width = Math.max(4, records.stream().mapToInt(t -> t.name.length()).max().orElse(0));
+		StringBuilder sb = new StringBuilder();
+		sb.append("PromptUnit summary: %d tests, %d calls, %d tokens, $%.4f, %d ms wall clock%n".formatted(
+				records.size(), records.stream().mapToLong(TestRecord::calls).sum(), totalTokens(), totalCostUsd(),
+				elapsed().toMillis()));
+		sb.append(("  %-" + width + "s  %-8s %6s %6s %9s %8s %9s %10s%n").formatted(
+				"test", "status", "calls", "failed", "mean ms", "max ms", "tokens", "cost"));
+		for (TestRecord t : records) {
+			sb.append(("  %-" + width + "s  %-8s %6d %6d %9d %8d %9d %10s%n").formatted(
+					t.name, t.status, t.calls(), t.failedCalls(), t.meanLatencyMs(), t.maxLatencyMs(), t.tokens(),
+					t.costUsd() < 0 ? "unknown" : "$%.4f".formatted(t.costUsd())));
+		}
+		return sb.toString();
+	}
+
+	public final class TestRecord {
+		private final String name;
+		private final long order;
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder failedCalls = new LongAdder();
+		private final LongAdder latencyMs = new LongAdder();
+		private final AtomicLong maxLatencyMs = new AtomicLong();
+		private final LongAdder testTokens = new LongAdder();
+		private final DoubleAdder testCost = new DoubleAdder();
+		private volatile boolean costUnknown;
+		private volatile Status status = Status.RUNNING;
+
+		private TestRecord(String name, long order) {
+			this.name = name;
+			this.order = order;
+		}
+
+		public void record(PromptResult result) {
+			calls.increment();
+			if (result.latencyMs() >= 0) {
+				latencyMs.add(result.latencyMs());
+				maxLatencyMs.accumulateAndGet(result.latencyMs(), Math::max);
+			}
+			long used = result.usage().isKnown() ? result.usage().totalTokens() : result.tokenUsage();
+			if (used > 0) {
+				testTokens.add(used);
+				tokens.add(used);
+			}
+			if (result.cost() >= 0) {
+				testCost.add(result.cost());
+				cost.add(result.cost());
+			} else {
+				costUnknown = true;
+			}
+		}
+
+		public void recordFailure() {
+			calls.increment();
+			failedCalls.increment();
+		}
+
+		public void finish(Status status) {
+			this.status = status;
+		}
+
+		public String name() {
+			return name;
+		}
+
+		public Status status() {
+			return status;
+		}
+
+		public long calls() {
+			return calls.sum();
+		}
+
+		public long failedCalls() {
+			return failedCalls.sum();
+		}
+
+		public long meanLatencyMs() {
+			long succeeded = calls.sum() - failedCalls.sum();
+			return succeeded == 0 ? 0 : latencyMs.sum() / succeeded;
+		}
+
+		public long maxLatencyMs() {
+			return maxLatencyMs.get();
+		}
+
+		public long tokens() {
+			return testTokens.sum();
+		}
+
+		/** Cost of this test's calls, or {@code -1} if any of them could not be priced. */
+		public double costUsd() {
+			return costUnknown ? -1 : testCost.sum();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package org.promptunit.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HDR-style latency histogram: log-linear buckets with 128 sub-buckets per power of two, so any
+ * recorded value from one nanosecond to centuries is kept within 0.8% relative error in a fixed
+ * 58 KB of counters. Recording is lock-free and safe from any number of threads; percentiles read
+ * while recording is in progress see a consistent-enough snapshot for reporting.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+	private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong();
+
+	public void recordNanos(long nanos) {
+		if (nanos < 0) throw new IllegalArgumentException("nanos must not be negative");
+		counts.incrementAndGet(index(nanos));
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+		min.accumulateAndGet(nanos, Math::min);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+
+	public void recordMillis(long millis) {
+		recordNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+	/** Adds every value recorded in {@code other} to this histogram. */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			long c = other.counts.get(i);
+			if (c != 0) counts.addAndGet(i, c);
+		}
+		count.addAndGet(other.count.get());
+		sum.addAndGet(other.sum.get());
+		min.accumulateAndGet(other.min.get(), Math::min);
+		max.accumulateAndGet(other.max.get(), Math::max);
+	}
+
+	public long count() {
+		return count.get();
+	}
+
+	public long minNanos() {
+		return count.get() == 0 ? 0 : min.get();
+	}
+
+	public long maxNanos() {
+		return max.get();
+	}
+
+	public double meanNanos() {
+		long n = count.get();
+		return n == 0 ? 0.0 : (double) sum.get() / n;
+	}
+
+	/**
+	 * The value at {@code percentile} (0–100): the midpoint of the bucket holding that rank, clamped
+	 * to the exact minimum and maximum, which are returned as-is for the bottom and top ranks; 0 when
+	 * nothing has been recorded.
+	 */
+	public long valueAtPercentileNanos(double percentile) {
+		if (!(percentile >= 0.0 && percentile <= 100.0)) throw new IllegalArgumentException("percentile must be in [0, 100]");
+		long n = count.get();
+		if (n == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+		if (rank >= n) return maxNanos();
+		if (rank == 1) return minNanos();
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				long mid = lowerBound(i) + (bucketWidth(i) - 1) / 2;
+				return Math.max(minNanos(), Math.min(maxNanos(), mid));
+			}
+		}
+		return maxNanos();
+	}
+
+	public double valueAtPercentileMillis(double percentile) {
+		return valueAtPercentileNanos(percentile) / 1_000_000.0;
+	}
+
+	public double meanMillis() {
+		return meanNanos() / 1_000_000.0;
+	}
+
+	public double maxMillis() {
+		return maxNanos() / 1_000_000.0;
+	}
+
+	static int index(long value) {
+		if (value < LINEAR_LIMIT) return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	static long lowerBound(int index) {
+		if (index < LINEAR_LIMIT) return index;
+		int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return sub << shift;
+	}
+
+	private static long bucketWidth(int index) {
+		return index < LINEAR_LIMIT ? 1 : 1L << ((index - LINEAR_LIMIT) / SUB_BUCKETS + 1);
+	}
+
+	@Override
+	public String toString() {
+		return "n=%d p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms".formatted(count(),
+				valueAtPercentileMillis(50), valueAtPercentileMillis(90), valueAtPercentileMillis(99),
+				valueAtPercentileMillis(99.9), maxMillis());
+	}
+}
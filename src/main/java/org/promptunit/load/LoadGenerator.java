@@ -0,0 +1,238 @@
+package org.promptunit.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.execution.AsyncExecution;
+import org.promptunit.execution.DefaultTimeout;
+
+/**
+ * Open-loop load generator: starts requests at a target rate regardless of how fast earlier ones
+ * complete, and measures each request's latency from when it was <em>scheduled</em> to start. A slow
+ * engine therefore shows up as growing latency instead of as a silently lower request rate, which
+ * is the coordinated-omission error closed-loop benchmarks make.
+ * <pre>{@code
+ * LoadReport report = LoadGenerator.builder(engine)
+ *         .withInstances(dataset)
+ *         .withRate(20)
+ *         .withDuration(Duration.ofMinutes(1))
+ *         .build()
+ *         .run();
+ * }</pre>
+ * Requests go through {@link LLMEngine#execute(PromptInstance, long)}, so the shared
+ * {@link org.promptunit.execution.ExecutionScheduler ExecutionScheduler} caps how many reach the
+ * provider at once; time queued there counts as latency, as it would for a real client. Timed-out
+ * requests count with the time until they were given up on, so the slowest requests are not left
+ * out of the percentiles.
+ */
+public final class LoadGenerator {
+
+	public enum Arrivals {
+		/** Evenly spaced requests. */
+		CONSTANT,
+		/** Exponentially distributed gaps with the same mean, modelling independent users. */
+		POISSON
+	}
+
+	public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+	private final LLMEngine engine;
+	private final List<PromptInstance> instances;
+	private final double rate;
+	private final Duration duration;
+	private final long timeoutMs;
+	private final int maxInFlight;
+	private final Arrivals arrivals;
+	private final Long seed;
+
+	private LoadGenerator(Builder builder) {
+		this.engine = builder.engine;
+		this.instances = List.copyOf(builder.instances);
+		this.rate = builder.rate;
+		this.duration = builder.duration;
+		this.timeoutMs = builder.timeoutMs;
+		this.maxInFlight = builder.maxInFlight;
+		this.arrivals = builder.arrivals;
+		this.seed = builder.seed;
+	}
+
+	public static Builder builder(LLMEngine engine) {
+		return new Builder(engine);
+	}
+
+	/**
+	 * Generates load for the configured duration, then waits up to the request timeout for
+	 * outstanding requests; any still running after that are cancelled and count as timed out.
+	 */
+	public LoadReport run() {
+		Random random = seed != null ? new Random(seed) : new Random();
+		Semaphore permits = new Semaphore(maxInFlight);
+		LatencyHistogram latency = new LatencyHistogram();
+		LatencyHistogram serviceTime = new LatencyHistogram();
+		AtomicLong succeeded = new AtomicLong();
+		AtomicLong failed = new AtomicLong();
+		AtomicLong timedOut = new AtomicLong();
+		Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+		List<Request> outstanding = new ArrayList<>();
+		long sent = 0;
+		long dropped = 0;
+
+		double intervalNs = 1e9 / rate;
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		double offsetNs = 0;
+		for (int i = 0; ; i++) {
+			long scheduled = start + (long) offsetNs;
+			if (scheduled >= end) break;
+			for (long wait; (wait = scheduled - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+
+			if (!permits.tryAcquire()) {
+				dropped++;
+			} else {
+				PromptInstance instance = instances.get(i % instances.size());
+				// Whoever settles a request first counts it: the task itself, or the drain giving up on it
+				AtomicBoolean settled = new AtomicBoolean();
+				Future<?> future = AsyncExecution.executor().submit(() -> {
+					long begin = System.nanoTime();
+					try {
+						engine.execute(instance, timeoutMs);
+						long done = System.nanoTime();
+						if (settled.compareAndSet(false, true)) {
+							latency.recordNanos(done - scheduled);
+							serviceTime.recordNanos(done - begin);
+							succeeded.incrementAndGet();
+						}
+					} catch (LLMTimeoutException e) {
+						if (settled.compareAndSet(false, true)) {
+							latency.recordNanos(System.nanoTime() - scheduled);
+							timedOut.incrementAndGet();
+						}
+					} catch (RuntimeException e) {
+						if (settled.compareAndSet(false, true)) {
+							failed.incrementAndGet();
+							errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+						}
+					} finally {
+						permits.release();
+					}
+				});
+				outstanding.add(new Request(future, settled, scheduled));
+				sent++;
+			}
+			offsetNs += arrivals == Arrivals.CONSTANT ? intervalNs : -Math.log(1.0 - random.nextDouble()) * intervalNs;
+		}
+
+		long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		for (Request request : outstanding) {
+			try {
+				request.future().get(Math.max(0, drainDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				if (request.settled().compareAndSet(false, true)) {
+					latency.recordNanos(System.nanoTime() - request.scheduled());
+					timedOut.incrementAndGet();
+				}
+				request.future().cancel(true);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				outstanding.forEach(r -> r.future().cancel(true));
+				break;
+			} catch (ExecutionException e) {
+				// Recorded by the task itself
+			}
+		}
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		Map<String, Long> errorCounts = new TreeMap<>();
+		errors.forEach((type, n) -> errorCounts.put(type, n.sum()));
+		return new LoadReport(rate, elapsed, sent, succeeded.get(), failed.get(), timedOut.get(), dropped,
+				latency, serviceTime, errorCounts);
+	}
+
+	private record Request(Future<?> future, AtomicBoolean settled, long scheduled) {
+	}
+
+	public static final class Builder {
+		private final LLMEngine engine;
+		private final List<PromptInstance> instances = new ArrayList<>();
+		private double rate = 1.0;
+		private Duration duration = Duration.ofSeconds(10);
+		private long timeoutMs = DefaultTimeout.millis();
+		private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+		private Arrivals arrivals = Arrivals.CONSTANT;
+		private Long seed;
+
+		private Builder(LLMEngine engine) {
+			this.engine = Objects.requireNonNull(engine, "engine");
+		}
+
+		public Builder withInstance(PromptInstance instance) {
+			instances.add(Objects.requireNonNull(instance, "instance"));
+			return this;
+		}
+
+		/** Prompts to send, cycled through in order. */
+		public Builder withInstances(List<PromptInstance> instances) {
+			instances.forEach(this::withInstance);
+			return this;
+		}
+
+		/** Target arrival rate in requests per second. */
+		public Builder withRate(double requestsPerSecond) {
+			if (!(requestsPerSecond > 0.0)) throw new IllegalArgumentException("requestsPerSecond must be > 0");
+			this.rate = requestsPerSecond;
+			return this;
+		}
+
+		public Builder withDuration(Duration duration) {
+			if (duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("duration must be > 0");
+			this.duration = duration;
+			return this;
+		}
+
+		public Builder withTimeoutMs(long timeoutMs) {
+			if (timeoutMs <= 0) throw new IllegalArgumentException("timeoutMs must be > 0");
+			this.timeoutMs = timeoutMs;
+			return this;
+		}
+
+		/** Requests allowed outstanding at once; arrivals beyond it are dropped and counted as errors. */
+		public Builder withMaxInFlight(int maxInFlight) {
+			if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be >= 1");
+			this.maxInFlight = maxInFlight;
+			return this;
+		}
+
+		public Builder withArrivals(Arrivals arrivals) {
+			this.arrivals = Objects.requireNonNull(arrivals, "arrivals");
+			return this;
+		}
+
+		/** Seeds Poisson arrivals so runs use the same schedule. */
+		public Builder withSeed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public LoadGenerator build() {
+			if (instances.isEmpty()) throw new IllegalStateException("No PromptInstance set. Call withInstance(...) first.");
+			return new LoadGenerator(this);
+		}
+	}
+}
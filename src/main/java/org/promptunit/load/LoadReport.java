@@ -0,0 +1,73 @@
+package org.promptunit.load;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link LoadGenerator} run. The percentiles ({@link #p50Ms()} to {@link #p999Ms()}) are
+ * those of {@code latency}.
+ *
+ * @param sent        requests started on schedule
+ * @param dropped     arrivals not started because {@code maxInFlight} requests were outstanding;
+ *                    counted as errors
+ * @param latency     response time of successful and timed-out requests measured from their
+ *                    scheduled start, so time spent waiting behind slow requests is included (no
+ *                    coordinated omission); a timed-out request counts until it was given up on.
+ *                    Failed requests are left out, so fast errors do not pull the percentiles down,
+ *                    and dropped arrivals have no response time
+ * @param serviceTime time of successful requests from the actual start of the call
+ * @param errors      failed requests by exception type
+ */
+public record LoadReport(
+		double targetRps,
+		Duration elapsed,
+		long sent,
+		long succeeded,
+		long failed,
+		long timedOut,
+		long dropped,
+		LatencyHistogram latency,
+		LatencyHistogram serviceTime,
+		Map<String, Long> errors
+) {
+
+	public long completed() {
+		return succeeded + failed + timedOut;
+	}
+
+	/** Successful responses per second of wall-clock time. */
+	public double throughputRps() {
+		double seconds = elapsed.toNanos() / 1e9;
+		return seconds == 0 ? 0.0 : succeeded / seconds;
+	}
+
+	/** Failed, timed-out and dropped requests as a fraction of all scheduled arrivals. */
+	public double errorRate() {
+		long total = sent + dropped;
+		return total == 0 ? 0.0 : (double) (failed + timedOut + dropped) / total;
+	}
+
+	public double p50Ms() {
+		return latency.valueAtPercentileMillis(50);
+	}
+
+	public double p90Ms() {
+		return latency.valueAtPercentileMillis(90);
+	}
+
+	public double p99Ms() {
+		return latency.valueAtPercentileMillis(99);
+	}
+
+	public double p999Ms() {
+		return latency.valueAtPercentileMillis(99.9);
+	}
+
+	public String summary() {
+		return "target %.1f rps, achieved %.1f rps over %.1fs; %d sent, %d ok, %d failed, %d timed out, %d dropped (%.2f%% errors)%n"
+				.formatted(targetRps, throughputRps(), elapsed.toMillis() / 1000.0, sent, succeeded, failed, timedOut, dropped, errorRate() * 100)
+				+ "latency      " + latency + System.lineSeparator()
+				+ "service time " + serviceTime
+				+ (errors.isEmpty() ? "" : System.lineSeparator() + "errors " + errors);
+	}
+}
@@ -0,0 +1,105 @@
+package org.promptunit.pricing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Price table read from JSON:
+ * <pre>{@code
+ * { "version": "2025-06-01",
+ *   "providers": { "openai": { "gpt-4o": { "input": 2.50, "cachedInput": 1.25, "output": 10.00 } } } }
+ * }</pre>
+ * Prices are per million tokens; {@code cachedInput} and {@code cacheWriteInput} default to {@code input}. Models resolve by exact name, then by a priced name followed only
+ * by a snapshot suffix ({@code -YYYY-MM-DD}, {@code -YYYYMMDD} or {@code -latest}, so
+ * {@code gpt-4o-2024-08-06} uses {@code gpt-4o}), then by a {@code "*"} entry for the provider.
+ * Other suffixes do not match, since variants such as {@code o3-mini} are priced differently.
+ */
+public final class JsonPriceTable implements PriceTable {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private static final Pattern SNAPSHOT_SUFFIX = Pattern.compile("-(\\d{4}-\\d{2}-\\d{2}|\\d{8}|latest)$");
+
+	private final String version;
+	private final Map<String, Map<String, ModelPrice>> prices;
+
+	private JsonPriceTable(String version, Map<String, Map<String, ModelPrice>> prices) {
+		this.version = version;
+		this.prices = prices;
+	}
+
+	public static JsonPriceTable fromResource(String resource) {
+		try (InputStream in = JsonPriceTable.class.getResourceAsStream(resource)) {
+			if (in == null) throw new IllegalArgumentException("Price table resource not found: " + resource);
+			return parse(objectMapper.readTree(in));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read price table " + resource, e);
+		}
+	}
+
+	public static JsonPriceTable fromFile(Path file) {
+		try {
+			return parse(objectMapper.readTree(Files.readAllBytes(file)));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read price table " + file, e);
+		}
+	}
+
+	static JsonPriceTable parse(JsonNode root) {
+		String version = root.path("version").asText(null);
+		if (version == null || version.isBlank()) {
+			throw new IllegalArgumentException("Price table must declare a version");
+		}
+		Map<String, Map<String, ModelPrice>> prices = new HashMap<>();
+		for (Map.Entry<String, JsonNode> provider : root.path("providers").properties()) {
+			Map<String, ModelPrice> models = new HashMap<>();
+			for (Map.Entry<String, JsonNode> model : provider.getValue().properties()) {
+				JsonNode p = model.getValue();
+				double input = p.path("input").asDouble();
+				models.put(normalize(model.getKey()), new ModelPrice(
+						input, p.path("output").asDouble(), p.path("cachedInput").asDouble(input),
+						p.path("cacheWriteInput").asDouble(input)));
+			}
+			prices.put(normalize(provider.getKey()), Map.copyOf(models));
+		}
+		return new JsonPriceTable(version, Map.copyOf(prices));
+	}
+
+	@Override
+	public String version() {
+		return version;
+	}
+
+	@Override
+	public Optional<ModelPrice> priceFor(String provider, String model) {
+		if (provider == null) return Optional.empty();
+		Map<String, ModelPrice> models = prices.get(normalize(provider));
+		if (models == null) return Optional.empty();
+		if (model != null) {
+			String m = normalize(model);
+			ModelPrice exact = models.get(m);
+			if (exact != null) return Optional.of(exact);
+			Matcher snapshot = SNAPSHOT_SUFFIX.matcher(m);
+			if (snapshot.find()) {
+				ModelPrice base = models.get(m.substring(0, snapshot.start()));
+				if (base != null) return Optional.of(base);
+			}
+		}
+		return Optional.ofNullable(models.get("*"));
+	}
+
+	private static String normalize(String name) {
+		return Objects.requireNonNull(name).trim().toLowerCase(Locale.ROOT);
+	}
+}
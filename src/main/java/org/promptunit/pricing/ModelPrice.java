@@ -0,0 +1,41 @@
+package org.promptunit.pricing;
+
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+
+/**
+ * Prices per million tokens. Cached prompt tokens are billed at {@code cachedInputPerMillion}, prompt
+ * tokens written to the cache at {@code cacheWriteInputPerMillion} and the rest of the prompt at
+ * {@code inputPerMillion}.
+ */
+public record ModelPrice(double inputPerMillion, double outputPerMillion, double cachedInputPerMillion,
+		double cacheWriteInputPerMillion) {
+
+	public ModelPrice {
+		if (inputPerMillion < 0 || outputPerMillion < 0 || cachedInputPerMillion < 0 || cacheWriteInputPerMillion < 0) {
+			throw new IllegalArgumentException("Prices must not be negative");
+		}
+	}
+
+	public ModelPrice(double inputPerMillion, double outputPerMillion, double cachedInputPerMillion) {
+		this(inputPerMillion, outputPerMillion, cachedInputPerMillion, inputPerMillion);
+	}
+
+	public ModelPrice(double inputPerMillion, double outputPerMillion) {
+		this(inputPerMillion, outputPerMillion, inputPerMillion);
+	}
+
+	/**
+	 * Cost of {@code usage}, or {@link PromptResult#UNKNOWN_COST} if the provider did not report it.
+	 */
+	public double cost(TokenUsage usage) {
+		if (usage == null || !usage.isKnown()) return PromptResult.UNKNOWN_COST;
+		int cached = Math.max(0, Math.min(usage.cachedPromptTokens(), usage.promptTokens()));
+		int written = Math.max(0, Math.min(usage.cacheWritePromptTokens(), usage.promptTokens() - cached));
+		double dollars = (usage.promptTokens() - cached - written) * inputPerMillion
+				+ cached * cachedInputPerMillion
+				+ written * cacheWriteInputPerMillion
+				+ usage.completionTokens() * outputPerMillion;
+		return dollars / 1_000_000.0;
+	}
+}
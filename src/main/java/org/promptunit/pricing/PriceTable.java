@@ -0,0 +1,24 @@
+package org.promptunit.pricing;
+
+import java.util.Optional;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+
+/**
+ * Source of per-model prices. Tables are versioned because provider prices change; record the
+ * {@link #version()} alongside cost budgets so a budget failure can be traced to a price change.
+ */
+public interface PriceTable {
+
+	String version();
+
+	Optional<ModelPrice> priceFor(String provider, String model);
+
+	/**
+	 * Cost of {@code usage} on {@code provider}/{@code model}, or {@link PromptResult#UNKNOWN_COST}
+	 * when the model is not priced or the usage is unknown.
+	 */
+	default double cost(String provider, String model, TokenUsage usage) {
+		return priceFor(provider, model).map(p -> p.cost(usage)).orElse((double) PromptResult.UNKNOWN_COST);
+	}
+}
@@ -0,0 +1,44 @@
+package org.promptunit.pricing;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import org.promptunit.env.DotenvEnvironmentUtil;
+
+/**
+ * Holds the price table the engines use to cost their results. Defaults to the table bundled with
+ * PromptUnit, or to the JSON file named by {@value #ENV_VAR} (environment or .env); tests can
+ * install their own with {@link #use(PriceTable)}.
+ */
+public final class PriceTables {
+
+	public static final String ENV_VAR = "PROMPTUNIT_PRICE_TABLE";
+	public static final String BUNDLED_RESOURCE = "/promptunit/prices.json";
+
+	private static volatile PriceTable current;
+
+	private PriceTables() {}
+
+	public static PriceTable current() {
+		PriceTable table = current;
+		if (table == null) {
+			synchronized (PriceTables.class) {
+				if (current == null) current = fromEnvironment();
+				table = current;
+			}
+		}
+		return table;
+	}
+
+	public static void use(PriceTable table) {
+		current = Objects.requireNonNull(table, "table");
+	}
+
+	public static PriceTable bundled() {
+		return JsonPriceTable.fromResource(BUNDLED_RESOURCE);
+	}
+
+	private static PriceTable fromEnvironment() {
+		String file = DotenvEnvironmentUtil.getEnvVarStringValue(ENV_VAR);
+		return file == null || file.isBlank() ? bundled() : JsonPriceTable.fromFile(Path.of(file.trim()));
+	}
+}
@@ -2,13 +2,22 @@ package org.promptunit.providers.anthropic;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.promptunit.ApiKeyAccess;
 import org.promptunit.LLMEngine;
 import org.promptunit.LLMEngineInfo;
 import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+import org.promptunit.providers.util.ChatUsage;
+import org.promptunit.providers.util.ProviderClient;
+import org.promptunit.providers.util.ProviderErrors;
+import org.promptunit.providers.util.RequestDeadline;
 import org.promptunit.providers.util.SpringAiToolCallMapper;
+import org.promptunit.providers.util.StreamingChatSupport;
+import org.promptunit.providers.util.StreamingChatSupport.StreamedResponse;
 import org.promptunit.tools.ToolCall;
 import org.springframework.ai.anthropic.AnthropicChatModel;
 import org.springframework.ai.anthropic.AnthropicChatOptions;
@@ -21,15 +30,44 @@ public class AnthropicEngine implements LLMEngine, LLMEngineInfo {
 
 	public static final String DEFAULT_MODEL = "claude-3-5-sonnet-20241022";
 	public static final String API_KEY = "ANTHROPIC_API_KEY";
+	public static final String BASE_URL = "ANTHROPIC_BASE_URL";
 
 	private final String model;
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private final ProviderClient<AnthropicChatModel> client;
 
 	public AnthropicEngine() {
 		this(DEFAULT_MODEL);
 	}
 
 	public AnthropicEngine(String model) {
+		this(model, null);
+	}
+
+	/**
+	 * @param baseUrl API root, e.g. a proxy or a local {@link org.promptunit.stub.StubLLMServer}; null
+	 *                for {@value #BASE_URL} if set, otherwise the public Anthropic endpoint
+	 */
+	public AnthropicEngine(String model, String baseUrl) {
+		this(model, baseUrl, null);
+	}
+
+	/**
+	 * @param apiKey key sent to the provider; null for {@value #API_KEY}. Local stub servers accept any
+	 *               key.
+	 */
+	public AnthropicEngine(String model, String baseUrl, String apiKey) {
 		this.model = model;
+		String url = ProviderClient.baseUrl(baseUrl, BASE_URL);
+		this.client = new ProviderClient<>("Anthropic", httpClient -> {
+			AnthropicApi.Builder api = AnthropicApi.builder()
+					.apiKey(apiKey != null ? apiKey : ApiKeyAccess.getApiKey(API_KEY))
+					.restClientBuilder(ProviderClient.restClientBuilder(httpClient))
+					.webClientBuilder(ProviderClient.webClientBuilder(httpClient))
+					.responseErrorHandler(ProviderErrors.httpErrorHandler("Anthropic"));
+			if (url != null) api.baseUrl(url);
+			return AnthropicChatModel.builder().anthropicApi(api.build()).retryTemplate(ProviderErrors.noRetry()).build();
+		});
 	}
 
 	@Override
@@ -49,33 +87,14 @@ public class AnthropicEngine implements LLMEngine, LLMEngineInfo {
 
 	@Override
 	public PromptResult invokeOnce(PromptInstance promptInstance, long timeoutMs) {
-		final String apiKey = ApiKeyAccess.getApiKey(API_KEY);
-
-		if (promptInstance.provider() != null && !promptInstance.provider().equals(provider())) {
-			throw new IllegalArgumentException("Invalid provider " + promptInstance.provider() + "; expected " + provider());
-		}
-
-		final String effectiveModel = promptInstance.model() != null && !promptInstance.model().isBlank() ? promptInstance.model() : this.model;
+		final AnthropicChatModel chatModel = client.get();
+		validateProvider(promptInstance);
 
 		try {
-			AnthropicApi anthropicApi = AnthropicApi.builder().apiKey(apiKey).build();
-			AnthropicChatModel chatModel = AnthropicChatModel.builder().anthropicApi(anthropicApi).build();
-
-			AnthropicChatOptions.Builder optionsBuilder = AnthropicChatOptions.builder().model(effectiveModel);
-			if (promptInstance.temperature() != null) {
-				optionsBuilder.temperature(promptInstance.temperature());
-			}
-			if (promptInstance.topP() != null) {
-				optionsBuilder.topP(promptInstance.topP());
-			}
-			if (promptInstance.maxTokens() != null) {
-				optionsBuilder.maxTokens(promptInstance.maxTokens());
-			}
-
-			Prompt prompt = new Prompt(promptInstance.conversation(), optionsBuilder.build());
+			Prompt prompt = buildPrompt(promptInstance);
 
 			long startNs = System.nanoTime();
-			ChatResponse response = chatModel.call(prompt);
+			ChatResponse response = RequestDeadline.callWithin(timeoutMs, () -> chatModel.call(prompt));
 			long endNs = System.nanoTime();
 
             String output;
@@ -86,17 +105,69 @@ public class AnthropicEngine implements LLMEngine, LLMEngineInfo {
 			}
 
 			long latencyMs = TimeUnit.NANOSECONDS.toMillis(endNs - startNs);
-			int tokenUsage = PromptResult.UNKNOWN_TOKENS_USED;
+			TokenUsage usage = ChatUsage.from(response);
+			double cost = ChatUsage.cost(provider(), effectiveModel(promptInstance), response, usage);
 
             List<ToolCall> toolCalls = SpringAiToolCallMapper
-                    .fromAssistantMessage(response.getResult().getOutput(), new ObjectMapper());
+                    .fromAssistantMessage(response.getResult().getOutput(), objectMapper);
 
-            return new PromptResult(output, latencyMs, PromptResult.UNKNOWN_COST, tokenUsage, promptInstance, this, toolCalls);
-		} catch (LLMInvocationException e) {
+            return new PromptResult(output, latencyMs, cost, usage.totalTokens(), promptInstance, this, toolCalls, null, usage);
+		} catch (LLMInvocationException | LLMTimeoutException e) {
 			throw e;
 		} catch (Exception e) {
 			throw new LLMInvocationException("Error invoking Anthropic: " + e.getMessage(), e);
 		}
 	}
-}
 
+	@Override
+	public PromptResult invokeStreaming(PromptInstance promptInstance, long timeoutMs, Consumer<String> tokenConsumer) {
+		final AnthropicChatModel chatModel = client.get();
+		validateProvider(promptInstance);
+
+		try {
+			Prompt prompt = buildPrompt(promptInstance);
+			StreamedResponse streamed = RequestDeadline.callWithin(timeoutMs,
+					() -> StreamingChatSupport.collect(chatModel.stream(prompt), timeoutMs, tokenConsumer, objectMapper));
+			TokenUsage usage = ChatUsage.from(streamed.lastResponse());
+			double cost = ChatUsage.cost(provider(), effectiveModel(promptInstance), streamed.lastResponse(), usage);
+			return new PromptResult(streamed.text(), streamed.metrics().totalMs(), cost, usage.totalTokens(),
+					promptInstance, this, streamed.toolCalls(), streamed.metrics(), usage);
+		} catch (LLMInvocationException | LLMTimeoutException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new LLMInvocationException("Error streaming from Anthropic: " + e.getMessage(), e);
+		}
+	}
+
+	private void validateProvider(PromptInstance promptInstance) {
+		if (promptInstance.provider() != null && !promptInstance.provider().equals(provider())) {
+			throw new IllegalArgumentException("Invalid provider " + promptInstance.provider() + "; expected " + provider());
+		}
+	}
+
+	private String effectiveModel(PromptInstance promptInstance) {
+		return promptInstance.model() != null && !promptInstance.model().isBlank() ? promptInstance.model() : this.model;
+	}
+
+	private Prompt buildPrompt(PromptInstance promptInstance) {
+		final String effectiveModel = effectiveModel(promptInstance);
+
+		AnthropicChatOptions.Builder optionsBuilder = AnthropicChatOptions.builder().model(effectiveModel);
+		if (promptInstance.temperature() != null) {
+			optionsBuilder.temperature(promptInstance.temperature());
+		}
+		if (promptInstance.topP() != null) {
+			optionsBuilder.topP(promptInstance.topP());
+		}
+		if (promptInstance.maxTokens() != null) {
+			optionsBuilder.maxTokens(promptInstance.maxTokens());
+		}
+
+		return new Prompt(promptInstance.conversation(), optionsBuilder.build());
+	}
+
+	@Override
+	public void close() {
+		client.close();
+	}
+}
@@ -1,16 +1,20 @@
 package org.promptunit.providers.llama;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.promptunit.LLMEngine;
 import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
-import org.springframework.ai.chat.messages.Message;
-import org.springframework.ai.chat.messages.SystemMessage;
-import org.springframework.ai.chat.messages.UserMessage;
+import org.promptunit.core.TokenUsage;
+import org.promptunit.providers.util.ChatUsage;
+import org.promptunit.providers.util.ProviderClient;
+import org.promptunit.providers.util.ProviderErrors;
+import org.promptunit.providers.util.RequestDeadline;
+import org.promptunit.providers.util.StreamingChatSupport;
+import org.promptunit.providers.util.StreamingChatSupport.StreamedResponse;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.ollama.OllamaChatModel;
@@ -20,15 +24,36 @@ import org.springframework.ai.ollama.api.OllamaOptions;
 public class OllamaEngine implements LLMEngine {
 
 	public static final String DEFAULT_MODEL = "TBD";
+	public static final String BASE_URL = "OLLAMA_BASE_URL";
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
 
 	private final String model;
+	private final ProviderClient<OllamaChatModel> client;
 
 	public OllamaEngine() {
 		this(DEFAULT_MODEL);
 	}
 
 	public OllamaEngine(String model) {
+		this(model, null);
+	}
+
+	/**
+	 * @param baseUrl Ollama server root, e.g. a local {@link org.promptunit.stub.StubLLMServer}; null
+	 *                for {@value #BASE_URL} if set, otherwise {@code http://localhost:11434}
+	 */
+	public OllamaEngine(String model, String baseUrl) {
 		this.model = model;
+		String url = ProviderClient.baseUrl(baseUrl, BASE_URL);
+		this.client = new ProviderClient<>("Ollama", httpClient -> {
+			OllamaApi.Builder api = OllamaApi.builder()
+					.restClientBuilder(ProviderClient.restClientBuilder(httpClient))
+					.webClientBuilder(ProviderClient.webClientBuilder(httpClient))
+					.responseErrorHandler(ProviderErrors.httpErrorHandler("Ollama"));
+			if (url != null) api.baseUrl(url);
+			return OllamaChatModel.builder().ollamaApi(api.build()).retryTemplate(ProviderErrors.noRetry()).build();
+		});
 	}
 
 	@Override
@@ -43,27 +68,14 @@ public class OllamaEngine implements LLMEngine {
 
 	@Override
 	public PromptResult invokeOnce(PromptInstance promptInstance, long timeoutMs) {
-		if (promptInstance.provider() != null && !promptInstance.provider().equals(provider())) {
-			throw new IllegalArgumentException("Invalid provider " + promptInstance.provider() + "; expected " + provider());
-		}
-
-		final String effectiveModel = promptInstance.model() != null && !promptInstance.model().isBlank() ? promptInstance.model() : this.model;
+		validateProvider(promptInstance);
 
 		try {
-			OllamaOptions ollamaOptions = OllamaOptions.builder()
-					.temperature(promptInstance.temperature())
-					.topP(promptInstance.topP())
-					// .maxTokens() Not supported by LLAMA
-					.build();
-
-
-			OllamaApi ollamaApi = OllamaApi.builder().build();
-			OllamaChatModel chatModel = OllamaChatModel.builder().ollamaApi(ollamaApi).defaultOptions(ollamaOptions).build();
-
-			Prompt prompt = new Prompt(promptInstance.conversation(), ollamaOptions);
+			OllamaChatModel chatModel = client.get();
+			Prompt prompt = buildPrompt(promptInstance);
 
 			long startNs = System.nanoTime();
-			ChatResponse response = chatModel.call(prompt);
+			ChatResponse response = RequestDeadline.callWithin(timeoutMs, () -> chatModel.call(prompt));
 			long endNs = System.nanoTime();
 
 			String output;
@@ -74,13 +86,62 @@ public class OllamaEngine implements LLMEngine {
 			}
 
 			long latencyMs = TimeUnit.NANOSECONDS.toMillis(endNs - startNs);
-			int tokenUsage = PromptResult.UNKNOWN_TOKENS_USED;
+			TokenUsage usage = ChatUsage.from(response);
+			double cost = ChatUsage.cost(provider(), effectiveModel(promptInstance), response, usage);
 
-            return new PromptResult(output, latencyMs, PromptResult.UNKNOWN_COST, tokenUsage);
-		} catch (LLMInvocationException e) {
+            return new PromptResult(output, latencyMs, cost, usage.totalTokens(), promptInstance, null, null, null, usage);
+		} catch (LLMInvocationException | LLMTimeoutException e) {
 			throw e;
 		} catch (Exception e) {
 			throw new LLMInvocationException("Error invoking Ollama: " + e.getMessage(), e);
 		}
 	}
+
+	@Override
+	public PromptResult invokeStreaming(PromptInstance promptInstance, long timeoutMs, Consumer<String> tokenConsumer) {
+		validateProvider(promptInstance);
+
+		try {
+			OllamaChatModel chatModel = client.get();
+			Prompt prompt = buildPrompt(promptInstance);
+			StreamedResponse streamed = RequestDeadline.callWithin(timeoutMs,
+					() -> StreamingChatSupport.collect(chatModel.stream(prompt), timeoutMs, tokenConsumer, objectMapper));
+			TokenUsage usage = ChatUsage.from(streamed.lastResponse());
+			double cost = ChatUsage.cost(provider(), effectiveModel(promptInstance), streamed.lastResponse(), usage);
+			return new PromptResult(streamed.text(), streamed.metrics().totalMs(), cost, usage.totalTokens(),
+					promptInstance, null, streamed.toolCalls(), streamed.metrics(), usage);
+		} catch (LLMInvocationException | LLMTimeoutException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new LLMInvocationException("Error streaming from Ollama: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void close() {
+		client.close();
+	}
+
+	private void validateProvider(PromptInstance promptInstance) {
+		if (promptInstance.provider() != null && !promptInstance.provider().equals(provider())) {
+			throw new IllegalArgumentException("Invalid provider " + promptInstance.provider() + "; expected " + provider());
+		}
+	}
+
+	private String effectiveModel(PromptInstance promptInstance) {
+		return promptInstance.model() != null && !promptInstance.model().isBlank() ? promptInstance.model() : this.model;
+	}
+
+	private Prompt buildPrompt(PromptInstance promptInstance) {
+		final String effectiveModel = effectiveModel(promptInstance);
+
+		OllamaOptions ollamaOptions = OllamaOptions.builder()
+				.model(effectiveModel)
+				.temperature(promptInstance.temperature())
+				.topP(promptInstance.topP())
+				// .maxTokens() Not supported by LLAMA
+				.build();
+
+		return new Prompt(promptInstance.conversation(), ollamaOptions);
+	}
 }
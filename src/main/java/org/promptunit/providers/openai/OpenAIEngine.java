@@ -4,13 +4,22 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.promptunit.ApiKeyAccess;
 import org.promptunit.LLMEngine;
 import org.promptunit.LLMEngineInfo;
 import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
 import java.util.List;
+import org.promptunit.providers.util.ChatUsage;
+import org.promptunit.providers.util.ProviderClient;
+import org.promptunit.providers.util.ProviderErrors;
+import org.promptunit.providers.util.RequestDeadline;
+import org.promptunit.providers.util.StreamingChatSupport;
+import org.promptunit.providers.util.StreamingChatSupport.StreamedResponse;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatModel;
@@ -22,16 +31,44 @@ public class OpenAIEngine implements LLMEngine, LLMEngineInfo {
 
 	public static final String DEFAULT_MODEL = "gpt-3.5-turbo";
 	public static final String API_KEY = "OPENAI_API_KEY";
+	public static final String BASE_URL = "OPENAI_BASE_URL";
 
 	private final String model;
 	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private final ProviderClient<OpenAiChatModel> client;
 
 	public OpenAIEngine() {
 		this(DEFAULT_MODEL);
 	}
 
 	public OpenAIEngine(String model) {
+		this(model, null);
+	}
+
+	/**
+	 * @param baseUrl API root, e.g. a proxy or a local {@link org.promptunit.stub.StubLLMServer}; null
+	 *                for {@value #BASE_URL} if set, otherwise the public OpenAI endpoint
+	 */
+	public OpenAIEngine(String model, String baseUrl) {
+		this(model, baseUrl, null);
+	}
+
+	/**
+	 * @param apiKey key sent to the provider; null for {@value #API_KEY}. Local stub servers accept any
+	 *               key.
+	 */
+	public OpenAIEngine(String model, String baseUrl, String apiKey) {
 		this.model = model;
+		String url = ProviderClient.baseUrl(baseUrl, BASE_URL);
+		this.client = new ProviderClient<>("OpenAI", httpClient -> {
+			OpenAiApi.Builder api = OpenAiApi.builder()
+					.apiKey(apiKey != null ? apiKey : ApiKeyAccess.getApiKey(API_KEY))
+					.restClientBuilder(ProviderClient.restClientBuilder(httpClient))
+					.webClientBuilder(ProviderClient.webClientBuilder(httpClient))
+					.responseErrorHandler(ProviderErrors.httpErrorHandler("OpenAI"));
+			if (url != null) api.baseUrl(url);
+			return OpenAiChatModel.builder().openAiApi(api.build()).retryTemplate(ProviderErrors.noRetry()).build();
+		});
 	}
 
 	@Override
@@ -51,44 +88,14 @@ public class OpenAIEngine implements LLMEngine, LLMEngineInfo {
 
 	@Override
 	public PromptResult invokeOnce(PromptInstance promptInstance, long timeoutMs) {
-		final String apiKey = ApiKeyAccess.getApiKey(API_KEY);
-		if (promptInstance.provider() != null && !promptInstance.provider().equals(provider())) {
-			throw new IllegalArgumentException("Invalid provider " + promptInstance.provider() + "; expected " + provider());
-		}
-
-		final String effectiveModel = promptInstance.model() != null && !promptInstance.model().isBlank() ? promptInstance.model() : this.model;
+		final OpenAiChatModel chatModel = client.get();
+		validateProvider(promptInstance);
 
 		try {
-			OpenAiApi openAiApi = OpenAiApi.builder().apiKey(apiKey).build();
-			OpenAiChatModel chatModel = OpenAiChatModel.builder().openAiApi(openAiApi).build();
-
-			OpenAiChatOptions.Builder optionsBuilder = OpenAiChatOptions.builder().model(effectiveModel);
-			if (promptInstance.temperature() != null) {
-				optionsBuilder.temperature(promptInstance.temperature());
-			}
-			if (promptInstance.topP() != null) {
-				optionsBuilder.topP(promptInstance.topP());
-			}
-			if (promptInstance.maxTokens() != null) {
-				optionsBuilder.maxTokens(promptInstance.maxTokens());
-			}
-
-			// Configure response format based on schema presence and model capability
-			if (promptInstance.outputSchema() != null && promptInstance.outputSchema().isPresent()) {
-				ResponseFormat responseFormat;
-				if (supportsJsonSchemaResponseFormat(effectiveModel)) {
-					responseFormat = buildOpenAIResponseFormat(promptInstance.outputSchema().get().jsonSchema());
-				} else {
-					// Fallback to simple JSON object mode for models without structured outputs support
-					responseFormat = ResponseFormat.builder().type(ResponseFormat.Type.JSON_OBJECT).build();
-				}
-				optionsBuilder.responseFormat(responseFormat);
-			}
-
-			Prompt prompt = new Prompt(promptInstance.conversation(), optionsBuilder.build());
+			Prompt prompt = buildPrompt(promptInstance, false);
 
 			long startNs = System.nanoTime();
-			ChatResponse response = chatModel.call(prompt);
+			ChatResponse response = RequestDeadline.callWithin(timeoutMs, () -> chatModel.call(prompt));
 			long endNs = System.nanoTime();
 
             String output;
@@ -99,20 +106,89 @@ public class OpenAIEngine implements LLMEngine, LLMEngineInfo {
 			}
 
 			long latencyMs = TimeUnit.NANOSECONDS.toMillis(endNs - startNs);
-			int tokenUsage = PromptResult.UNKNOWN_TOKENS_USED;
+			TokenUsage usage = ChatUsage.from(response);
+			double cost = ChatUsage.cost(provider(), effectiveModel(promptInstance), response, usage);
 
             // Map tool calls if present via Spring AI models
             List<org.promptunit.tools.ToolCall> toolCalls = org.promptunit.providers.util.SpringAiToolCallMapper
                     .fromAssistantMessage(response.getResult().getOutput(), objectMapper);
 
-            return new PromptResult(output, latencyMs, PromptResult.UNKNOWN_COST, tokenUsage, promptInstance, this, toolCalls);
-		} catch (LLMInvocationException e) {
+            return new PromptResult(output, latencyMs, cost, usage.totalTokens(), promptInstance, this, toolCalls, null, usage);
+		} catch (LLMInvocationException | LLMTimeoutException e) {
 			throw e;
 		} catch (Exception e) {
 			throw new LLMInvocationException("Error invoking OpenAI: " + e.getMessage(), e);
 		}
 	}
 
+	@Override
+	public PromptResult invokeStreaming(PromptInstance promptInstance, long timeoutMs, Consumer<String> tokenConsumer) {
+		final OpenAiChatModel chatModel = client.get();
+		validateProvider(promptInstance);
+
+		try {
+			Prompt prompt = buildPrompt(promptInstance, true);
+			StreamedResponse streamed = RequestDeadline.callWithin(timeoutMs,
+					() -> StreamingChatSupport.collect(chatModel.stream(prompt), timeoutMs, tokenConsumer, objectMapper));
+			TokenUsage usage = ChatUsage.from(streamed.lastResponse());
+			double cost = ChatUsage.cost(provider(), effectiveModel(promptInstance), streamed.lastResponse(), usage);
+			return new PromptResult(streamed.text(), streamed.metrics().totalMs(), cost, usage.totalTokens(),
+					promptInstance, this, streamed.toolCalls(), streamed.metrics(), usage);
+		} catch (LLMInvocationException | LLMTimeoutException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new LLMInvocationException("Error streaming from OpenAI: " + e.getMessage(), e);
+		}
+	}
+
+	private void validateProvider(PromptInstance promptInstance) {
+		if (promptInstance.provider() != null && !promptInstance.provider().equals(provider())) {
+			throw new IllegalArgumentException("Invalid provider " + promptInstance.provider() + "; expected " + provider());
+		}
+	}
+
+	private String effectiveModel(PromptInstance promptInstance) {
+		return promptInstance.model() != null && !promptInstance.model().isBlank() ? promptInstance.model() : this.model;
+	}
+
+	private Prompt buildPrompt(PromptInstance promptInstance, boolean streaming) {
+		final String effectiveModel = effectiveModel(promptInstance);
+
+		OpenAiChatOptions.Builder optionsBuilder = OpenAiChatOptions.builder().model(effectiveModel);
+		if (promptInstance.temperature() != null) {
+			optionsBuilder.temperature(promptInstance.temperature());
+		}
+		if (promptInstance.topP() != null) {
+			optionsBuilder.topP(promptInstance.topP());
+		}
+		if (promptInstance.maxTokens() != null) {
+			optionsBuilder.maxTokens(promptInstance.maxTokens());
+		}
+		if (streaming) {
+			// OpenAI only reports usage on a stream when asked to, in a final chunk
+			optionsBuilder.streamUsage(true);
+		}
+
+		// Configure response format based on schema presence and model capability
+		if (promptInstance.outputSchema() != null && promptInstance.outputSchema().isPresent()) {
+			ResponseFormat responseFormat;
+			if (supportsJsonSchemaResponseFormat(effectiveModel)) {
+				responseFormat = buildOpenAIResponseFormat(promptInstance.outputSchema().get().jsonSchema());
+			} else {
+				// Fallback to simple JSON object mode for models without structured outputs support
+				responseFormat = ResponseFormat.builder().type(ResponseFormat.Type.JSON_OBJECT).build();
+			}
+			optionsBuilder.responseFormat(responseFormat);
+		}
+
+		return new Prompt(promptInstance.conversation(), optionsBuilder.build());
+	}
+
+	@Override
+	public void close() {
+		client.close();
+	}
+
 	private boolean supportsJsonSchemaResponseFormat(String modelName) {
 		if (modelName == null) return false;
 		String m = modelName.trim().toLowerCase();
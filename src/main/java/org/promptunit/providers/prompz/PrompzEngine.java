@@ -2,18 +2,25 @@ package org.promptunit.providers.prompz;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.util.List;
 import org.promptunit.LLMEngine;
 import org.promptunit.LLMEngineInfo;
+import org.promptunit.LLMHttpException;
 import org.promptunit.LLMInvocationException;
 import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.OutputSchema;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
+import org.promptunit.engine.TransientFailures;
+import org.springframework.ai.chat.messages.Message;
 
 public class PrompzEngine implements LLMEngine, LLMEngineInfo {
 
@@ -41,7 +48,7 @@ public class PrompzEngine implements LLMEngine, LLMEngineInfo {
 	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
 		try {
 			// Serialize the PromptInstance to JSON
-			String requestBody = objectMapper.writeValueAsString(instance);
+			String requestBody = objectMapper.writeValueAsString(requestBody(instance));
 
 			// Build the HTTP request
 			HttpRequest request = HttpRequest.newBuilder()
@@ -56,7 +63,10 @@ public class PrompzEngine implements LLMEngine, LLMEngineInfo {
 
 			// Check for HTTP errors
 			if (response.statusCode() < 200 || response.statusCode() >= 300) {
-				throw new LLMInvocationException("HTTP error " + response.statusCode() + ": " + response.body());
+				throw new LLMHttpException("HTTP error " + response.statusCode() + ": " + response.body(), response.statusCode(),
+						TransientFailures.parseRetryAfter(
+								response.headers().firstValue("retry-after-ms").orElse(null),
+								response.headers().firstValue("Retry-After").orElse(null)).orElse(null));
 			}
 
 			// Parse the response body as PromptResultDAO
@@ -76,6 +86,8 @@ public class PrompzEngine implements LLMEngine, LLMEngineInfo {
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 			throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms", e);
+		} catch (HttpTimeoutException e) {
+			throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms", e);
 		} catch (LLMTimeoutException | LLMInvocationException e) {
 			// Re-throw our custom exceptions as-is
 			throw e;
@@ -84,6 +96,28 @@ public class PrompzEngine implements LLMEngine, LLMEngineInfo {
 		}
 	}
 
+	/**
+	 * The PromptInstance as JSON, written field by field: a plain ObjectMapper cannot serialize its
+	 * Optional schema.
+	 */
+	private ObjectNode requestBody(PromptInstance instance) {
+		ObjectNode body = objectMapper.createObjectNode();
+		ArrayNode conversation = body.putArray("conversation");
+		for (Message message : instance.conversation()) {
+			conversation.addObject()
+					.put("messageType", message.getMessageType().name())
+					.put("text", message.getText());
+		}
+		body.put("model", instance.model());
+		body.put("provider", instance.provider());
+		body.put("temperature", instance.temperature());
+		body.put("topP", instance.topP());
+		body.put("maxTokens", instance.maxTokens());
+		body.put("outputSchema", instance.outputSchema() != null
+				? instance.outputSchema().map(OutputSchema::jsonSchema).orElse(null) : null);
+		return body;
+	}
+
 	@Override
 	public String provider() {
 		return "Promtz";
@@ -0,0 +1,84 @@
+package org.promptunit.providers.util;
+
+import java.lang.reflect.Method;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+import org.promptunit.pricing.PriceTables;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+
+/**
+ * Reads token usage from Spring AI {@link ChatResponse} metadata and prices it with the current
+ * {@link PriceTables price table}.
+ * <p>
+ * Cached prompt tokens are only exposed on the provider-native usage object, so they are read
+ * reflectively, as {@link SpringAiToolCallMapper} does for tool calls: OpenAI reports them under
+ * {@code promptTokensDetails().cachedTokens()} as part of the prompt tokens, Anthropic reports
+ * {@code cacheReadInputTokens()} and {@code cacheCreationInputTokens()} in addition to them. Both are
+ * added to the prompt tokens; cache writes are kept apart so they are priced at the cache-write rate.
+ */
+public final class ChatUsage {
+	private ChatUsage() {}
+
+	public static TokenUsage from(ChatResponse response) {
+		ChatResponseMetadata metadata = response != null ? response.getMetadata() : null;
+		Usage usage = metadata != null ? metadata.getUsage() : null;
+		if (usage == null || usage.getPromptTokens() == null || usage.getCompletionTokens() == null) {
+			return TokenUsage.UNKNOWN;
+		}
+		int prompt = usage.getPromptTokens();
+		int completion = usage.getCompletionTokens();
+		if (prompt == 0 && completion == 0) {
+			// Spring AI reports an empty usage when the provider sent none
+			return TokenUsage.UNKNOWN;
+		}
+		Object nativeUsage = usage.getNativeUsage();
+		int cached = 0;
+		int cacheWrite = 0;
+		Integer openAiCached = intAt(nativeUsage, "promptTokensDetails", "cachedTokens");
+		if (openAiCached != null) {
+			cached = openAiCached;
+		} else {
+			Integer cacheRead = intAt(nativeUsage, "cacheReadInputTokens");
+			Integer cacheCreation = intAt(nativeUsage, "cacheCreationInputTokens");
+			if (cacheRead != null) {
+				cached = cacheRead;
+				prompt += cacheRead;
+			}
+			if (cacheCreation != null) {
+				cacheWrite = cacheCreation;
+				prompt += cacheCreation;
+			}
+		}
+		return new TokenUsage(prompt, completion, cached, cacheWrite);
+	}
+
+	/**
+	 * Cost of {@code usage}, priced for the model the provider reports having served, falling back to
+	 * {@code requestedModel}.
+	 */
+	public static double cost(String provider, String requestedModel, ChatResponse response, TokenUsage usage) {
+		String servedModel = response != null && response.getMetadata() != null ? response.getMetadata().getModel() : null;
+		String model = servedModel != null && !servedModel.isBlank() ? servedModel : requestedModel;
+		double cost = PriceTables.current().cost(provider, model, usage);
+		if (cost < 0 && servedModel != null && !servedModel.equals(requestedModel)) {
+			cost = PriceTables.current().cost(provider, requestedModel, usage);
+		}
+		return cost < 0 ? PromptResult.UNKNOWN_COST : cost;
+	}
+
+	private static Integer intAt(Object target, String... accessors) {
+		Object current = target;
+		try {
+			for (String accessor : accessors) {
+				if (current == null) return null;
+				Method m = current.getClass().getMethod(accessor);
+				current = m.invoke(current);
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+		return current instanceof Number n ? n.intValue() : null;
+	}
+}
@@ -0,0 +1,51 @@
+package org.promptunit.providers.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.promptunit.execution.AsyncExecution;
+import org.promptunit.execution.Deadline;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * Request factory over a shared {@link HttpClient} that gives every request the time remaining until
+ * the {@link RequestDeadline} of the calling thread as its timeout. On expiry the JDK client cancels
+ * the exchange, so a hung provider no longer pins a pooled connection. Requests made outside a
+ * deadline get no timeout, as before.
+ */
+public final class DeadlineAwareRequestFactory implements ClientHttpRequestFactory {
+
+	private final HttpClient httpClient;
+	private final Executor executor;
+	private final JdkClientHttpRequestFactory unbounded;
+
+	public DeadlineAwareRequestFactory(HttpClient httpClient) {
+		this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
+		this.executor = AsyncExecution.executor();
+		this.unbounded = new JdkClientHttpRequestFactory(httpClient, executor);
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		Optional<Deadline> deadline = RequestDeadline.current().filter(d -> !d.isUnbounded());
+		if (deadline.isEmpty()) {
+			return unbounded.createRequest(uri, httpMethod);
+		}
+		long remainingNanos = deadline.get().remainingNanos();
+		if (remainingNanos <= 0) {
+			throw new HttpTimeoutException("Deadline expired before request to " + uri + " was sent");
+		}
+		// The JDK factory applies its timeout to every request it creates, so use one per request
+		JdkClientHttpRequestFactory bounded = new JdkClientHttpRequestFactory(httpClient, executor);
+		bounded.setReadTimeout(Duration.ofNanos(remainingNanos));
+		return bounded.createRequest(uri, httpMethod);
+	}
+}
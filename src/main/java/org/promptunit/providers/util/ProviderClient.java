@@ -0,0 +1,127 @@
+package org.promptunit.providers.util;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.promptunit.env.DotenvEnvironmentUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Engine-scoped holder for a provider client (e.g. a Spring AI chat model) and the keep-alive
+ * {@link HttpClient} it talks through.
+ * <p>
+ * The client is created lazily on the first {@link #get()} and then reused by every invocation,
+ * so connection setup and TLS handshakes are paid once per engine rather than once per call.
+ * Instances are thread-safe; {@link #close()} releases the pooled connections.
+ */
+public final class ProviderClient<T> implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(ProviderClient.class);
+
+	public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+	private final String providerName;
+	private final Function<HttpClient, T> factory;
+	private final Duration connectTimeout;
+
+	private volatile T client;
+	private HttpClient httpClient;
+	private boolean closed;
+	private long initializationNanos = -1;
+
+	public ProviderClient(String providerName, Function<HttpClient, T> factory) {
+		this(providerName, factory, DEFAULT_CONNECT_TIMEOUT);
+	}
+
+	public ProviderClient(String providerName, Function<HttpClient, T> factory, Duration connectTimeout) {
+		this.providerName = Objects.requireNonNull(providerName, "providerName");
+		this.factory = Objects.requireNonNull(factory, "factory");
+		this.connectTimeout = Objects.requireNonNull(connectTimeout, "connectTimeout");
+	}
+
+	public T get() {
+		T c = client;
+		if (c != null) return c;
+		synchronized (this) {
+			if (closed) throw new IllegalStateException(providerName + " client has been closed");
+			if (client == null) {
+				long startNs = System.nanoTime();
+				HttpClient http = HttpClient.newBuilder()
+						.connectTimeout(connectTimeout)
+						.followRedirects(HttpClient.Redirect.NORMAL)
+						.build();
+				try {
+					T created = factory.apply(http);
+					httpClient = http;
+					initializationNanos = System.nanoTime() - startNs;
+					client = created;
+					log.debug("Initialized {} client in {} ms", providerName, TimeUnit.NANOSECONDS.toMillis(initializationNanos));
+				} catch (RuntimeException e) {
+					http.close();
+					throw e;
+				}
+			}
+			return client;
+		}
+	}
+
+	public synchronized HttpClient httpClient() {
+		get();
+		return httpClient;
+	}
+
+	public synchronized boolean isInitialized() {
+		return client != null;
+	}
+
+	/**
+	 * Time spent creating the client on first use, or -1 if it has not been created yet.
+	 * This is the per-call overhead the engines used to pay before clients were reused.
+	 */
+	public synchronized long initializationNanos() {
+		return initializationNanos;
+	}
+
+	/**
+	 * {@code baseUrl} if given, else the value of environment variable {@code envVar}, else null for
+	 * the provider's default endpoint. A trailing slash is dropped.
+	 */
+	public static String baseUrl(String baseUrl, String envVar) {
+		String url = baseUrl != null && !baseUrl.isBlank() ? baseUrl : DotenvEnvironmentUtil.getEnvVarStringValue(envVar);
+		if (url == null || url.isBlank()) return null;
+		url = url.trim();
+		return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+	}
+
+	/**
+	 * {@link RestClient.Builder} backed by the shared {@link HttpClient}, for blocking provider APIs.
+	 * Requests honour the caller's {@link RequestDeadline}.
+	 */
+	public static RestClient.Builder restClientBuilder(HttpClient httpClient) {
+		return RestClient.builder().requestFactory(new DeadlineAwareRequestFactory(httpClient));
+	}
+
+	/**
+	 * {@link WebClient.Builder} backed by the shared {@link HttpClient}, for streaming provider APIs.
+	 * Streams are bounded by {@link StreamingChatSupport}, which cancels the exchange at the deadline.
+	 */
+	public static WebClient.Builder webClientBuilder(HttpClient httpClient) {
+		return WebClient.builder().clientConnector(new JdkClientHttpConnector(httpClient));
+	}
+
+	@Override
+	public synchronized void close() {
+		if (closed) return;
+		closed = true;
+		client = null;
+		if (httpClient != null) {
+			httpClient.close();
+			httpClient = null;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.promptunit.providers.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import org.promptunit.LLMHttpException;
+import org.promptunit.engine.TransientFailures;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.ResponseErrorHandler;
+
+/**
+ * Error handling shared by the Spring AI engines. Retries belong to
+ * {@link org.promptunit.engine.ResilientLLMEngine}, which shares one deadline across attempts, so the
+ * chat models are built without Spring AI's own retries. HTTP errors surface as
+ * {@link LLMHttpException} with the status and {@code Retry-After} hint, which Spring AI's default
+ * handler drops.
+ */
+public final class ProviderErrors {
+	private ProviderErrors() {}
+
+	/** A template that makes exactly one attempt and rethrows its failure unchanged. */
+	public static RetryTemplate noRetry() {
+		return RetryTemplate.builder().maxAttempts(1).build();
+	}
+
+	public static ResponseErrorHandler httpErrorHandler(String providerName) {
+		return new ResponseErrorHandler() {
+			@Override
+			public boolean hasError(ClientHttpResponse response) throws IOException {
+				return response.getStatusCode().isError();
+			}
+
+			@Override
+			public void handleError(URI url, HttpMethod method, ClientHttpResponse response) throws IOException {
+				int status = response.getStatusCode().value();
+				String body = new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+				HttpHeaders headers = response.getHeaders();
+				throw new LLMHttpException(providerName + " HTTP error " + status + ": " + body, status,
+						TransientFailures.parseRetryAfter(headers.getFirst("retry-after-ms"), headers.getFirst("Retry-After"))
+								.orElse(null));
+			}
+		};
+	}
+}
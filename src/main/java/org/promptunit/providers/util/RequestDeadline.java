@@ -0,0 +1,115 @@
+package org.promptunit.providers.util;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.execution.Deadline;
+
+/**
+ * Carries the caller's deadline into a blocking provider call made on the same thread.
+ * <p>
+ * While a call runs inside {@link #callWithin}, {@link DeadlineAwareRequestFactory} gives each HTTP
+ * request the remaining time as its timeout, so the HTTP client itself abandons the exchange and
+ * releases the connection. As a backstop, a watchdog interrupts the calling thread when the deadline
+ * passes, which also cuts short client-side retry backoff and stalled body reads.
+ */
+public final class RequestDeadline {
+
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+	private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+
+	private RequestDeadline() {}
+
+	public static Optional<Deadline> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	/**
+	 * Runs {@code call} with a deadline of {@code timeoutMs} from now.
+	 *
+	 * @throws LLMTimeoutException if the deadline passes before {@code call} completes
+	 */
+	public static <T> T callWithin(long timeoutMs, Supplier<T> call) {
+		Deadline deadline = Deadline.afterMillis(timeoutMs);
+		if (deadline.isExpired()) {
+			throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms");
+		}
+		Deadline previous = CURRENT.get();
+		CURRENT.set(deadline);
+		Watch watch = deadline.isUnbounded() ? null : new Watch(Thread.currentThread(), deadline);
+		try {
+			return call.get();
+		} catch (RuntimeException e) {
+			boolean fired = watch != null && watch.fired();
+			if (fired || isTimeout(e)) {
+				throw new LLMTimeoutException("LLM invocation timed out after " + timeoutMs + "ms", e);
+			}
+			throw e;
+		} finally {
+			if (watch != null) watch.stop();
+			if (previous != null) CURRENT.set(previous);
+			else CURRENT.remove();
+		}
+	}
+
+	/** True if {@code e} or one of its causes signals an expired timeout. */
+	public static boolean isTimeout(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof HttpTimeoutException || t instanceof SocketTimeoutException
+					|| t instanceof TimeoutException || t instanceof LLMTimeoutException) {
+				return true;
+			}
+			if (t.getCause() == t) break;
+		}
+		return false;
+	}
+
+	private static ScheduledThreadPoolExecutor createWatchdog() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread t = new Thread(r, "promptunit-deadline-watchdog");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+
+	private static final class Watch {
+		private final Thread thread;
+		private final ScheduledFuture<?> task;
+		private boolean done;
+		private boolean fired;
+
+		private Watch(Thread thread, Deadline deadline) {
+			this.thread = thread;
+			this.task = WATCHDOG.schedule(this::fire, deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+		}
+
+		private synchronized void fire() {
+			if (done) return;
+			fired = true;
+			thread.interrupt();
+		}
+
+		private synchronized boolean fired() {
+			return fired;
+		}
+
+		private void stop() {
+			task.cancel(false);
+			boolean interrupted;
+			synchronized (this) {
+				done = true;
+				interrupted = fired;
+			}
+			// The interrupt was ours; don't leak it into the caller's next blocking operation
+			if (interrupted) Thread.interrupted();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package org.promptunit.providers.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.StreamingMetrics;
+import org.promptunit.tools.ToolCall;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
+/**
+ * Drains a Spring AI {@code ChatModel.stream(...)} flux, blocking the calling thread until it completes
+ * or the timeout for the whole stream passes.
+ * Each text chunk is forwarded to a consumer (on the provider's I/O thread) and its arrival time is
+ * recorded for first-token and inter-token metrics.
+ */
+public final class StreamingChatSupport {
+	private StreamingChatSupport() {}
+
+	/**
+	 * Aggregated outcome of a streamed call.
+	 *
+	 * @param lastResponse the final chunk, which is where providers report usage metadata; may be null
+	 */
+	public record StreamedResponse(String text, List<ToolCall> toolCalls, ChatResponse lastResponse, StreamingMetrics metrics) {}
+
+	public static StreamedResponse collect(Flux<ChatResponse> stream,
+	                                       long timeoutMs,
+	                                       Consumer<String> tokenConsumer,
+	                                       ObjectMapper mapper) {
+		StreamingMetrics.Recorder recorder = StreamingMetrics.recorder();
+		StringBuilder text = new StringBuilder();
+		AtomicReference<ChatResponse> last = new AtomicReference<>();
+		AtomicReference<List<ToolCall>> toolCalls = new AtomicReference<>(List.of());
+
+		try {
+			Flux<ChatResponse> flux = stream.doOnNext(chunk -> {
+				last.set(chunk);
+				AssistantMessage output = chunk.getResult() != null ? chunk.getResult().getOutput() : null;
+				if (output == null) return;
+				String piece = output.getText();
+				if (piece != null && !piece.isEmpty()) {
+					recorder.onChunk();
+					text.append(piece);
+					if (tokenConsumer != null) tokenConsumer.accept(piece);
+				}
+				List<ToolCall> mapped = SpringAiToolCallMapper.fromAssistantMessage(output, mapper);
+				if (mapped != null && !mapped.isEmpty()) toolCalls.set(mapped);
+			});
+			// Bounds the whole stream, not the gaps between chunks as Flux.timeout would; on expiry
+			// the subscription is cancelled, which closes the connection
+			if (hasDeadline(timeoutMs)) flux.blockLast(Duration.ofMillis(timeoutMs));
+			else flux.blockLast();
+		} catch (RuntimeException e) {
+			if (isTimeout(e)) {
+				throw new LLMTimeoutException("LLM streaming invocation timed out after " + timeoutMs + "ms", e);
+			}
+			throw e;
+		}
+
+		return new StreamedResponse(text.toString(), toolCalls.get(), last.get(), recorder.finish());
+	}
+
+	static boolean hasDeadline(long timeoutMs) {
+		// Durations beyond this overflow when Reactor converts them to nanoseconds
+		return timeoutMs > 0 && timeoutMs < Long.MAX_VALUE / 1_000_000L;
+	}
+
+	private static boolean isTimeout(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof TimeoutException) return true;
+			if (t.getCause() == t) break;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,122 @@
+package org.promptunit.recording;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.core.PromptFingerprint;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.StreamingMetrics;
+import org.promptunit.engine.ForwardingLLMEngine;
+
+/**
+ * Record/replay decorator: responses are keyed on {@link PromptFingerprint} and persisted in a
+ * {@link ResponseStore}, so repeated runs of the same prompts can be served offline.
+ * <p>
+ * Replayed results keep their recorded output, tool calls and metrics (including latency) and are
+ * re-attached to the current {@link PromptInstance} and to this engine as {@code engineInfo}, so
+ * every {@code PromptResultAssert} check behaves as it did against the live provider.
+ * Note that every invocation of the same prompt replays the same recording, so sampling a
+ * non-deterministic prompt through this engine yields identical samples.
+ */
+public class CachingLLMEngine extends ForwardingLLMEngine {
+
+	private final ResponseStore store;
+	private final RecordMode mode;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder recordings = new LongAdder();
+
+	public CachingLLMEngine(LLMEngine delegate, ResponseStore store, RecordMode mode) {
+		super(delegate);
+		this.store = Objects.requireNonNull(store, "store");
+		this.mode = Objects.requireNonNull(mode, "mode");
+	}
+
+	public RecordMode mode() {
+		return mode;
+	}
+
+	@Override
+	public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+		String fingerprint = fingerprint(instance);
+		Optional<PromptResult> replayed = replay(fingerprint, instance);
+		if (replayed.isPresent()) return replayed.get();
+		return record(fingerprint, delegate.invokeOnce(instance, timeoutMs));
+	}
+
+	/**
+	 * Replayed results are delivered to {@code tokenConsumer} as a single chunk and keep the streaming
+	 * metrics they were recorded with, if any.
+	 */
+	@Override
+	public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+		String fingerprint = fingerprint(instance);
+		Optional<PromptResult> replayed = replay(fingerprint, instance);
+		if (replayed.isPresent()) {
+			PromptResult result = replayed.get();
+			if (tokenConsumer != null && result.rawOutput() != null && !result.rawOutput().isEmpty()) {
+				tokenConsumer.accept(result.rawOutput());
+			}
+			return result.streamingMetrics() != null
+					? result
+					: result.withStreamingMetrics(StreamingMetrics.singleChunk(result.latencyMs()));
+		}
+		return record(fingerprint, delegate.invokeStreaming(instance, timeoutMs, tokenConsumer));
+	}
+
+	/**
+	 * Prompts that leave the provider or model to the engine are keyed on the delegate's, so engines
+	 * for different models can share a store without replaying each other's responses.
+	 */
+	private String fingerprint(PromptInstance instance) {
+		if (instance.provider() != null && instance.model() != null) return PromptFingerprint.of(instance);
+		return PromptFingerprint.of(instance.withProviderAndModel(
+				instance.provider() != null ? instance.provider() : delegate.provider(),
+				instance.model() != null ? instance.model() : delegate.model()));
+	}
+
+	private Optional<PromptResult> replay(String fingerprint, PromptInstance instance) {
+		if (mode == RecordMode.RECORD) return Optional.empty();
+		Optional<RecordedResult> recorded = store.find(fingerprint);
+		if (recorded.isPresent()) {
+			hits.increment();
+			return Optional.of(recorded.get().toPromptResult(instance, this));
+		}
+		misses.increment();
+		if (mode == RecordMode.REPLAY) {
+			throw new LLMInvocationException("No recording for prompt " + fingerprint + " in replay mode");
+		}
+		return Optional.empty();
+	}
+
+	private PromptResult record(String fingerprint, PromptResult live) {
+		store.put(fingerprint, RecordedResult.from(live));
+		recordings.increment();
+		return live;
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	public long recordCount() {
+		return recordings.sum();
+	}
+
+	@Override
+	public void close() {
+		try {
+			store.close();
+		} finally {
+			super.close();
+		}
+	}
+}
@@ -0,0 +1,430 @@
+package org.promptunit.recording;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only "cassette" of recorded results that scales to millions of entries without holding
+ * them on the heap.
+ * <p>
+ * A cassette is two files:
+ * <ul>
+ * <li>{@code <name>.seg} — the data segment. Records are only ever appended:
+ * {@code [int magic][32-byte key][int length][JSON payload][int crc32]}. Re-recording a prompt appends
+ * a new record; the old one becomes garbage until {@link #compact()}.</li>
+ * <li>{@code <name>.idx} — a memory-mapped open-addressing hash table from the 32-byte key to the
+ * record's offset in the segment. Lookups touch one or two slots and read a single record with a
+ * positional read, so the segment is never loaded as a whole.</li>
+ * </ul>
+ * Keys are the SHA-256 {@link org.promptunit.core.PromptFingerprint}; other strings are hashed.
+ * <p>
+ * Lookups from many threads run concurrently; appends, resizes and compaction are exclusive. The
+ * index records how much of the segment it covers, so records appended before a crash but not yet
+ * indexed are re-indexed on open, and a torn trailing record is truncated.
+ * A single index file holds about 23 million entries: it is mapped as one buffer of at most 2 GB,
+ * which fits 2^25 slots, and is resized once 70% of them are used.
+ */
+public class CassetteResponseStore implements ResponseStore {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private static final int SEGMENT_MAGIC = 0x50554353; // "PUCS"
+	private static final int INDEX_MAGIC = 0x50554349;   // "PUCI"
+	private static final int RECORD_MAGIC = 0x52454331;  // "REC1"
+	private static final int VERSION = 1;
+
+	private static final int SEGMENT_HEADER = 8;
+	private static final int KEY_BYTES = 32;
+	private static final int RECORD_OVERHEAD = 4 + KEY_BYTES + 4 + 4;
+
+	private static final int INDEX_HEADER = 64;
+	private static final int SLOT_BYTES = KEY_BYTES + 8;
+	private static final int HDR_CAPACITY = 8;
+	private static final int HDR_SIZE = 12;
+	private static final int HDR_INDEXED_LENGTH = 16;
+	private static final int DEFAULT_CAPACITY = 1 << 12;
+	private static final double MAX_LOAD = 0.7;
+
+	private final Path segmentPath;
+	private final Path indexPath;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private FileChannel segment;
+	private long segmentLength;
+	private MappedByteBuffer index;
+	private int capacity;
+	private int size;
+	private boolean closed;
+
+	public CassetteResponseStore(Path directory, String name) {
+		Objects.requireNonNull(directory, "directory");
+		Objects.requireNonNull(name, "name");
+		this.segmentPath = directory.resolve(name + ".seg");
+		this.indexPath = directory.resolve(name + ".idx");
+		try {
+			Files.createDirectories(directory);
+			open();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to open cassette " + segmentPath, e);
+		}
+	}
+
+	@Override
+	public Optional<RecordedResult> find(String fingerprint) {
+		long[] key = keyOf(fingerprint);
+		lock.readLock().lock();
+		try {
+			ensureOpen();
+			int slot = probe(key);
+			long stored = index.getLong(slotOffset(slot) + KEY_BYTES);
+			if (stored == 0) return Optional.empty();
+			return Optional.of(readRecord(stored - 1));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read from cassette " + segmentPath, e);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(String fingerprint, RecordedResult result) {
+		long[] key = keyOf(fingerprint);
+		byte[] payload;
+		try {
+			payload = objectMapper.writeValueAsBytes(result);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to serialize recording", e);
+		}
+		lock.writeLock().lock();
+		try {
+			ensureOpen();
+			long offset = segmentLength;
+			ByteBuffer record = encodeRecord(key, payload);
+			while (record.hasRemaining()) {
+				segment.write(record, offset + record.position());
+			}
+			segmentLength = offset + record.limit();
+			indexRecord(key, offset);
+			index.putLong(HDR_INDEXED_LENGTH, segmentLength);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to append to cassette " + segmentPath, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/** Number of distinct fingerprints stored. */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** Current length of the data segment in bytes, including superseded records. */
+	public long segmentBytes() {
+		lock.readLock().lock();
+		try {
+			return segmentLength;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Rewrites the segment keeping only the latest record per fingerprint, then rebuilds the index.
+	 *
+	 * @return the number of bytes reclaimed
+	 */
+	public long compact() {
+		lock.writeLock().lock();
+		try {
+			ensureOpen();
+			long before = segmentLength;
+			Path tmpSegment = segmentPath.resolveSibling(segmentPath.getFileName() + ".compact");
+			try (FileChannel out = FileChannel.open(tmpSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeSegmentHeader(out);
+				long outLength = SEGMENT_HEADER;
+				for (int slot = 0; slot < capacity; slot++) {
+					long stored = index.getLong(slotOffset(slot) + KEY_BYTES);
+					if (stored == 0) continue;
+					ByteBuffer record = readRawRecord(stored - 1);
+					while (record.hasRemaining()) {
+						outLength += out.write(record, outLength);
+					}
+				}
+				out.force(true);
+			}
+			segment.close();
+			Files.move(tmpSegment, segmentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.deleteIfExists(indexPath);
+			open();
+			return before - segmentLength;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to compact cassette " + segmentPath, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/** Forces appended records and index updates to disk. */
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			ensureOpen();
+			segment.force(false);
+			index.force();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to flush cassette " + segmentPath, e);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			if (closed) return;
+			closed = true;
+			index.force();
+			segment.force(false);
+			segment.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to close cassette " + segmentPath, e);
+		} finally {
+			index = null;
+			lock.writeLock().unlock();
+		}
+	}
+
+	// --- Segment ---
+
+	private void open() throws IOException {
+		segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (segment.size() < SEGMENT_HEADER) {
+			segment.truncate(0);
+			writeSegmentHeader(segment);
+		} else {
+			ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+			segment.read(header, 0);
+			header.flip();
+			if (header.getInt() != SEGMENT_MAGIC || header.getInt() != VERSION) {
+				throw new IOException("Not a PromptUnit cassette segment: " + segmentPath);
+			}
+		}
+		segmentLength = segment.size();
+
+		long indexedLength = openIndex();
+		if (indexedLength < segmentLength) {
+			recoverTail(indexedLength);
+		}
+	}
+
+	private static void writeSegmentHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER).putInt(SEGMENT_MAGIC).putInt(VERSION).flip();
+		channel.write(header, 0);
+	}
+
+	/** Re-indexes records past {@code from}, truncating a torn or corrupt trailing record. */
+	private void recoverTail(long from) throws IOException {
+		long offset = from;
+		ByteBuffer head = ByteBuffer.allocate(4 + KEY_BYTES + 4);
+		while (offset + RECORD_OVERHEAD <= segmentLength) {
+			head.clear();
+			segment.read(head, offset);
+			head.flip();
+			if (head.getInt() != RECORD_MAGIC) break;
+			long[] key = {head.getLong(), head.getLong(), head.getLong(), head.getLong()};
+			int length = head.getInt();
+			if (length < 0 || offset + RECORD_OVERHEAD + length > segmentLength) break;
+			if (!checksumMatches(offset, length)) break;
+			indexRecord(key, offset);
+			offset += RECORD_OVERHEAD + length;
+		}
+		if (offset < segmentLength) {
+			segment.truncate(offset);
+			segmentLength = offset;
+		}
+		index.putLong(HDR_INDEXED_LENGTH, segmentLength);
+	}
+
+	private boolean checksumMatches(long offset, int length) throws IOException {
+		ByteBuffer body = ByteBuffer.allocate(KEY_BYTES + 4 + length + 4);
+		readFully(body, offset + 4);
+		CRC32 crc = new CRC32();
+		crc.update(body.array(), 0, KEY_BYTES + 4 + length);
+		return (int) crc.getValue() == body.getInt(KEY_BYTES + 4 + length);
+	}
+
+	private static ByteBuffer encodeRecord(long[] key, byte[] payload) {
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+		buf.putInt(RECORD_MAGIC);
+		for (long k : key) buf.putLong(k);
+		buf.putInt(payload.length);
+		buf.put(payload);
+		CRC32 crc = new CRC32();
+		crc.update(buf.array(), 4, KEY_BYTES + 4 + payload.length);
+		buf.putInt((int) crc.getValue());
+		return buf.flip();
+	}
+
+	private RecordedResult readRecord(long offset) throws IOException {
+		ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+		readFully(lengthBuf, offset + 4 + KEY_BYTES);
+		int length = lengthBuf.getInt(0);
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		readFully(payload, offset + 4 + KEY_BYTES + 4);
+		return objectMapper.readValue(payload.array(), RecordedResult.class);
+	}
+
+	private ByteBuffer readRawRecord(long offset) throws IOException {
+		ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+		readFully(lengthBuf, offset + 4 + KEY_BYTES);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + lengthBuf.getInt(0));
+		readFully(record, offset);
+		return record.flip();
+	}
+
+	private void readFully(ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			int n = segment.read(buf, position + buf.position());
+			if (n < 0) throw new IOException("Unexpected end of cassette segment " + segmentPath);
+		}
+	}
+
+	// --- Index ---
+
+	/** Maps (creating or rebuilding if necessary) the index; returns the segment length it covers. */
+	private long openIndex() throws IOException {
+		if (Files.exists(indexPath) && Files.size(indexPath) >= INDEX_HEADER) {
+			try (FileChannel ch = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+				int cap = mapped.getInt(HDR_CAPACITY);
+				long indexed = mapped.getLong(HDR_INDEXED_LENGTH);
+				boolean valid = mapped.getInt(0) == INDEX_MAGIC && mapped.getInt(4) == VERSION
+						&& Integer.bitCount(cap) == 1 && ch.size() == INDEX_HEADER + (long) cap * SLOT_BYTES
+						&& indexed >= SEGMENT_HEADER && indexed <= segmentLength;
+				if (valid) {
+					index = mapped;
+					capacity = cap;
+					size = mapped.getInt(HDR_SIZE);
+					return indexed;
+				}
+			}
+		}
+		index = createIndex(indexPath, DEFAULT_CAPACITY);
+		capacity = DEFAULT_CAPACITY;
+		size = 0;
+		return SEGMENT_HEADER;
+	}
+
+	private static MappedByteBuffer createIndex(Path path, int capacity) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * SLOT_BYTES);
+			mapped.putInt(0, INDEX_MAGIC);
+			mapped.putInt(4, VERSION);
+			mapped.putInt(HDR_CAPACITY, capacity);
+			mapped.putInt(HDR_SIZE, 0);
+			mapped.putLong(HDR_INDEXED_LENGTH, SEGMENT_HEADER);
+			return mapped;
+		}
+	}
+
+	private void indexRecord(long[] key, long offset) throws IOException {
+		if (size + 1 > capacity * MAX_LOAD) {
+			resize(capacity * 2);
+		}
+		int slot = probe(key);
+		int base = slotOffset(slot);
+		if (index.getLong(base + KEY_BYTES) == 0) {
+			for (int i = 0; i < 4; i++) index.putLong(base + i * 8, key[i]);
+			size++;
+			index.putInt(HDR_SIZE, size);
+		}
+		index.putLong(base + KEY_BYTES, offset + 1);
+	}
+
+	private void resize(int newCapacity) throws IOException {
+		if (INDEX_HEADER + (long) newCapacity * SLOT_BYTES > Integer.MAX_VALUE) {
+			throw new IOException("Cassette index is full: " + indexPath);
+		}
+		Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".resize");
+		MappedByteBuffer old = index;
+		int oldCapacity = capacity;
+		index = createIndex(tmp, newCapacity);
+		capacity = newCapacity;
+		for (int slot = 0; slot < oldCapacity; slot++) {
+			int base = INDEX_HEADER + slot * SLOT_BYTES;
+			long stored = old.getLong(base + KEY_BYTES);
+			if (stored == 0) continue;
+			long[] key = {old.getLong(base), old.getLong(base + 8), old.getLong(base + 16), old.getLong(base + 24)};
+			int target = slotOffset(probe(key));
+			for (int i = 0; i < 4; i++) index.putLong(target + i * 8, key[i]);
+			index.putLong(target + KEY_BYTES, stored);
+		}
+		index.putInt(HDR_SIZE, size);
+		index.putLong(HDR_INDEXED_LENGTH, old.getLong(HDR_INDEXED_LENGTH));
+		index.force();
+		Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/** Slot holding {@code key}, or the empty slot where it would be inserted (linear probing). */
+	private int probe(long[] key) {
+		int mask = capacity - 1;
+		int slot = (int) (key[0] ^ (key[0] >>> 32)) & mask;
+		while (true) {
+			int base = slotOffset(slot);
+			if (index.getLong(base + KEY_BYTES) == 0) return slot;
+			if (index.getLong(base) == key[0] && index.getLong(base + 8) == key[1]
+					&& index.getLong(base + 16) == key[2] && index.getLong(base + 24) == key[3]) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private static int slotOffset(int slot) {
+		return INDEX_HEADER + slot * SLOT_BYTES;
+	}
+
+	private static long[] keyOf(String fingerprint) {
+		byte[] bytes;
+		if (fingerprint != null && fingerprint.length() == KEY_BYTES * 2 && fingerprint.matches("[0-9a-f]+")) {
+			bytes = HexFormat.of().parseHex(fingerprint);
+		} else {
+			try {
+				bytes = MessageDigest.getInstance("SHA-256")
+						.digest(Objects.requireNonNull(fingerprint, "fingerprint").getBytes(StandardCharsets.UTF_8));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("SHA-256 not available", e);
+			}
+		}
+		ByteBuffer buf = ByteBuffer.wrap(bytes);
+		return new long[] {buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong()};
+	}
+
+	private void ensureOpen() {
+		if (closed) throw new IllegalStateException("Cassette " + segmentPath + " is closed");
+	}
+}
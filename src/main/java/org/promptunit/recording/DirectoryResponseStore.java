@@ -0,0 +1,74 @@
+package org.promptunit.recording;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Stores one pretty-printed JSON file per fingerprint, sharded by the first two hex characters
+ * ({@code <root>/ab/abcdef....json}), so recordings diff cleanly under version control.
+ * Writes go to a temporary file first and are moved into place, so concurrent readers never see a
+ * partially written recording.
+ */
+public class DirectoryResponseStore implements ResponseStore {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper()
+			.enable(SerializationFeature.INDENT_OUTPUT);
+
+	private final Path root;
+
+	public DirectoryResponseStore(Path root) {
+		this.root = Objects.requireNonNull(root, "root");
+	}
+
+	public Path root() {
+		return root;
+	}
+
+	@Override
+	public Optional<RecordedResult> find(String fingerprint) {
+		Path file = pathFor(fingerprint);
+		try {
+			return Optional.of(objectMapper.readValue(Files.readAllBytes(file), RecordedResult.class));
+		} catch (NoSuchFileException e) {
+			return Optional.empty();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read recording " + file, e);
+		}
+	}
+
+	@Override
+	public void put(String fingerprint, RecordedResult result) {
+		Path file = pathFor(fingerprint);
+		try {
+			Files.createDirectories(file.getParent());
+			Path tmp = Files.createTempFile(file.getParent(), fingerprint, ".tmp");
+			try {
+				Files.write(tmp, objectMapper.writeValueAsBytes(result));
+				try {
+					Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to write recording " + file, e);
+		}
+	}
+
+	private Path pathFor(String fingerprint) {
+		if (fingerprint == null || fingerprint.length() < 3 || !fingerprint.matches("[0-9a-f]+"))
+			throw new IllegalArgumentException("Invalid fingerprint: " + fingerprint);
+		return root.resolve(fingerprint.substring(0, 2)).resolve(fingerprint + ".json");
+	}
+}
@@ -0,0 +1,29 @@
+package org.promptunit.recording;
+
+import java.util.Locale;
+import org.promptunit.env.DotenvEnvironmentUtil;
+
+public enum RecordMode {
+	/** Always call the provider and overwrite any existing recording. */
+	RECORD,
+	/** Serve from recordings only; a missing recording is an error. Never calls the provider. */
+	REPLAY,
+	/** Serve from recordings when present, otherwise call the provider and record the response. */
+	RECORD_IF_MISSING;
+
+	public static final String ENV_VAR = "PROMPTUNIT_RECORD_MODE";
+
+	/**
+	 * The mode named by {@value #ENV_VAR} (environment or .env), or {@code fallback} when unset.
+	 * Lets CI pin {@code REPLAY} without touching test code.
+	 */
+	public static RecordMode fromEnvironment(RecordMode fallback) {
+		String value = DotenvEnvironmentUtil.getEnvVarStringValue(ENV_VAR);
+		if (value == null || value.isBlank()) return fallback;
+		try {
+			return RecordMode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid " + ENV_VAR + " value '" + value + "'; expected one of RECORD, REPLAY, RECORD_IF_MISSING", e);
+		}
+	}
+}
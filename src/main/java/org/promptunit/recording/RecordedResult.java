@@ -0,0 +1,42 @@
+package org.promptunit.recording;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import org.promptunit.LLMEngineInfo;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.StreamingMetrics;
+import org.promptunit.core.TokenUsage;
+import org.promptunit.tools.NormalizedToolCall;
+import org.promptunit.tools.ToolCall;
+
+/**
+ * Serializable snapshot of a {@link PromptResult}, without the prompt and engine references which
+ * are re-attached on replay.
+ */
+public record RecordedResult(
+		String rawOutput,
+		long latencyMs,
+		double cost,
+		int tokenUsage,
+		List<RecordedToolCall> toolCalls,
+		StreamingMetrics streamingMetrics,
+		TokenUsage usage
+) {
+
+	public record RecordedToolCall(String name, String version, JsonNode args) {}
+
+	public static RecordedResult from(PromptResult result) {
+		List<RecordedToolCall> calls = result.toolCalls() == null ? null : result.toolCalls().stream()
+				.map(tc -> new RecordedToolCall(tc.name(), tc.version().orElse(null), tc.args()))
+				.toList();
+		return new RecordedResult(result.rawOutput(), result.latencyMs(), result.cost(), result.tokenUsage(), calls, result.streamingMetrics(), result.usage());
+	}
+
+	public PromptResult toPromptResult(PromptInstance instance, LLMEngineInfo engineInfo) {
+		List<ToolCall> calls = toolCalls == null ? null : toolCalls.stream()
+				.<ToolCall>map(tc -> new NormalizedToolCall(tc.name(), tc.version(), tc.args()))
+				.toList();
+		return new PromptResult(rawOutput, latencyMs, cost, tokenUsage, instance, engineInfo, calls, streamingMetrics, usage);
+	}
+}
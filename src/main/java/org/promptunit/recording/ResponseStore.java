@@ -0,0 +1,18 @@
+package org.promptunit.recording;
+
+import java.util.Optional;
+
+/**
+ * Persistent map from prompt fingerprint to recorded result. Implementations must be safe for
+ * concurrent use by parallel tests.
+ */
+public interface ResponseStore extends AutoCloseable {
+
+	Optional<RecordedResult> find(String fingerprint);
+
+	void put(String fingerprint, RecordedResult result);
+
+	@Override
+	default void close() {
+	}
+}
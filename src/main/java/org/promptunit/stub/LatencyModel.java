@@ -0,0 +1,42 @@
+package org.promptunit.stub;
+
+import java.time.Duration;
+import java.util.Random;
+
+/** Distribution {@link StubLLMServer} draws each response's added latency from, in milliseconds. */
+@FunctionalInterface
+public interface LatencyModel {
+
+	long sampleMillis(Random random);
+
+	static LatencyModel none() {
+		return random -> 0;
+	}
+
+	static LatencyModel fixed(Duration latency) {
+		long millis = latency.toMillis();
+		if (millis < 0) throw new IllegalArgumentException("latency must not be negative");
+		return random -> millis;
+	}
+
+	static LatencyModel uniform(Duration min, Duration max) {
+		long lo = min.toMillis();
+		long hi = max.toMillis();
+		if (lo < 0 || hi < lo) throw new IllegalArgumentException("require 0 <= min <= max");
+		return random -> lo + (hi == lo ? 0 : random.nextLong(hi - lo + 1));
+	}
+
+	/**
+	 * Log-normal latency with the given median and 99th percentile, the long-tailed shape typical of
+	 * hosted model APIs.
+	 */
+	static LatencyModel logNormal(Duration median, Duration p99) {
+		double m = median.toMillis();
+		double p = p99.toMillis();
+		if (m <= 0 || p < m) throw new IllegalArgumentException("require 0 < median <= p99");
+		double mu = Math.log(m);
+		// 2.326 is the standard normal 99th percentile
+		double sigma = Math.log(p / m) / 2.326;
+		return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+	}
+}
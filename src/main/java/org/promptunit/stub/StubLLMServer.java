@@ -0,0 +1,278 @@
+package org.promptunit.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Local HTTP server speaking the OpenAI chat-completions, Anthropic messages, Ollama chat and Prompz
+ * {@code executePrompt} wire formats, for integration tests and offline benchmarks of the engines.
+ * Point an engine at it through its base URL:
+ * <pre>{@code
+ * try (StubLLMServer server = StubLLMServer.builder()
+ *         .withResponse("{\"ok\": true}")
+ *         .withLatency(LatencyModel.logNormal(Duration.ofMillis(300), Duration.ofSeconds(2)))
+ *         .withErrorRate(0.02, 429)
+ *         .start()) {
+ *     LLMEngine engine = new OpenAIEngine("gpt-4o-mini", server.baseUrl());
+ *     ...
+ * }
+ * }</pre>
+ * Streaming requests are answered with SSE (NDJSON for Ollama), one event per word of the response.
+ * The server checks no API keys, but the OpenAI and Anthropic engines still need one set, so any
+ * placeholder value will do. Each request is handled on its own thread, so simulated latency does
+ * not limit how many requests can be in flight.
+ */
+public final class StubLLMServer implements AutoCloseable {
+
+	public enum Format { OPENAI, ANTHROPIC, OLLAMA, PROMPZ }
+
+	public static final String OPENAI_PATH = "/v1/chat/completions";
+	public static final String ANTHROPIC_PATH = "/v1/messages";
+	public static final String OLLAMA_PATH = "/api/chat";
+	public static final String PROMPZ_PATH = "/api/v1/executePrompt";
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Function<StubRequest, StubResponse> responder;
+	private final LatencyModel latency;
+	private final Duration tokenInterval;
+	private final double errorRate;
+	private final int errorStatus;
+	private final Random random;
+	private final AtomicLong ids = new AtomicLong();
+	private final AtomicLongArray requests = new AtomicLongArray(Format.values().length);
+	private final AtomicLong injectedErrors = new AtomicLong();
+	private volatile StubRequest lastRequest;
+
+	private StubLLMServer(Builder builder) throws IOException {
+		this.responder = builder.responder;
+		this.latency = builder.latency;
+		this.tokenInterval = builder.tokenInterval;
+		this.errorRate = builder.errorRate;
+		this.errorStatus = builder.errorStatus;
+		this.random = builder.seed != null ? new Random(builder.seed) : new Random();
+		// Platform threads: the JDK server reads requests inside synchronized blocks, which pin virtual
+		// threads and can stall every handler when few carrier threads are available
+		this.executor = Executors.newCachedThreadPool(Thread.ofPlatform().name("stub-llm-server-", 0).daemon().factory());
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 0);
+		server.createContext(OPENAI_PATH, exchange -> handle(exchange, Format.OPENAI));
+		server.createContext(ANTHROPIC_PATH, exchange -> handle(exchange, Format.ANTHROPIC));
+		server.createContext(OLLAMA_PATH, exchange -> handle(exchange, Format.OLLAMA));
+		server.createContext(PROMPZ_PATH, exchange -> handle(exchange, Format.PROMPZ));
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public int port() {
+		return server.getAddress().getPort();
+	}
+
+	/** Base URL for {@code OpenAIEngine}, {@code AnthropicEngine} and {@code OllamaEngine}. */
+	public String baseUrl() {
+		return "http://" + server.getAddress().getHostString() + ":" + port();
+	}
+
+	/** Base URL for {@code PrompzEngine}, which appends {@code /executePrompt}. */
+	public String prompzBaseUrl() {
+		return baseUrl() + "/api/v1";
+	}
+
+	public long requestCount() {
+		long total = 0;
+		for (int i = 0; i < requests.length(); i++) total += requests.get(i);
+		return total;
+	}
+
+	public long requestCount(Format format) {
+		return requests.get(format.ordinal());
+	}
+
+	/** Requests answered with an error by {@link Builder#withErrorRate(double, int)}. */
+	public long injectedErrorCount() {
+		return injectedErrors.get();
+	}
+
+	/** The most recently received request, or null. */
+	public StubRequest lastRequest() {
+		return lastRequest;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		// Interrupts handlers still sleeping out their latency
+		executor.shutdownNow();
+		executor.close();
+	}
+
+	private void handle(HttpExchange exchange, Format format) throws IOException {
+		try (exchange) {
+			if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+				send(exchange, 405, "application/json", WireFormats.error(format, 405, "Use POST"));
+				return;
+			}
+			JsonNode body;
+			try (InputStream in = exchange.getRequestBody()) {
+				body = mapper.readTree(in);
+			} catch (IOException e) {
+				send(exchange, 400, "application/json", WireFormats.error(format, 400, "Malformed JSON: " + e.getMessage()));
+				return;
+			}
+			if (body == null || !body.isObject()) {
+				send(exchange, 400, "application/json", WireFormats.error(format, 400, "Expected a JSON object"));
+				return;
+			}
+
+			StubRequest request = WireFormats.decode(format, body);
+			requests.incrementAndGet(format.ordinal());
+			lastRequest = request;
+			StubResponse response;
+			if (errorRate > 0 && random.nextDouble() < errorRate) {
+				injectedErrors.incrementAndGet();
+				response = StubResponse.error(errorStatus, "Injected stub error");
+			} else {
+				response = Objects.requireNonNull(responder.apply(request), "responder returned null");
+			}
+			sleep(latency.sampleMillis(random));
+			respond(exchange, request, response);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void respond(HttpExchange exchange, StubRequest request, StubResponse response) throws IOException, InterruptedException {
+		Format format = request.format();
+		if (response.isError()) {
+			if (response.retryAfter() != null) {
+				exchange.getResponseHeaders().set("Retry-After", String.valueOf(Math.max(1, response.retryAfter().toSeconds())));
+				exchange.getResponseHeaders().set("retry-after-ms", String.valueOf(response.retryAfter().toMillis()));
+			}
+			send(exchange, response.status(), "application/json", WireFormats.error(format, response.status(), response.text()));
+			return;
+		}
+
+		String id = "stub-" + ids.incrementAndGet();
+		int promptTokens = response.promptTokens() >= 0 ? response.promptTokens() : WireFormats.estimateTokens(request.userMessage());
+		int completionTokens = response.completionTokens() >= 0 ? response.completionTokens() : WireFormats.estimateTokens(response.text());
+		if (!request.stream() || format == Format.PROMPZ) {
+			send(exchange, 200, "application/json",
+					WireFormats.completion(format, id, request.model(), response.text(), promptTokens, completionTokens));
+			return;
+		}
+
+		boolean includeUsage = request.body().path("stream_options").path("include_usage").asBoolean(false);
+		List<String> events = WireFormats.streamEvents(format, id, request.model(), WireFormats.chunks(response.text()),
+				promptTokens, completionTokens, includeUsage);
+		exchange.getResponseHeaders().set("Content-Type", WireFormats.contentType(format, true));
+		exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+		exchange.sendResponseHeaders(200, 0);
+		OutputStream out = exchange.getResponseBody();
+		for (int i = 0; i < events.size(); i++) {
+			if (i > 0) sleep(tokenInterval.toMillis());
+			out.write(events.get(i).getBytes(StandardCharsets.UTF_8));
+			out.flush();
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+	}
+
+	private static void sleep(long millis) throws InterruptedException {
+		if (millis > 0) Thread.sleep(millis);
+	}
+
+	public static final class Builder {
+		private int port;
+		private Function<StubRequest, StubResponse> responder = request -> StubResponse.text("OK");
+		private LatencyModel latency = LatencyModel.none();
+		private Duration tokenInterval = Duration.ZERO;
+		private double errorRate;
+		private int errorStatus = 503;
+		private Long seed;
+
+		private Builder() {
+		}
+
+		/** Port to listen on; 0 (the default) picks a free one. */
+		public Builder withPort(int port) {
+			if (port < 0 || port > 65535) throw new IllegalArgumentException("port must be in [0, 65535]");
+			this.port = port;
+			return this;
+		}
+
+		public Builder withResponse(String text) {
+			StubResponse response = StubResponse.text(text);
+			return withResponder(request -> response);
+		}
+
+		/** Computes each response from the request; called concurrently, so it must be thread-safe. */
+		public Builder withResponder(Function<StubRequest, StubResponse> responder) {
+			this.responder = Objects.requireNonNull(responder, "responder");
+			return this;
+		}
+
+		/** Delay before each response (before the first event of a stream). */
+		public Builder withLatency(LatencyModel latency) {
+			this.latency = Objects.requireNonNull(latency, "latency");
+			return this;
+		}
+
+		/** Delay between streamed events. */
+		public Builder withTokenInterval(Duration tokenInterval) {
+			if (tokenInterval.isNegative()) throw new IllegalArgumentException("tokenInterval must not be negative");
+			this.tokenInterval = tokenInterval;
+			return this;
+		}
+
+		/** Answers this fraction of requests with {@code status} instead of consulting the responder. */
+		public Builder withErrorRate(double rate, int status) {
+			if (!(rate >= 0.0 && rate <= 1.0)) throw new IllegalArgumentException("rate must be in [0, 1]");
+			if (status < 400 || status > 599) throw new IllegalArgumentException("status must be a 4xx or 5xx code");
+			this.errorRate = rate;
+			this.errorStatus = status;
+			return this;
+		}
+
+		/** Seeds latency and error injection so runs draw the same sequence. */
+		public Builder withSeed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public StubLLMServer start() {
+			try {
+				return new StubLLMServer(this);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to start stub server", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package org.promptunit.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A request received by {@link StubLLMServer}, decoded just enough to script a response.
+ *
+ * @param format      wire format the request arrived in
+ * @param model       requested model, or an empty string when the format has none
+ * @param stream      whether the client asked for a streamed response
+ * @param userMessage text of the last user message, or an empty string
+ * @param body        the parsed request body
+ */
+public record StubRequest(StubLLMServer.Format format, String model, boolean stream, String userMessage, JsonNode body) {
+}
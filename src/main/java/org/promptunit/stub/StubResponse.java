@@ -0,0 +1,43 @@
+package org.promptunit.stub;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * What {@link StubLLMServer} answers to one request: a completion, or an HTTP error in the
+ * provider's error format.
+ *
+ * @param status           HTTP status; 200 for completions
+ * @param text             completion text, or the error message for errors
+ * @param promptTokens     reported prompt tokens, or -1 to estimate from the request
+ * @param completionTokens reported completion tokens, or -1 to estimate from {@code text}
+ * @param retryAfter       sent as {@code Retry-After} on errors when not null
+ */
+public record StubResponse(int status, String text, int promptTokens, int completionTokens, Duration retryAfter) {
+
+	public StubResponse {
+		if (status < 200 || status > 599) throw new IllegalArgumentException("status must be an HTTP status code");
+		Objects.requireNonNull(text, "text");
+	}
+
+	public static StubResponse text(String text) {
+		return new StubResponse(200, text, -1, -1, null);
+	}
+
+	public static StubResponse error(int status, String message) {
+		if (status < 400) throw new IllegalArgumentException("error status must be >= 400");
+		return new StubResponse(status, message, -1, -1, null);
+	}
+
+	public StubResponse withUsage(int promptTokens, int completionTokens) {
+		return new StubResponse(status, text, promptTokens, completionTokens, retryAfter);
+	}
+
+	public StubResponse withRetryAfter(Duration retryAfter) {
+		return new StubResponse(status, text, promptTokens, completionTokens, retryAfter);
+	}
+
+	public boolean isError() {
+		return status >= 400;
+	}
+}
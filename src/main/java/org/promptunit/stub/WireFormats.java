@@ -0,0 +1,204 @@
+package org.promptunit.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.promptunit.stub.StubLLMServer.Format;
+
+/** Request decoding and response rendering for the provider wire formats {@link StubLLMServer} speaks. */
+final class WireFormats {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final Pattern TOKEN = Pattern.compile("\\s*\\S+|\\s+");
+
+	private WireFormats() {
+	}
+
+	static StubRequest decode(Format format, JsonNode body) {
+		String model = body.path("model").asText("");
+		boolean stream = format == Format.OLLAMA
+				? body.path("stream").asBoolean(true)
+				: body.path("stream").asBoolean(false);
+		return new StubRequest(format, model, stream, lastUserMessage(body), body);
+	}
+
+	/** OpenAI, Anthropic and Ollama send {@code messages}; Prompz sends a serialized {@code PromptInstance}. */
+	private static String lastUserMessage(JsonNode body) {
+		JsonNode messages = body.has("messages") ? body.get("messages") : body.path("conversation");
+		String last = "";
+		for (JsonNode message : messages) {
+			String role = message.has("role") ? message.get("role").asText() : message.path("messageType").asText();
+			if (!"user".equalsIgnoreCase(role)) continue;
+			JsonNode content = message.has("content") ? message.get("content") : message.path("text");
+			if (content.isArray()) {
+				StringBuilder text = new StringBuilder();
+				for (JsonNode block : content) text.append(block.path("text").asText(""));
+				last = text.toString();
+			} else {
+				last = content.asText("");
+			}
+		}
+		return last;
+	}
+
+	static int estimateTokens(String text) {
+		return Math.max(1, (text.length() + 3) / 4);
+	}
+
+	/** Splits {@code text} into word-sized chunks that concatenate back to it exactly. */
+	static List<String> chunks(String text) {
+		List<String> chunks = new ArrayList<>();
+		Matcher m = TOKEN.matcher(text);
+		while (m.find()) chunks.add(m.group());
+		return chunks;
+	}
+
+	static String contentType(Format format, boolean stream) {
+		if (!stream) return "application/json";
+		return format == Format.OLLAMA ? "application/x-ndjson" : "text/event-stream";
+	}
+
+	static String completion(Format format, String id, String model, String text, int promptTokens, int completionTokens) {
+		ObjectNode root = mapper.createObjectNode();
+		switch (format) {
+			case OPENAI -> {
+				root.put("id", "chatcmpl-" + id).put("object", "chat.completion")
+						.put("created", Instant.now().getEpochSecond()).put("model", model);
+				ObjectNode choice = root.putArray("choices").addObject().put("index", 0);
+				choice.putObject("message").put("role", "assistant").put("content", text);
+				choice.put("finish_reason", "stop");
+				openAiUsage(root, promptTokens, completionTokens);
+			}
+			case ANTHROPIC -> {
+				root.put("id", "msg_" + id).put("type", "message").put("role", "assistant").put("model", model);
+				root.putArray("content").addObject().put("type", "text").put("text", text);
+				root.put("stop_reason", "end_turn").putNull("stop_sequence");
+				root.putObject("usage").put("input_tokens", promptTokens).put("output_tokens", completionTokens);
+			}
+			case OLLAMA -> {
+				ollamaChunk(root, model, text);
+				ollamaDone(root, promptTokens, completionTokens);
+			}
+			case PROMPZ -> root.put("rawOutput", text).put("latencyMs", 0).put("cost", 0.0)
+					.put("tokenUsage", promptTokens + completionTokens);
+		}
+		return root.toString();
+	}
+
+	/**
+	 * The framed events of a streamed completion: SSE {@code data:} lines for OpenAI (ending with
+	 * {@code [DONE]}), named SSE events for Anthropic and newline-delimited JSON for Ollama.
+	 */
+	static List<String> streamEvents(Format format, String id, String model, List<String> chunks,
+			int promptTokens, int completionTokens, boolean includeUsage) {
+		List<String> events = new ArrayList<>();
+		switch (format) {
+			case OPENAI -> {
+				for (String chunk : chunks) {
+					ObjectNode delta = openAiChunk(id, model);
+					ObjectNode choice = (ObjectNode) delta.get("choices").get(0);
+					choice.putObject("delta").put("content", chunk);
+					choice.putNull("finish_reason");
+					events.add(sse(null, delta));
+				}
+				ObjectNode last = openAiChunk(id, model);
+				ObjectNode choice = (ObjectNode) last.get("choices").get(0);
+				choice.putObject("delta");
+				choice.put("finish_reason", "stop");
+				events.add(sse(null, last));
+				if (includeUsage) {
+					ObjectNode usage = openAiChunk(id, model);
+					usage.putArray("choices");
+					openAiUsage(usage, promptTokens, completionTokens);
+					events.add(sse(null, usage));
+				}
+				events.add("data: [DONE]\n\n");
+			}
+			case ANTHROPIC -> {
+				ObjectNode start = mapper.createObjectNode().put("type", "message_start");
+				ObjectNode message = start.putObject("message").put("id", "msg_" + id).put("type", "message")
+						.put("role", "assistant").put("model", model);
+				message.putArray("content");
+				message.putNull("stop_reason").putNull("stop_sequence");
+				message.putObject("usage").put("input_tokens", promptTokens).put("output_tokens", 0);
+				events.add(sse("message_start", start));
+				ObjectNode blockStart = mapper.createObjectNode().put("type", "content_block_start").put("index", 0);
+				blockStart.putObject("content_block").put("type", "text").put("text", "");
+				events.add(sse("content_block_start", blockStart));
+				for (String chunk : chunks) {
+					ObjectNode delta = mapper.createObjectNode().put("type", "content_block_delta").put("index", 0);
+					delta.putObject("delta").put("type", "text_delta").put("text", chunk);
+					events.add(sse("content_block_delta", delta));
+				}
+				events.add(sse("content_block_stop", mapper.createObjectNode().put("type", "content_block_stop").put("index", 0)));
+				ObjectNode messageDelta = mapper.createObjectNode().put("type", "message_delta");
+				messageDelta.putObject("delta").put("stop_reason", "end_turn").putNull("stop_sequence");
+				messageDelta.putObject("usage").put("output_tokens", completionTokens);
+				events.add(sse("message_delta", messageDelta));
+				events.add(sse("message_stop", mapper.createObjectNode().put("type", "message_stop")));
+			}
+			case OLLAMA -> {
+				for (String chunk : chunks) {
+					ObjectNode line = mapper.createObjectNode();
+					ollamaChunk(line, model, chunk);
+					line.put("done", false);
+					events.add(line + "\n");
+				}
+				ObjectNode done = mapper.createObjectNode();
+				ollamaChunk(done, model, "");
+				ollamaDone(done, promptTokens, completionTokens);
+				events.add(done + "\n");
+			}
+			case PROMPZ -> throw new IllegalArgumentException("Prompz does not stream");
+		}
+		return events;
+	}
+
+	static String error(Format format, int status, String message) {
+		ObjectNode root = mapper.createObjectNode();
+		String type = status == 429 ? "rate_limit_error" : status >= 500 ? "api_error" : "invalid_request_error";
+		switch (format) {
+			case OPENAI -> root.putObject("error").put("message", message).put("type", type).put("code", String.valueOf(status));
+			case ANTHROPIC -> {
+				root.put("type", "error");
+				root.putObject("error").put("type", status == 529 ? "overloaded_error" : type).put("message", message);
+			}
+			case OLLAMA, PROMPZ -> root.put("error", message);
+		}
+		return root.toString();
+	}
+
+	private static ObjectNode openAiChunk(String id, String model) {
+		ObjectNode chunk = mapper.createObjectNode().put("id", "chatcmpl-" + id).put("object", "chat.completion.chunk")
+				.put("created", Instant.now().getEpochSecond()).put("model", model);
+		ArrayNode choices = chunk.putArray("choices");
+		choices.addObject().put("index", 0);
+		return chunk;
+	}
+
+	private static void openAiUsage(ObjectNode root, int promptTokens, int completionTokens) {
+		root.putObject("usage").put("prompt_tokens", promptTokens).put("completion_tokens", completionTokens)
+				.put("total_tokens", promptTokens + completionTokens);
+	}
+
+	private static void ollamaChunk(ObjectNode root, String model, String content) {
+		root.put("model", model).put("created_at", Instant.now().toString());
+		root.putObject("message").put("role", "assistant").put("content", content);
+	}
+
+	private static void ollamaDone(ObjectNode root, int promptTokens, int completionTokens) {
+		root.put("done", true).put("done_reason", "stop").put("total_duration", 0).put("load_duration", 0)
+				.put("prompt_eval_count", promptTokens).put("prompt_eval_duration", 0)
+				.put("eval_count", completionTokens).put("eval_duration", 0);
+	}
+
+	private static String sse(String event, JsonNode data) {
+		return (event != null ? "event: " + event + "\n" : "") + "data: " + data + "\n\n";
+	}
+}
@@ -0,0 +1,29 @@
+package org.promptunit.tokenizer;
+
+/**
+ * Estimates one token per four characters, the usual rule of thumb for English text. Used when no
+ * rank file is available for an encoding.
+ */
+final class ApproximateTokenizer implements Tokenizer {
+
+	private final String name;
+
+	ApproximateTokenizer(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public String name() {
+		return name;
+	}
+
+	@Override
+	public boolean isExact() {
+		return false;
+	}
+
+	@Override
+	public int countTokens(CharSequence text) {
+		return (text.length() + 3) / 4;
+	}
+}
@@ -0,0 +1,314 @@
+package org.promptunit.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte-pair encoder compatible with tiktoken's {@code cl100k_base} and {@code o200k_base}
+ * encodings. Ranks are read from a {@code .tiktoken} file (one {@code <base64 bytes> <rank>} per
+ * line); text is split with the encoding's pre-tokenizer pattern, each piece is UTF-8 encoded and
+ * merged lowest-rank-first exactly as tiktoken does. Special tokens are not recognised: text is
+ * encoded as ordinary text.
+ * <p>
+ * The rank table is held in a single byte pool with an open-addressing index, so lookups do not
+ * allocate; merge state lives in per-thread {@code int[]} scratch buffers. Pieces that are not a
+ * single token are cached after their first merge.
+ */
+public final class BpeTokenizer implements Tokenizer {
+
+	public static final String CL100K_PATTERN = String.join("|",
+			"'(?i:[sdmt]|ll|ve|re)",
+			"[^\\r\\n\\p{L}\\p{N}]?+\\p{L}++",
+			"\\p{N}{1,3}+",
+			" ?[^\\s\\p{L}\\p{N}]++[\\r\\n]*+",
+			"\\s++\\z",
+			"\\s*[\\r\\n]",
+			"\\s+(?!\\S)",
+			"\\s");
+
+	public static final String O200K_PATTERN = String.join("|",
+			"[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]*[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]+(?i:'s|'t|'re|'ve|'m|'ll|'d)?",
+			"[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]+[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]*(?i:'s|'t|'re|'ve|'m|'ll|'d)?",
+			"\\p{N}{1,3}",
+			" ?[^\\s\\p{L}\\p{N}]+[\\r\\n/]*",
+			"\\s*[\\r\\n]+",
+			"\\s+(?!\\S)",
+			"\\s+");
+
+	private static final int NO_RANK = Integer.MAX_VALUE;
+	private static final int PIECE_CACHE_LIMIT = 1 << 16;
+
+	private final String name;
+	private final Pattern pattern;
+	private final byte[] pool;
+	private final int[] offsets;
+	private final int[] ranks;
+	private final int[] index;
+	private final int mask;
+	private final ConcurrentHashMap<String, int[]> pieceCache = new ConcurrentHashMap<>();
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	private BpeTokenizer(String name, Pattern pattern, byte[] pool, int[] offsets, int[] ranks) {
+		this.name = name;
+		this.pattern = pattern;
+		this.pool = pool;
+		this.offsets = offsets;
+		this.ranks = ranks;
+		int capacity = Integer.highestOneBit(Math.max(16, ranks.length * 2) - 1) << 1;
+		this.index = new int[capacity];
+		this.mask = capacity - 1;
+		for (int t = 0; t < ranks.length; t++) {
+			int slot = hash(pool, offsets[t], offsets[t + 1]) & mask;
+			while (index[slot] != 0) slot = (slot + 1) & mask;
+			index[slot] = t + 1;
+		}
+		byte[] single = new byte[1];
+		for (int b = 0; b < 256; b++) {
+			single[0] = (byte) b;
+			if (rank(single, 0, 1) == NO_RANK) {
+				throw new IllegalArgumentException("Rank table %s has no token for byte 0x%02x".formatted(name, b));
+			}
+		}
+	}
+
+	public static BpeTokenizer fromResource(String name, String resource, String pattern) {
+		try (InputStream in = BpeTokenizer.class.getResourceAsStream(resource)) {
+			if (in == null) throw new IllegalArgumentException("Rank table resource not found: " + resource);
+			return parse(name, in, pattern);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read rank table " + resource, e);
+		}
+	}
+
+	public static BpeTokenizer fromFile(String name, Path file, String pattern) {
+		try (InputStream in = Files.newInputStream(file)) {
+			return parse(name, in, pattern);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read rank table " + file, e);
+		}
+	}
+
+	static BpeTokenizer parse(String name, InputStream in, String pattern) throws IOException {
+		ByteArrayOutputStream pool = new ByteArrayOutputStream(1 << 20);
+		int[] offsets = new int[1024];
+		int[] ranks = new int[1024];
+		int count = 0;
+		Base64.Decoder base64 = Base64.getDecoder();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isBlank()) continue;
+			int space = line.indexOf(' ');
+			if (space <= 0) throw new IllegalArgumentException("Malformed rank table line in %s: %s".formatted(name, line));
+			byte[] token = base64.decode(line.substring(0, space));
+			if (count + 1 >= offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				ranks = Arrays.copyOf(ranks, ranks.length * 2);
+			}
+			offsets[count] = pool.size();
+			ranks[count] = Integer.parseInt(line.substring(space + 1).trim());
+			pool.write(token);
+			count++;
+		}
+		offsets[count] = pool.size();
+		return new BpeTokenizer(name, Pattern.compile(pattern, Pattern.UNICODE_CHARACTER_CLASS),
+				pool.toByteArray(), Arrays.copyOf(offsets, count + 1), Arrays.copyOf(ranks, count));
+	}
+
+	@Override
+	public String name() {
+		return name;
+	}
+
+	@Override
+	public boolean isExact() {
+		return true;
+	}
+
+	public int vocabularySize() {
+		return ranks.length;
+	}
+
+	public int[] encode(CharSequence text) {
+		Scratch s = scratch.get();
+		s.tokenCount = 0;
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find()) {
+			encodePiece(text, matcher.start(), matcher.end(), s, true);
+		}
+		return Arrays.copyOf(s.tokens, s.tokenCount);
+	}
+
+	@Override
+	public int countTokens(CharSequence text) {
+		Scratch s = scratch.get();
+		int count = 0;
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find()) {
+			count += encodePiece(text, matcher.start(), matcher.end(), s, false);
+		}
+		return count;
+	}
+
+	/** Pre-tokenizer pieces of {@code text}, for tests. */
+	List<String> pieces(CharSequence text) {
+		List<String> pieces = new ArrayList<>();
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find()) pieces.add(matcher.group());
+		return pieces;
+	}
+
+	private int encodePiece(CharSequence text, int start, int end, Scratch s, boolean collect) {
+		int n = utf8(text, start, end, s);
+		int whole = rank(s.bytes, 0, n);
+		if (whole != NO_RANK) {
+			if (collect) s.emit(whole);
+			return 1;
+		}
+		String key = text.subSequence(start, end).toString();
+		int[] tokens = pieceCache.get(key);
+		if (tokens == null) {
+			tokens = merge(s.bytes, n, s);
+			if (pieceCache.size() >= PIECE_CACHE_LIMIT) pieceCache.clear();
+			pieceCache.put(key, tokens);
+		}
+		if (collect) {
+			for (int t : tokens) s.emit(t);
+		}
+		return tokens.length;
+	}
+
+	/** tiktoken's byte_pair_merge: repeatedly merge the adjacent pair with the lowest rank. */
+	private int[] merge(byte[] piece, int n, Scratch s) {
+		s.ensureParts(n + 1);
+		int[] starts = s.starts;
+		int[] pairRanks = s.pairRanks;
+		int minRank = NO_RANK;
+		int minIndex = -1;
+		for (int i = 0; i < n - 1; i++) {
+			int r = rank(piece, i, i + 2);
+			if (r < minRank) {
+				minRank = r;
+				minIndex = i;
+			}
+			starts[i] = i;
+			pairRanks[i] = r;
+		}
+		starts[n - 1] = n - 1;
+		pairRanks[n - 1] = NO_RANK;
+		starts[n] = n;
+		pairRanks[n] = NO_RANK;
+		int parts = n + 1;
+
+		while (minRank != NO_RANK) {
+			int i = minIndex;
+			if (i > 0) pairRanks[i - 1] = spanRank(piece, starts, parts, i - 1);
+			pairRanks[i] = spanRank(piece, starts, parts, i);
+			System.arraycopy(starts, i + 2, starts, i + 1, parts - i - 2);
+			System.arraycopy(pairRanks, i + 2, pairRanks, i + 1, parts - i - 2);
+			parts--;
+			minRank = NO_RANK;
+			for (int j = 0; j < parts - 1; j++) {
+				if (pairRanks[j] < minRank) {
+					minRank = pairRanks[j];
+					minIndex = j;
+				}
+			}
+		}
+
+		int[] tokens = new int[parts - 1];
+		for (int j = 0; j < parts - 1; j++) {
+			tokens[j] = rank(piece, starts[j], starts[j + 1]);
+		}
+		return tokens;
+	}
+
+	/** Rank of the bytes spanned by parts {@code i..i+2} merged together. */
+	private int spanRank(byte[] piece, int[] starts, int parts, int i) {
+		return i + 3 < parts ? rank(piece, starts[i], starts[i + 3]) : NO_RANK;
+	}
+
+	private int rank(byte[] bytes, int from, int to) {
+		for (int slot = hash(bytes, from, to) & mask; ; slot = (slot + 1) & mask) {
+			int entry = index[slot];
+			if (entry == 0) return NO_RANK;
+			int t = entry - 1;
+			if (Arrays.equals(pool, offsets[t], offsets[t + 1], bytes, from, to)) return ranks[t];
+		}
+	}
+
+	private static int hash(byte[] bytes, int from, int to) {
+		int h = 0x811c9dc5;
+		for (int i = from; i < to; i++) {
+			h = (h ^ (bytes[i] & 0xff)) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/** UTF-8 encodes {@code text[start, end)} into the scratch byte buffer; lone surrogates become '?'. */
+	private static int utf8(CharSequence text, int start, int end, Scratch s) {
+		byte[] b = s.ensureBytes((end - start) * 3);
+		int n = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				b[n++] = (byte) c;
+			} else if (c < 0x800) {
+				b[n++] = (byte) (0xc0 | (c >> 6));
+				b[n++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, text.charAt(++i));
+				b[n++] = (byte) (0xf0 | (cp >> 18));
+				b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+				b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+				b[n++] = (byte) (0x80 | (cp & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				b[n++] = '?';
+			} else {
+				b[n++] = (byte) (0xe0 | (c >> 12));
+				b[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				b[n++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		return n;
+	}
+
+	private static final class Scratch {
+		byte[] bytes = new byte[256];
+		int[] starts = new int[128];
+		int[] pairRanks = new int[128];
+		int[] tokens = new int[256];
+		int tokenCount;
+
+		byte[] ensureBytes(int size) {
+			if (bytes.length < size) bytes = new byte[Math.max(size, bytes.length * 2)];
+			return bytes;
+		}
+
+		void ensureParts(int size) {
+			if (starts.length < size) {
+				starts = new int[Math.max(size, starts.length * 2)];
+				pairRanks = new int[starts.length];
+			}
+		}
+
+		void emit(int token) {
+			if (tokenCount == tokens.length) tokens = Arrays.copyOf(tokens, tokens.length * 2);
+			tokens[tokenCount++] = token;
+		}
+	}
+}
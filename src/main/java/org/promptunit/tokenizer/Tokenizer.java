@@ -0,0 +1,38 @@
+package org.promptunit.tokenizer;
+
+import org.promptunit.core.PromptInstance;
+import org.springframework.ai.chat.messages.Message;
+
+/**
+ * Counts tokens locally, without calling a provider. Used for pre-flight checks such as
+ * {@code tokenCountBelow} and for estimating tokens-per-minute budgets.
+ */
+public interface Tokenizer {
+
+	/** Tokens each chat message costs on top of its content (role and delimiters). */
+	int TOKENS_PER_MESSAGE = 3;
+
+	/** Tokens the provider adds to prime the assistant reply. */
+	int TOKENS_PER_REPLY = 3;
+
+	String name();
+
+	/** Whether counts are exact for the encoding, rather than an estimate. */
+	boolean isExact();
+
+	int countTokens(CharSequence text);
+
+	/**
+	 * Tokens the conversation of {@code instance} will consume as a prompt, including the per-message
+	 * chat framing. The framing constants follow OpenAI's published accounting and are an approximation
+	 * for other providers.
+	 */
+	default int countTokens(PromptInstance instance) {
+		int tokens = TOKENS_PER_REPLY;
+		for (Message m : instance.conversation()) {
+			tokens += TOKENS_PER_MESSAGE;
+			if (m.getText() != null) tokens += countTokens(m.getText());
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,70 @@
+package org.promptunit.tokenizer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.promptunit.env.DotenvEnvironmentUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the {@link Tokenizer} for a provider and model. Rank files are looked up as
+ * {@code <encoding>.tiktoken} in the directory named by {@value #ENV_VAR} (environment or .env),
+ * then on the classpath under {@value #RESOURCE_DIR}. When neither has the file, counts fall back
+ * to a four-characters-per-token estimate and a warning is logged once per encoding.
+ * <p>
+ * OpenAI's gpt-4o, gpt-4.1 and o-series models use {@code o200k_base}; every other model uses
+ * {@code cl100k_base}, which is exact for older OpenAI models and a close approximation for
+ * Anthropic and local models, whose tokenizers are not published in this format.
+ */
+public final class Tokenizers {
+
+	public static final String ENV_VAR = "PROMPTUNIT_TOKENIZER_DIR";
+	public static final String RESOURCE_DIR = "/promptunit/tokenizers/";
+	public static final String CL100K_BASE = "cl100k_base";
+	public static final String O200K_BASE = "o200k_base";
+
+	private static final Logger log = LoggerFactory.getLogger(Tokenizers.class);
+	private static final Map<String, String> PATTERNS = Map.of(
+			CL100K_BASE, BpeTokenizer.CL100K_PATTERN,
+			O200K_BASE, BpeTokenizer.O200K_PATTERN);
+	private static final Map<String, Tokenizer> loaded = new ConcurrentHashMap<>();
+
+	private Tokenizers() {}
+
+	public static Tokenizer forModel(String provider, String model) {
+		return forEncoding(encodingFor(provider, model));
+	}
+
+	public static Tokenizer forEncoding(String encoding) {
+		if (!PATTERNS.containsKey(encoding)) throw new IllegalArgumentException("Unknown encoding: " + encoding);
+		return loaded.computeIfAbsent(encoding, Tokenizers::load);
+	}
+
+	public static String encodingFor(String provider, String model) {
+		String m = model == null ? "" : model.toLowerCase(Locale.ROOT);
+		if (provider != null && provider.equalsIgnoreCase("openai")
+				&& (m.startsWith("gpt-4o") || m.startsWith("gpt-4.1") || m.startsWith("gpt-5") || m.matches("o\\d.*"))) {
+			return O200K_BASE;
+		}
+		return CL100K_BASE;
+	}
+
+	private static Tokenizer load(String encoding) {
+		String pattern = PATTERNS.get(encoding);
+		String fileName = encoding + ".tiktoken";
+		String dir = DotenvEnvironmentUtil.getEnvVarStringValue(ENV_VAR);
+		if (dir != null && !dir.isBlank()) {
+			Path file = Path.of(dir.trim()).resolve(fileName);
+			if (Files.isRegularFile(file)) return BpeTokenizer.fromFile(encoding, file, pattern);
+		}
+		if (Tokenizers.class.getResource(RESOURCE_DIR + fileName) != null) {
+			return BpeTokenizer.fromResource(encoding, RESOURCE_DIR + fileName, pattern);
+		}
+		log.warn("No rank file for {} found (set {} or add {}{} to the classpath); estimating token counts",
+				encoding, ENV_VAR, RESOURCE_DIR, fileName);
+		return new ApproximateTokenizer(encoding);
+	}
+}
@@ -0,0 +1,31 @@
+package org.promptunit.dsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class JsonDocumentTest {
+
+	@Test
+	void parsesEachFormOnce() {
+		JsonDocument document = new JsonDocument("{\"answer\": 42}");
+
+		assertThat(document.strict()).isSameAs(document.strict());
+		assertThat(document.lenient()).isSameAs(document.strict());
+		assertThat(document.strict().get("answer").asInt()).isEqualTo(42);
+	}
+
+	@Test
+	void fallsBackToExtractedJson() {
+		JsonDocument document = new JsonDocument("Here you go:\n```json\n{\"answer\": 42}\n```");
+
+		assertThat(document.strict()).isNull();
+		assertThat(document.lenient()).isSameAs(document.lenient());
+		assertThat(document.lenient().get("answer").asInt()).isEqualTo(42);
+	}
+
+	@Test
+	void treatsBlankOutputAsNotJson() {
+		assertThat(new JsonDocument("").strict()).isNull();
+		assertThat(new JsonDocument("no json here").lenient()).isNull();
+	}
+}
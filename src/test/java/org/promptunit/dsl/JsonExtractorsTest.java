@@ -0,0 +1,48 @@
+package org.promptunit.dsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.promptunit.dsl.JsonExtractors.Candidate;
+import org.promptunit.dsl.JsonExtractors.Kind;
+
+class JsonExtractorsTest {
+
+	@Test
+	void prefersJsonFenceThenJsonishFenceThenBalanced() {
+		assertThat(JsonExtractors.extract("Sure! {\"a\": 0}\n```JSON\n{\"a\": 1}\n```")).isEqualTo("{\"a\": 1}");
+		assertThat(JsonExtractors.extract("{\"a\": 0}\n```\n[1, 2]\n```")).isEqualTo("[1, 2]");
+		assertThat(JsonExtractors.extract("```python\nprint(1)\n``` then {\"a\": \"}\"} done")).isEqualTo("{\"a\": \"}\"}");
+		assertThat(JsonExtractors.extract("no json here")).isNull();
+	}
+
+	@Test
+	void findsEveryCandidateWithOffsets() {
+		String text = "Use {name}. Result: [1, {\"b\": [2]}] and ```json\n{\"c\": true}\n```";
+
+		List<Candidate> candidates = JsonExtractors.candidates(text);
+
+		assertThat(candidates.stream().map(Candidate::kind).toList())
+				.containsExactly(Kind.OBJECT, Kind.ARRAY, Kind.OBJECT, Kind.JSON_FENCE);
+		for (Candidate candidate : candidates) {
+			assertThat(text.substring((int) candidate.start(), (int) candidate.end())).isEqualTo(candidate.text());
+		}
+		assertThat(candidates.get(1).text()).isEqualTo("[1, {\"b\": [2]}]");
+		assertThat(JsonExtractors.candidates(new StringReader(text))).isEqualTo(candidates);
+	}
+
+	@Test
+	void skipsMismatchedAndUnterminatedRegions() {
+		assertThat(JsonExtractors.candidates("{ ] then {\"ok\": 1} and {\"open\": ").stream().map(Candidate::text).toList())
+				.containsExactly("{\"ok\": 1}");
+	}
+
+	@Test
+	void scansLargeOutputsInOnePass() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 50_000; i++) text.append("{\"i\": ").append(i).append("} text ");
+
+		assertThat(JsonExtractors.candidates(text)).hasSize(50_000);
+	}
+}
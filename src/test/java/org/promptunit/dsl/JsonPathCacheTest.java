@@ -0,0 +1,31 @@
+package org.promptunit.dsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+
+class JsonPathCacheTest {
+
+	@Test
+	void compilesEachPathOnce() {
+		JsonPathCache cache = new JsonPathCache(4);
+
+		JsonPath first = cache.get("$.summary");
+
+		assertThat(cache.get(new String("$.summary".toCharArray()))).isSameAs(first);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedPath() {
+		JsonPathCache cache = new JsonPathCache(2);
+		JsonPath a = cache.get("$.a");
+		JsonPath b = cache.get("$.b");
+		cache.get("$.a");
+		cache.get("$.c");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("$.a")).isSameAs(a);
+		assertThat(cache.get("$.b")).isNotSameAs(b);
+	}
+}
@@ -6,13 +6,20 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.promptunit.dsl.PromptAssertions.assertThatResult;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.promptunit.MockLLMEngine;
 import org.promptunit.core.OutputSchema;
 import org.promptunit.core.PromptInstance;
 import org.promptunit.core.PromptResult;
+import org.promptunit.core.StreamingMetrics;
+import org.promptunit.core.TokenUsage;
 import org.promptunit.providers.openai.OpenAIEngine;
 
 
@@ -137,6 +144,30 @@ class PromptResultAssertTest {
 			assertThatCode(() -> assert_.jsonPathExists("$.data.users[0].name"))
 					.doesNotThrowAnyException();
 		}
+
+		@Test
+		void shouldCheckManyPathsInOneCall() {
+			PromptResultAssert assert_ = assertThatResult(complexJsonResult);
+			Map<String, Predicate<Object>> checks = new LinkedHashMap<>();
+			checks.put("$.status", "success"::equals);
+			checks.put("$.data.users[1].id", value -> Integer.valueOf(2).equals(value));
+			checks.put("$.data.users[0].roles", List.of("admin")::equals);
+			assertThatCode(() -> assert_.jsonPaths(checks)).doesNotThrowAnyException();
+		}
+
+		@Test
+		void shouldReportEveryFailingPath() {
+			PromptResultAssert assert_ = assertThatResult(complexJsonResult);
+			Map<String, Predicate<Object>> checks = new LinkedHashMap<>();
+			checks.put("$.status", "failure"::equals);
+			checks.put("$.data.metadata.version", "1.0"::equals);
+			checks.put("$.missing", value -> true);
+			assertThatThrownBy(() -> assert_.jsonPaths(checks))
+					.isInstanceOf(AssertionError.class)
+					.hasMessageContaining("but 2 failed")
+					.hasMessageContaining("$.status: predicate did not hold for success")
+					.hasMessageContaining("$.missing: no node at path");
+		}
 	}
 
 	@Nested
@@ -236,6 +267,40 @@ class PromptResultAssertTest {
 			assertThat(result).isSameAs(assert_);
 		}
 
+		@Test
+		void shouldValidateFencedJsonAfterLeadingNumber() {
+			PromptInstance instance = PromptInstance.builder()
+					.addUserMessage("Summarize 2024")
+					.withOutputSchema(new OutputSchema(simpleSchema))
+					.build();
+			PromptResult prose = new PromptResult(
+					"""
+							2024 summary follows:
+							```json
+							{"summary": "A good year", "suggestions": ["item1"], "scorecard": {}}
+							```""",
+					50, 0.5, 150, instance, new MockLLMEngine(), List.of());
+
+			assertThatCode(() -> assertThatResult(prose).conformsToSchema()).doesNotThrowAnyException();
+		}
+
+		@Test
+		void shouldKeepReadingLeadingJsonValueInAccessors() {
+			PromptResult prose = new PromptResult(
+					"""
+							2024 summary follows:
+							```json
+							{"summary": "A good year"}
+							```""",
+					50, 0.5, 150);
+
+			assertThat(assertThatResult(prose).jsonString()).isEqualTo("2024");
+			assertThat(assertThatResult(prose).toResult(Integer.class)).isEqualTo(2024);
+			assertThatThrownBy(() -> assertThatResult(prose).jsonPathExists("$.summary"))
+					.isInstanceOf(AssertionError.class)
+					.hasMessageContaining("Expected raw output to be valid JSON");
+		}
+
 		@Test
 		void shouldThrowWhenSchemaIsInvalid() {
 			PromptResultAssert assert_ = assertThatResult(validJsonResult);
@@ -368,6 +433,78 @@ class PromptResultAssertTest {
 		}
 	}
 
+	@Nested
+	class StreamingLatencyTests {
+		private final PromptResult streamed = new PromptResult("{}", 400, 0.0, 10)
+				.withStreamingMetrics(new StreamingMetrics(120, 15.5, 40, 400, 20));
+
+		@Test
+		void shouldPassWhenTimeToFirstTokenIsBelow() {
+			assertThatCode(() -> assertThatResult(streamed)
+					.timeToFirstTokenBelow(200)
+					.interTokenLatencyBelow(20)
+					.maxInterTokenLatencyBelow(40))
+					.doesNotThrowAnyException();
+		}
+
+		@Test
+		void shouldThrowWhenTimeToFirstTokenExceeds() {
+			assertThatThrownBy(() -> assertThatResult(streamed).timeToFirstTokenBelow(100))
+					.isInstanceOf(AssertionError.class)
+					.hasMessageContaining("Expected time to first token < 100ms")
+					.hasMessageContaining("120");
+		}
+
+		@Test
+		void shouldThrowWhenResultWasNotStreamed() {
+			assertThatThrownBy(() -> assertThatResult(validJsonResult).timeToFirstTokenBelow(100))
+					.isInstanceOf(AssertionError.class)
+					.hasMessageContaining("No streaming metrics available");
+		}
+
+		@Test
+		void nonStreamingEngineFallsBackToSingleChunk() {
+			PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+			StringBuilder received = new StringBuilder();
+			PromptResult result = new MockLLMEngine("hello").executeStreaming(instance, received::append);
+
+			assertThat(received.toString()).isEqualTo("hello");
+			assertThat(result.streamingMetrics()).isNotNull();
+			assertThat(result.streamingMetrics().chunkCount()).isEqualTo(1);
+			assertThat(result.streamingMetrics().timeToFirstTokenMs()).isEqualTo(result.latencyMs());
+		}
+	}
+
+	@Nested
+	class TokenUsageTests {
+		private final PromptResult withUsage = new PromptResult("{}", 10, 0.001, 1_200, null, null, null, null,
+				new TokenUsage(1_000, 200, 400));
+
+		@Test
+		void shouldPassWhenPromptAndCompletionTokensAreBelow() {
+			assertThatCode(() -> assertThatResult(withUsage)
+					.promptTokensBelow(1_000)
+					.completionTokensBelow(250)
+					.tokenUsageBelow(1_200))
+					.doesNotThrowAnyException();
+		}
+
+		@Test
+		void shouldThrowWhenCompletionTokensExceed() {
+			assertThatThrownBy(() -> assertThatResult(withUsage).completionTokensBelow(100))
+					.isInstanceOf(AssertionError.class)
+					.hasMessageContaining("Expected completion tokens < 100")
+					.hasMessageContaining("200");
+		}
+
+		@Test
+		void shouldThrowWhenUsageWasNotReported() {
+			assertThatThrownBy(() -> assertThatResult(validJsonResult).promptTokensBelow(100))
+					.isInstanceOf(AssertionError.class)
+					.hasMessageContaining("No token usage reported");
+		}
+	}
+
 	@Nested
 	class TokenUsageBelowTests {
 		@Test
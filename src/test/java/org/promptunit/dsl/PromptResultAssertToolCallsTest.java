@@ -5,6 +5,7 @@ import static org.promptunit.tools.ToolRefs.springAITool;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.promptunit.core.PromptResult;
 import org.promptunit.tools.NormalizedToolCall;
@@ -62,6 +63,60 @@ public class PromptResultAssertToolCallsTest {
                         springAITool(Customer::addComment));
     }
 
+    @Test
+    void withArgsMatchingComparesScalarsAsPlainJavaValues() throws Exception {
+        ToolCall c1 = new NormalizedToolCall("balance", M.readTree(
+                "{\"id\": 123, \"amount\": 1.5, \"includePending\": true, \"currency\": \"EUR\", \"note\": null}"));
+        PromptResult pr = new PromptResult("", 10, 0.0, 5, null, null, List.of(c1));
+
+        PromptAssertions.assertThatResult(pr)
+                .hasToolCall(springAITool(Customer::balance))
+                .withArgsMatching("$.id", 123)
+                .hasToolCall(springAITool(Customer::balance))
+                .withArgsMatching("$.amount", 1.5)
+                .hasToolCall(springAITool(Customer::balance))
+                .withArgsMatching("$.includePending", true)
+                .hasToolCall(springAITool(Customer::balance))
+                .withArgsMatching("$.currency", "EUR")
+                .hasToolCall(springAITool(Customer::balance))
+                .withArgsMatching("$.note", null);
+        assertThatThrownBy(() -> PromptAssertions.assertThatResult(pr)
+                .hasToolCall(springAITool(Customer::balance))
+                .withArgsMatching("$.id", "123"))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("Expected JSONPath $.id == 123, but was 123");
+    }
+
+    @Test
+    void withArgsMatchingComparesArraysAsLists() throws Exception {
+        ToolCall c1 = new NormalizedToolCall("addComment", M.readTree(
+                "{\"text\": \"hi\", \"tags\": [\"a\", \"b\"], \"lines\": [{\"n\": 1}, {\"n\": 2}]}"));
+        PromptResult pr = new PromptResult("", 10, 0.0, 5, null, null, List.of(c1));
+
+        PromptAssertions.assertThatResult(pr)
+                .hasToolCall(springAITool(Customer::addComment))
+                .withArgsMatching("$.tags", List.of("a", "b"))
+                .hasToolCall(springAITool(Customer::addComment))
+                .withArgsMatching("$.lines[*].n", List.of(1, 2))
+                .hasToolCall(springAITool(Customer::addComment))
+                .withArgsMatching("$.tags[1]", "b");
+    }
+
+    @Test
+    void withArgsMatchingComparesObjectsAsMaps() throws Exception {
+        ToolCall c1 = new NormalizedToolCall("addComment", M.readTree(
+                "{\"text\": \"hi\", \"author\": {\"name\": \"Ann\", \"roles\": [\"admin\"], \"age\": 40}}"));
+        PromptResult pr = new PromptResult("", 10, 0.0, 5, null, null, List.of(c1));
+
+        PromptAssertions.assertThatResult(pr)
+                .hasToolCall(springAITool(Customer::addComment))
+                .withArgsMatching("$.author", Map.of("name", "Ann", "roles", List.of("admin"), "age", 40));
+        assertThatThrownBy(() -> PromptAssertions.assertThatResult(pr)
+                .hasToolCall(springAITool(Customer::addComment))
+                .withArgsMatching("$.author", Map.of("name", "Ann")))
+                .isInstanceOf(AssertionError.class);
+    }
+
     @Test
     void missingToolCallsMetadataFailsFast() {
         PromptResult pr = new PromptResult("", 10, 0.0, 5);
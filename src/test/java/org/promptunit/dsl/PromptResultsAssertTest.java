@@ -0,0 +1,69 @@
+package org.promptunit.dsl;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.promptunit.dsl.PromptAssertions.assertThatResults;
+import static org.promptunit.dsl.PromptAssertions.usingEngine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+
+class PromptResultsAssertTest {
+
+	/** 1000 results with latencies 1..1000ms, 100 tokens and $0.001 each. */
+	private static List<PromptResult> results() {
+		List<PromptResult> results = new ArrayList<>();
+		for (int i = 1; i <= 1000; i++) results.add(new PromptResult("r" + i, i, 0.001, 100));
+		return results;
+	}
+
+	@Test
+	void checksLatencyPercentiles() {
+		PromptResultsAssert assert_ = assertThatResults(results());
+
+		assertThatCode(() -> assert_.latencyP95Below(960).latencyP99Below(1000).latencyP50Below(510))
+				.doesNotThrowAnyException();
+		assertThatThrownBy(() -> assert_.latencyP95Below(900))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("Expected p95 latency < 900ms")
+				.hasMessageContaining("over 1000 results");
+	}
+
+	@Test
+	void checksTokensAndCostSkippingUnknownValues() {
+		List<PromptResult> results = results();
+		results.add(new PromptResult("unknown", -1, -1, -1));
+		PromptResultsAssert assert_ = assertThatResults(results);
+
+		assertThatCode(() -> assert_.meanTokenUsageBelow(100).totalCostBelow(1.01).hasSizeAtLeast(1001))
+				.doesNotThrowAnyException();
+		assertThatThrownBy(() -> assert_.meanTokenUsageBelow(99.5))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("got 100 over 1000 results");
+		assertThatThrownBy(() -> assert_.totalCostBelow(0.5))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("Expected total cost < 0.5");
+	}
+
+	@Test
+	void checksThroughputAgainstElapsedTime() {
+		assertThatCode(() -> assertThatResults(results()).withElapsed(Duration.ofSeconds(10)).throughputAtLeast(100))
+				.doesNotThrowAnyException();
+		assertThatThrownBy(() -> assertThatResults(results()).withElapsed(Duration.ofSeconds(20)).throughputAtLeast(100))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("got 50 rps");
+		assertThatThrownBy(() -> assertThatResults(results()).throughputAtLeast(1))
+				.isInstanceOf(IllegalStateException.class);
+
+		PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+		assertThatCode(() -> usingEngine(new MockLLMEngine()).withInstance(instance).sample(20)
+				.hasSizeAtLeast(20)
+				.latencyP99Below(50)
+				.throughputAtLeast(1))
+				.doesNotThrowAnyException();
+	}
+}
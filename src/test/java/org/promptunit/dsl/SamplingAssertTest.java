@@ -0,0 +1,106 @@
+package org.promptunit.dsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.promptunit.dsl.PromptAssertions.usingEngine;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.evaluation.SequentialPassRate;
+
+class SamplingAssertTest {
+
+	private final PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+	@Test
+	void stopsEarlyWhenPromptClearlyPasses() {
+		ScriptedEngine engine = new ScriptedEngine(i -> true);
+
+		SamplingAssert sampling = usingEngine(engine).withInstance(instance)
+				.sampling(r -> r.containsValidJson())
+				.passRateAtLeast(0.8).withConfidence(0.95)
+				.verify();
+
+		assertThat(sampling.outcome().verdict()).isEqualTo(SequentialPassRate.Verdict.PASS);
+		assertThat(engine.calls.get()).isLessThanOrEqualTo(24);
+		assertThat(sampling.samplesDrawn()).isEqualTo(engine.calls.get());
+	}
+
+	@Test
+	void stopsEarlyWhenPromptClearlyFailsAndReportsFailures() {
+		ScriptedEngine engine = new ScriptedEngine(i -> i % 4 == 0);
+
+		assertThatThrownBy(() -> usingEngine(engine).withInstance(instance)
+				.sampling(r -> r.containsValidJson())
+				.passRateAtLeast(0.9).withConfidence(0.95)
+				.withBatchSize(1)
+				.verify())
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("below the target")
+				.hasMessageContaining("sample 1: ");
+		assertThat(engine.calls.get()).isLessThanOrEqualTo(8);
+	}
+
+	@Test
+	void failsAsInconclusiveWhenSamplesRunOutAndCountsErrorsAsFailures() {
+		ScriptedEngine engine = new ScriptedEngine(i -> {
+			if (i % 10 == 9) throw new LLMInvocationException("HTTP error 503");
+			return true;
+		});
+
+		assertThatThrownBy(() -> usingEngine(engine).withInstance(instance)
+				.sampling(r -> r.containsValidJson())
+				.passRateAtLeast(0.9)
+				.withMaxSamples(20)
+				.verify())
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("inconclusive after 20 samples")
+				.hasMessageContaining("503");
+		assertThat(engine.calls.get()).isEqualTo(20);
+	}
+
+	@Test
+	void wilsonBoundsDecideWithoutIndifferenceRegion() {
+		SequentialPassRate wilson = new SequentialPassRate(0.9, 0.95, SequentialPassRate.Method.WILSON, 0.05);
+		int n = 0;
+		while (wilson.record(true) == SequentialPassRate.Verdict.CONTINUE) n++;
+
+		// One-sided 95% lower bound n / (n + z^2) first reaches 0.9 at n = 25.
+		assertThat(n + 1).isEqualTo(25);
+		assertThat(wilson.lowerBound()).isGreaterThanOrEqualTo(0.9);
+
+		SequentialPassRate failing = new SequentialPassRate(0.9, 0.95, SequentialPassRate.Method.WILSON, 0.05);
+		failing.record(false);
+		assertThat(failing.verdict()).isEqualTo(SequentialPassRate.Verdict.FAIL);
+		assertThat(failing.upperBound()).isLessThan(0.9);
+	}
+
+	private static final class ScriptedEngine implements LLMEngine {
+		final AtomicInteger calls = new AtomicInteger();
+		private final IntPredicate validJson;
+
+		ScriptedEngine(IntPredicate validJson) {
+			this.validJson = validJson;
+		}
+
+		@Override
+		public String provider() {
+			return "scripted";
+		}
+
+		@Override
+		public String model() {
+			return "scripted";
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			int i = calls.getAndIncrement();
+			return new PromptResult(validJson.test(i) ? "{\"ok\": true}" : "not json", 1, 0.0, 1);
+		}
+	}
+}
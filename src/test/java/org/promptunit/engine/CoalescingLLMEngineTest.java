@@ -0,0 +1,119 @@
+package org.promptunit.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+
+class CoalescingLLMEngineTest {
+
+	private static final int CALLERS = 8;
+
+	@Test
+	void concurrentIdenticalDeterministicPromptsShareOneCall() throws Exception {
+		GatedEngine live = new GatedEngine(false);
+		CoalescingLLMEngine engine = new CoalescingLLMEngine(live);
+
+		List<PromptResult> results = runConcurrently(engine, live, 0.0);
+
+		assertThat(live.calls.get()).isEqualTo(1);
+		assertThat(engine.providerCallCount()).isEqualTo(1L);
+		assertThat(engine.coalescedCount()).isEqualTo((long) CALLERS - 1);
+		assertThat(engine.inFlightCount()).isEqualTo(0);
+		assertThat(results).allMatch(r -> r.rawOutput().equals("answer"));
+	}
+
+	@Test
+	void nonDeterministicPromptsAreNotCoalesced() {
+		GatedEngine live = new GatedEngine(false);
+		live.release.countDown();
+		CoalescingLLMEngine engine = new CoalescingLLMEngine(live);
+		PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").withTemperature(0.7).build();
+
+		engine.execute(instance, 1_000, 3);
+
+		assertThat(live.calls.get()).isEqualTo(3);
+		assertThat(engine.coalescedCount()).isEqualTo(0L);
+	}
+
+	@Test
+	void sharedFailureReachesEveryCaller() {
+		GatedEngine live = new GatedEngine(true);
+		CoalescingLLMEngine engine = new CoalescingLLMEngine(live);
+
+		assertThatThrownBy(() -> runConcurrently(engine, live, 0.0))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(LLMInvocationException.class);
+		assertThat(live.calls.get()).isEqualTo(1);
+	}
+
+	private static List<PromptResult> runConcurrently(CoalescingLLMEngine engine, GatedEngine live, double temperature)
+			throws Exception {
+		List<Future<PromptResult>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < CALLERS; i++) {
+				// Distinct but equivalent instances, as separate tests would build them
+				PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").withTemperature(temperature).build();
+				futures.add(executor.submit(() -> {
+					PromptResult result = engine.execute(instance, 5_000);
+					assertThat(result.promptInstance()).isSameAs(instance);
+					return result;
+				}));
+			}
+			long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (engine.coalescedCount() < CALLERS - 1 && System.nanoTime() < until) {
+				Thread.sleep(5);
+			}
+			live.release.countDown();
+			List<PromptResult> results = new ArrayList<>();
+			for (Future<PromptResult> f : futures) {
+				results.add(f.get());
+			}
+			return results;
+		}
+	}
+
+	private static final class GatedEngine implements LLMEngine {
+		private final boolean fail;
+		private final AtomicInteger calls = new AtomicInteger();
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private GatedEngine(boolean fail) {
+			this.fail = fail;
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			calls.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (fail) throw new LLMInvocationException("HTTP error 500");
+			return new PromptResult("answer", 10, 0.0, 5, instance, null, null);
+		}
+
+		@Override
+		public String provider() {
+			return "test";
+		}
+
+		@Override
+		public String model() {
+			return "test";
+		}
+	}
+}
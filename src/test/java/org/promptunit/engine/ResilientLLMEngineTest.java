@@ -0,0 +1,189 @@
+package org.promptunit.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMHttpException;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.ExecutionScheduler;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+
+class ResilientLLMEngineTest {
+
+	private final PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+	@Test
+	void retriesTransientFailuresUntilSuccess() {
+		ScriptedEngine live = new ScriptedEngine(i -> {
+			if (i < 2) throw new LLMHttpException("HTTP error 503: overloaded", 503, null);
+			return ok();
+		});
+		ResilientLLMEngine engine = ResilientLLMEngine.builder(live)
+				.withBackoff(Duration.ofMillis(1), Duration.ofMillis(5), 2.0)
+				.build();
+
+		assertThat(engine.execute(instance, 5_000).rawOutput()).isEqualTo("ok");
+		assertThat(engine.attemptCount()).isEqualTo(3L);
+		assertThat(engine.retryCount()).isEqualTo(2L);
+	}
+
+	@Test
+	void doesNotRetryPermanentFailures() {
+		ScriptedEngine live = new ScriptedEngine(i -> {
+			throw new LLMHttpException("HTTP error 401: invalid key", 401, null);
+		});
+		ResilientLLMEngine engine = ResilientLLMEngine.builder(live).build();
+
+		assertThatThrownBy(() -> engine.execute(instance, 5_000))
+				.isInstanceOf(LLMHttpException.class)
+				.hasMessageContaining("401");
+		assertThat(live.calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void honoursRetryAfterAndGivesUpWhenItExceedsTheTimeout() {
+		ScriptedEngine live = new ScriptedEngine(i -> {
+			if (i == 0) throw new LLMHttpException("HTTP error 429", 429, Duration.ofMillis(150));
+			return ok();
+		});
+		ResilientLLMEngine engine = ResilientLLMEngine.builder(live).build();
+
+		long start = System.nanoTime();
+		engine.execute(instance, 5_000);
+		assertThat((System.nanoTime() - start) / 1_000_000).isGreaterThanOrEqualTo(150L);
+
+		ScriptedEngine throttled = new ScriptedEngine(i -> {
+			throw new LLMHttpException("HTTP error 429", 429, Duration.ofSeconds(30));
+		});
+		assertThatThrownBy(() -> ResilientLLMEngine.builder(throttled).build().execute(instance, 1_000))
+				.isInstanceOf(LLMHttpException.class);
+		assertThat(throttled.calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void hedgesSlowOutliers() {
+		AtomicBoolean slowNext = new AtomicBoolean();
+		ScriptedEngine live = new ScriptedEngine(i -> {
+			// The first call after warm-up is a slow outlier; its hedge is fast
+			sleep(slowNext.compareAndSet(true, false) ? 3_000 : 5);
+			return ok();
+		});
+		ResilientLLMEngine engine = ResilientLLMEngine.builder(live)
+				.withHedging(0.9, 1)
+				.withMinHedgeDelay(Duration.ofMillis(20))
+				.build();
+		for (int i = 0; i < 20; i++) {
+			engine.execute(instance, 5_000);
+		}
+		assertThat(engine.hedgeDelay()).isPresent();
+		long warmUpHedges = engine.hedgeCount();
+		long warmUpWins = engine.hedgeWinCount();
+		slowNext.set(true);
+
+		long start = System.nanoTime();
+		engine.execute(instance, 5_000);
+
+		assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1_000L);
+		assertThat(engine.hedgeCount() - warmUpHedges).isEqualTo(1L);
+		assertThat(engine.hedgeWinCount() - warmUpWins).isEqualTo(1L);
+		engine.close();
+	}
+
+	@Test
+	void hedgesWaitForAProviderSlot() {
+		ExecutionScheduler.shared().setProviderLimit("limited", 1);
+		AtomicBoolean slowNext = new AtomicBoolean();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		ScriptedEngine live = new ScriptedEngine("limited", i -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				sleep(slowNext.compareAndSet(true, false) ? 300 : 5);
+			} finally {
+				running.decrementAndGet();
+			}
+			return ok();
+		});
+		ResilientLLMEngine engine = ResilientLLMEngine.builder(live)
+				.withHedging(0.9, 1)
+				.withMinHedgeDelay(Duration.ofMillis(20))
+				.build();
+		try {
+			for (int i = 0; i < 20; i++) {
+				engine.execute(instance, 5_000);
+			}
+			long warmUpHedges = engine.hedgeCount();
+			slowNext.set(true);
+
+			engine.execute(instance, 5_000);
+
+			assertThat(engine.hedgeCount() - warmUpHedges).isEqualTo(1L);
+			assertThat(maxRunning.get()).isEqualTo(1);
+		} finally {
+			ExecutionScheduler.shared().setProviderLimit("limited", 0);
+			engine.close();
+		}
+	}
+
+	@Test
+	void classifiesProviderFailures() {
+		assertThat(TransientFailures.isTransient(new LLMInvocationException("Error invoking OpenAI",
+				new NonTransientAiException("429 - {\"error\":\"rate_limit_exceeded\"}")))).isTrue();
+		assertThat(TransientFailures.isTransient(new LLMInvocationException("Error invoking OpenAI",
+				new NonTransientAiException("400 - {\"error\":\"bad request\"}")))).isFalse();
+		assertThat(TransientFailures.isTransient(new TransientAiException("upstream reset"))).isTrue();
+		assertThat(TransientFailures.parseRetryAfter(null, "2")).contains(Duration.ofSeconds(2));
+		assertThat(TransientFailures.parseRetryAfter("250", "2")).contains(Duration.ofMillis(250));
+	}
+
+	private static PromptResult ok() {
+		return new PromptResult("ok", 5, 0.0, 1);
+	}
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMInvocationException("interrupted", e);
+		}
+	}
+
+	private static final class ScriptedEngine implements LLMEngine {
+		private final String provider;
+		private final IntFunction<PromptResult> script;
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private ScriptedEngine(IntFunction<PromptResult> script) {
+			this("test", script);
+		}
+
+		private ScriptedEngine(String provider, IntFunction<PromptResult> script) {
+			this.provider = provider;
+			this.script = script;
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			return script.apply(calls.getAndIncrement());
+		}
+
+		@Override
+		public String provider() {
+			return provider;
+		}
+
+		@Override
+		public String model() {
+			return "test";
+		}
+	}
+}
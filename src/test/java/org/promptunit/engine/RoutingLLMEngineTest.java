@@ -0,0 +1,135 @@
+package org.promptunit.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMEngineInfo;
+import org.promptunit.LLMHttpException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.execution.CircuitBreakerRegistry;
+import org.promptunit.execution.ExecutionScheduler;
+
+class RoutingLLMEngineTest {
+
+	private final PromptInstance instance = PromptInstance.builder()
+			.addUserMessage("Hi")
+			.withProvider("openai")
+			.withModel("gpt-4o")
+			.build();
+
+	@Test
+	void routesToFastestTargetAndRecordsWhereCallWasServed() {
+		TargetEngine slow = new TargetEngine("slow", 40, 0);
+		TargetEngine fast = new TargetEngine("fast", 1, 0);
+		RoutingLLMEngine engine = RoutingLLMEngine.builder().withTargets(slow, fast).build();
+
+		for (int i = 0; i < 10; i++) {
+			PromptResult result = engine.execute(instance, 5_000);
+			if (i >= 2) assertThat(result.engineInfo().model()).isEqualTo("fast");
+		}
+
+		assertThat(slow.calls.get()).isEqualTo(1);
+		assertThat(fast.calls.get()).isEqualTo(9);
+		assertThat(fast.lastInstance.model()).isEqualTo("fast");
+		assertThat(fast.lastInstance.provider()).isEqualTo("local");
+	}
+
+	@Test
+	void fallsBackInOrderOnTransientFailure() {
+		TargetEngine failing = new TargetEngine("primary", 0, 503);
+		TargetEngine backup = new TargetEngine("backup", 0, 0);
+		RoutingLLMEngine engine = RoutingLLMEngine.builder().withTargets(failing, backup).build();
+
+		PromptResult result = engine.execute(instance, 5_000);
+
+		assertThat(result.engineInfo().model()).isEqualTo("backup");
+		List<RoutingLLMEngine.TargetStats> stats = engine.stats();
+		assertThat(stats.get(0).failures()).isEqualTo(1L);
+		assertThat(stats.get(0).errorRate()).isGreaterThan(0.0);
+
+		engine.execute(instance, 5_000);
+		assertThat(failing.calls.get()).isEqualTo(1);
+		assertThat(backup.calls.get()).isEqualTo(2);
+	}
+
+	@Test
+	void permanentFailureIsNotRetriedElsewhere() {
+		TargetEngine rejecting = new TargetEngine("primary", 0, 400);
+		TargetEngine backup = new TargetEngine("backup", 0, 0);
+		RoutingLLMEngine engine = RoutingLLMEngine.builder().withTargets(rejecting, backup).build();
+
+		assertThatThrownBy(() -> engine.execute(instance, 5_000))
+				.isInstanceOf(LLMHttpException.class)
+				.hasMessageContaining("400");
+		assertThat(backup.calls.get()).isEqualTo(0);
+	}
+
+	@Test
+	void providerLimitsApplyToRoutedCallsFromSamplesAndDecorators() {
+		ExecutionScheduler scheduler = new ExecutionScheduler(8).setProviderLimit("local", 1);
+		TargetEngine target = new TargetEngine("only", 20, 0);
+		RoutingLLMEngine router = RoutingLLMEngine.builder().withTarget(target).withScheduler(scheduler).build();
+		LLMEngine decorated = new CircuitBreakingLLMEngine(router, new CircuitBreakerRegistry());
+
+		assertThat(router.sample(instance, 5_000, 4, 4).successCount()).isEqualTo(4);
+		List<CompletableFuture<PromptResult>> pending = new ArrayList<>();
+		for (int i = 0; i < 4; i++) pending.add(decorated.executeAsync(instance, 5_000));
+		pending.forEach(CompletableFuture::join);
+
+		assertThat(target.maxConcurrent.get()).isEqualTo(1);
+		assertThat(scheduler.metrics().admitted()).isEqualTo(8L);
+	}
+
+	private static final class TargetEngine implements LLMEngine, LLMEngineInfo {
+		private final String model;
+		private final long latencyMs;
+		private final int failWithStatus;
+		private final AtomicInteger calls = new AtomicInteger();
+		private volatile PromptInstance lastInstance;
+		private final AtomicInteger running = new AtomicInteger();
+		private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+		private TargetEngine(String model, long latencyMs, int failWithStatus) {
+			this.model = model;
+			this.latencyMs = latencyMs;
+			this.failWithStatus = failWithStatus;
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			calls.incrementAndGet();
+			lastInstance = instance;
+			maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(latencyMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+			if (failWithStatus != 0) throw new LLMHttpException("HTTP error " + failWithStatus, failWithStatus, null);
+			return new PromptResult("ok", latencyMs, 0.0, 1, instance, this, List.of());
+		}
+
+		@Override
+		public String provider() {
+			return "local";
+		}
+
+		@Override
+		public String model() {
+			return model;
+		}
+
+		@Override
+		public boolean supportsOutputSchema() {
+			return false;
+		}
+	}
+}
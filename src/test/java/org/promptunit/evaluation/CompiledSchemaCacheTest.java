@@ -0,0 +1,53 @@
+package org.promptunit.evaluation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.networknt.schema.JsonSchema;
+import org.junit.jupiter.api.Test;
+
+class CompiledSchemaCacheTest {
+
+	private static final String SCHEMA_A = """
+			{"type": "object", "required": ["summary"]}""";
+	private static final String SCHEMA_B = """
+			{"type": "array"}""";
+	private static final String SCHEMA_C = """
+			{"type": "string"}""";
+
+	@Test
+	void compilesEachSchemaOnce() {
+		CompiledSchemaCache cache = new CompiledSchemaCache(8);
+
+		JsonSchema first = cache.get(SCHEMA_A);
+		JsonSchema second = cache.get(new String(SCHEMA_A.toCharArray()));
+
+		assertThat(second).isSameAs(first);
+		assertThat(cache.metrics()).isEqualTo(new CompiledSchemaCache.Metrics(1, 1, 0, 1));
+		assertThat(cache.metrics().hitRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedSchema() {
+		CompiledSchemaCache cache = new CompiledSchemaCache(2);
+		JsonSchema a = cache.get(SCHEMA_A);
+		cache.get(SCHEMA_B);
+		cache.get(SCHEMA_A);
+		cache.get(SCHEMA_C);
+
+		assertThat(cache.get(SCHEMA_A)).isSameAs(a);
+		assertThat(cache.metrics().evictions()).isEqualTo(1L);
+		cache.get(SCHEMA_B);
+		assertThat(cache.metrics().misses()).isEqualTo(4L);
+		assertThat(cache.metrics().size()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsInvalidSchemaJson() {
+		CompiledSchemaCache cache = new CompiledSchemaCache(2);
+
+		assertThatThrownBy(() -> cache.get("{not json"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Invalid JSON schema provided");
+		assertThat(cache.metrics().size()).isEqualTo(0);
+	}
+}
@@ -0,0 +1,96 @@
+package org.promptunit.evaluation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.promptunit.dsl.PromptAssertions.usingEngine;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.core.OutputSchema;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+
+class StreamingSchemaCheckTest {
+
+	private static final String SCHEMA = """
+			{
+				"type": "object",
+				"additionalProperties": false,
+				"properties": {
+					"summary": {"type": "string"},
+					"score": {"type": "integer"},
+					"tags": {"type": "array", "maxItems": 2, "items": {"type": "string"}}
+				}
+			}""";
+
+	private static StreamingSchemaCheck feed(String... chunks) {
+		StreamingSchemaCheck check = new StreamingSchemaCheck(SCHEMA);
+		for (String chunk : chunks) check.accept(chunk);
+		return check;
+	}
+
+	@Test
+	void acceptsConformingOutputSplitAnywhere() {
+		assertThat(feed("```json\n{\"sum", "mary\": \"ok \\u00e9 \uD83D", "\uDE00\", \"score\": 7.0, \"ta", "gs\": [\"a\", \"b\"]}\n```").violation())
+				.isEmpty();
+		assertThat(feed("Here is the JSON: [1, 2, 3]").violation()).isEmpty();
+		assertThat(feed("{\"summary\": oops, \"extra\": 1}").violation()).isEmpty();
+	}
+
+	@Test
+	void abortsOnFirstImpossibleToken() {
+		assertThatThrownBy(() -> feed("  [", "{}]"))
+				.isInstanceOf(StreamingSchemaCheck.SchemaViolationException.class)
+				.hasMessageContaining("value at $ is an array but the schema requires object");
+		assertThatThrownBy(() -> feed("{\"summary\": \"x\", \"ext", "ra\": "))
+				.hasMessageContaining("property 'extra' is not allowed at $");
+		assertThatThrownBy(() -> feed("{\"tags\": [\"a\", \"b\", \"c\""))
+				.hasMessageContaining("array at $.tags has more than 2 items");
+		assertThatThrownBy(() -> feed("{\"score\": 7.5}"))
+				.hasMessageContaining("value at $.score is a number but the schema requires integer");
+	}
+
+	@Test
+	void cancelsStreamingGenerationEarly() {
+		AtomicInteger delivered = new AtomicInteger();
+		LLMEngine engine = new LLMEngine() {
+			@Override
+			public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public PromptResult invokeStreaming(PromptInstance instance, long timeoutMs, Consumer<String> tokenConsumer) {
+				List<String> chunks = List.of("{\"summary\": \"a\", ", "\"notes\": \"", "long ", "doomed ", "text\"}");
+				for (String chunk : chunks) {
+					tokenConsumer.accept(chunk);
+					delivered.incrementAndGet();
+				}
+				return new PromptResult(String.join("", chunks), 10, 0.0, 10);
+			}
+
+			@Override
+			public String provider() {
+				return "test";
+			}
+
+			@Override
+			public String model() {
+				return "test";
+			}
+		};
+		PromptInstance instance = PromptInstance.builder()
+				.addUserMessage("Review")
+				.withOutputSchema(new OutputSchema(SCHEMA))
+				.build();
+
+		assertThatThrownBy(() -> usingEngine(engine).withInstance(instance).abortOnSchemaViolation().executeStreaming())
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("generation was aborted: property 'notes' is not allowed at $");
+		assertThat(delivered.get()).isEqualTo(1);
+		assertThatCode(() -> usingEngine(engine).withInstance(instance).executeStreaming()).doesNotThrowAnyException();
+	}
+}
@@ -0,0 +1,99 @@
+package org.promptunit.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.dsl.PromptAssertions;
+import org.promptunit.dsl.PromptResultAssert;
+
+class AsyncExecutionTest {
+
+	private final PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+	@Test
+	void pipelinesManyBlockingPromptsConcurrently() {
+		SleepingEngine engine = new SleepingEngine(200);
+
+		long start = System.nanoTime();
+		List<CompletableFuture<PromptResult>> futures = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			futures.add(engine.executeAsync(instance, 5_000));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(3_000L);
+		assertThat(futures).allMatch(f -> f.join().rawOutput().equals("done"));
+	}
+
+	@Test
+	void cancellingInterruptsTheProviderCall() throws Exception {
+		SleepingEngine engine = new SleepingEngine(10_000);
+
+		CompletableFuture<PromptResult> future = engine.executeAsync(instance);
+		assertThat(engine.started.await(5, TimeUnit.SECONDS)).isTrue();
+		future.cancel(true);
+
+		assertThat(engine.interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void tasksRunAsTheSubmittingTenant() {
+		CompletableFuture<String> tenant;
+		try (ExecutionScheduler.TenantScope scope = ExecutionScheduler.useTenant("SomeTest")) {
+			tenant = AsyncExecution.supply(ExecutionScheduler::currentTenant);
+		}
+
+		assertThat(tenant.join()).isEqualTo("SomeTest");
+	}
+
+	@Test
+	void promptExecutorYieldsChainableAssertions() {
+		CompletableFuture<PromptResultAssert> pending = PromptAssertions.usingEngine(new MockLLMEngine())
+				.withInstance(instance)
+				.withTimeoutMs(1_000)
+				.executeAsync();
+
+		pending.join().containsValidJson().contains("Mock review output");
+	}
+
+	private static final class SleepingEngine implements LLMEngine {
+		private final long sleepMs;
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		private SleepingEngine(long sleepMs) {
+			this.sleepMs = sleepMs;
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			started.countDown();
+			try {
+				Thread.sleep(sleepMs);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw new LLMTimeoutException("interrupted", e);
+			}
+			return new PromptResult("done", sleepMs, 0.0, 1);
+		}
+
+		@Override
+		public String provider() {
+			return "test";
+		}
+
+		@Override
+		public String model() {
+			return "test";
+		}
+	}
+}
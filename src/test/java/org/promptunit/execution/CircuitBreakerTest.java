@@ -0,0 +1,146 @@
+package org.promptunit.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMCircuitOpenException;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMHttpException;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.engine.CircuitBreakingLLMEngine;
+import org.promptunit.execution.CircuitBreaker.State;
+
+class CircuitBreakerTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+	private final List<String> transitions = new ArrayList<>();
+
+	private CircuitBreaker breaker(double slowCallRateThreshold) {
+		CircuitBreaker.Config config = new CircuitBreaker.Config(
+				0.5, slowCallRateThreshold, Duration.ofSeconds(1), 4, 4, Duration.ofSeconds(30), 2);
+		return new CircuitBreaker("openai", config, clock::get)
+				.addListener((b, from, to) -> transitions.add(from + "->" + to));
+	}
+
+	@Test
+	void opensOnFailureRateAndFailsFast() {
+		CircuitBreaker breaker = breaker(1.0);
+		call(breaker, false, FAST);
+		call(breaker, true, FAST);
+		call(breaker, false, FAST);
+		assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+		call(breaker, true, FAST);
+
+		assertThat(breaker.state()).isEqualTo(State.OPEN);
+		assertThatThrownBy(breaker::acquirePermission)
+				.isInstanceOf(LLMCircuitOpenException.class)
+				.hasMessageContaining("openai");
+		assertThat(breaker.metrics().rejectedCalls()).isEqualTo(1L);
+		assertThat(transitions).containsExactly("CLOSED->OPEN");
+	}
+
+	@Test
+	void opensOnSlowCallRate() {
+		CircuitBreaker breaker = breaker(0.75);
+		call(breaker, false, SLOW);
+		call(breaker, false, SLOW);
+		call(breaker, false, FAST);
+		call(breaker, false, SLOW);
+
+		assertThat(breaker.state()).isEqualTo(State.OPEN);
+		assertThat(breaker.metrics().slowCallRate()).isEqualTo(0.75);
+	}
+
+	@Test
+	void halfOpenProbesCloseTheBreakerAfterOpenDuration() {
+		CircuitBreaker breaker = breaker(1.0);
+		for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+		CircuitBreaker.Permit first = breaker.acquirePermission();
+		CircuitBreaker.Permit second = breaker.acquirePermission();
+		assertThatThrownBy(breaker::acquirePermission).isInstanceOf(LLMCircuitOpenException.class);
+		breaker.onSuccess(first, FAST);
+		breaker.onSuccess(second, FAST);
+
+		assertThat(breaker.state()).isEqualTo(State.CLOSED);
+		assertThat(breaker.metrics().bufferedCalls()).isEqualTo(0);
+		assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+	}
+
+	@Test
+	void callAdmittedBeforeHalfOpenDoesNotCountAsAProbe() {
+		CircuitBreaker breaker = breaker(1.0);
+		CircuitBreaker.Permit stale = breaker.acquirePermission();
+		for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+		CircuitBreaker.Permit first = breaker.acquirePermission();
+		CircuitBreaker.Permit second = breaker.acquirePermission();
+
+		breaker.onSuccess(stale, FAST);
+		assertThatThrownBy(breaker::acquirePermission).isInstanceOf(LLMCircuitOpenException.class);
+		breaker.onSuccess(first, FAST);
+		assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+
+		breaker.onSuccess(second, FAST);
+		assertThat(breaker.state()).isEqualTo(State.CLOSED);
+	}
+
+	@Test
+	void failedProbeReopensTheBreaker() {
+		CircuitBreaker breaker = breaker(1.0);
+		for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+		call(breaker, true, FAST);
+
+		assertThat(breaker.state()).isEqualTo(State.OPEN);
+		assertThatThrownBy(breaker::acquirePermission)
+				.isInstanceOfSatisfying(LLMCircuitOpenException.class,
+						e -> assertThat(e.retryAfter()).isEqualTo(Duration.ofSeconds(30)));
+	}
+
+	@Test
+	void errorInHalfOpenProbeReleasesItsPermit() {
+		CircuitBreakerRegistry registry = new CircuitBreakerRegistry()
+				.configure("mock-llm-provider", new CircuitBreaker.Config(0.5, 1.0, Duration.ofSeconds(1), 2, 2, Duration.ZERO, 1));
+		AtomicInteger calls = new AtomicInteger();
+		LLMEngine engine = new CircuitBreakingLLMEngine(new MockLLMEngine() {
+			@Override
+			public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+				switch (calls.incrementAndGet()) {
+					case 1, 2 -> throw new LLMHttpException("HTTP error 503", 503, null);
+					case 3 -> throw new StackOverflowError();
+					default -> {
+						return super.invokeOnce(instance, timeoutMs);
+					}
+				}
+			}
+		}, registry);
+		PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+		for (int i = 0; i < 2; i++) assertThatThrownBy(() -> engine.invokeOnce(instance, 1_000)).isInstanceOf(LLMHttpException.class);
+		assertThatThrownBy(() -> engine.invokeOnce(instance, 1_000)).isInstanceOf(StackOverflowError.class);
+
+		assertThat(engine.invokeOnce(instance, 1_000).rawOutput()).isNotNull();
+		assertThat(registry.breakerFor("mock-llm-provider").state()).isEqualTo(State.CLOSED);
+	}
+
+	private static void call(CircuitBreaker breaker, boolean failed, long durationNanos) {
+		CircuitBreaker.Permit permit = breaker.acquirePermission();
+		if (failed) breaker.onFailure(permit, durationNanos);
+		else breaker.onSuccess(permit, durationNanos);
+	}
+}
@@ -0,0 +1,127 @@
+package org.promptunit.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMTimeoutException;
+
+class ExecutionSchedulerTest {
+
+	@Test
+	void capsGlobalAndPerProviderConcurrency() throws Exception {
+		ExecutionScheduler scheduler = new ExecutionScheduler(3).setProviderLimit("a", 1);
+		AtomicInteger runningA = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxA = new AtomicInteger();
+		AtomicInteger max = new AtomicInteger();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				String provider = i % 2 == 0 ? "a" : "b";
+				futures.add(executor.submit(() -> scheduler.call(provider, 10_000, ms -> {
+					max.accumulateAndGet(running.incrementAndGet(), Math::max);
+					if (provider.equals("a")) maxA.accumulateAndGet(runningA.incrementAndGet(), Math::max);
+					sleep(10);
+					if (provider.equals("a")) runningA.decrementAndGet();
+					return running.decrementAndGet();
+				})));
+			}
+			for (Future<?> f : futures) f.get();
+		}
+
+		assertThat(maxA.get()).isEqualTo(1);
+		assertThat(max.get()).isLessThanOrEqualTo(3);
+		assertThat(scheduler.metrics().admitted()).isEqualTo(20L);
+		assertThat(scheduler.metrics().running()).isEqualTo(0);
+	}
+
+	@Test
+	void servesTenantsRoundRobin() throws Exception {
+		ExecutionScheduler scheduler = new ExecutionScheduler(1);
+		CountDownLatch blocker = new CountDownLatch(1);
+		List<String> order = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			executor.submit(() -> scheduler.call("holder", "p", 10_000, ms -> await(blocker)));
+			awaitQueued(scheduler, 0, 1);
+			for (int i = 0; i < 4; i++) {
+				executor.submit(() -> scheduler.call("bulk", "p", 10_000, ms -> record(order, "bulk")));
+			}
+			awaitQueued(scheduler, 4, 1);
+			executor.submit(() -> scheduler.call("small", "p", 10_000, ms -> record(order, "small")));
+			awaitQueued(scheduler, 5, 1);
+			assertThat(scheduler.metrics().queuedByTenant().get("bulk")).isEqualTo(4);
+
+			blocker.countDown();
+		}
+
+		assertThat(order).containsExactly("bulk", "small", "bulk", "bulk", "bulk");
+	}
+
+	@Test
+	void timesOutWhileQueuedAndWithdraws() throws Exception {
+		ExecutionScheduler scheduler = new ExecutionScheduler(1);
+		CountDownLatch blocker = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			executor.submit(() -> scheduler.call("p", 10_000, ms -> await(blocker)));
+			awaitQueued(scheduler, 0, 1);
+
+			assertThatThrownBy(() -> scheduler.call("p", 50, ms -> "never"))
+					.isInstanceOf(LLMTimeoutException.class)
+					.hasMessageContaining("execution slot");
+			assertThat(scheduler.metrics().queued()).isEqualTo(0);
+			blocker.countDown();
+		}
+	}
+
+	@Test
+	void nestedCallsRunWithoutAnotherSlot() {
+		ExecutionScheduler scheduler = new ExecutionScheduler(1);
+
+		String result = scheduler.call("p", 1_000, ms -> scheduler.call("p", ms, inner -> "nested"));
+
+		assertThat(result).isEqualTo("nested");
+	}
+
+	private static void awaitQueued(ExecutionScheduler scheduler, int queued, int running) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			ExecutionScheduler.Metrics m = scheduler.metrics();
+			if (m.queued() == queued && m.running() == running) return;
+			Thread.sleep(2);
+		}
+		throw new AssertionError("Scheduler did not reach queued=" + queued + ", running=" + running);
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String record(List<String> order, String tenant) {
+		synchronized (order) {
+			order.add(tenant);
+		}
+		return tenant;
+	}
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.promptunit.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.engine.RateLimitedLLMEngine;
+
+class RateLimiterTest {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+	private RateLimiter limiter(int rpm, long tpm) {
+		return new RateLimiter("test/model", new RateLimiter.Limits(rpm, tpm), clock::get, clock::addAndGet);
+	}
+
+	@Test
+	void allowsBurstUpToBudgetThenSpacesRequests() {
+		RateLimiter limiter = limiter(60, 0);
+
+		for (int i = 0; i < 60; i++) {
+			assertThat(limiter.acquire(0, 10_000)).isEqualTo(0L);
+		}
+		long waited = limiter.acquire(0, 10_000);
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(waited)).isEqualTo(1_000L);
+		assertThat(limiter.metrics().permits()).isEqualTo(61L);
+		assertThat(limiter.metrics().delayedPermits()).isEqualTo(1L);
+		assertThat(limiter.metrics().maxWaitMs()).isEqualTo(1_000L);
+	}
+
+	@Test
+	void tokenBudgetThrottlesLargeRequests() {
+		RateLimiter limiter = limiter(0, 6_000);
+
+		assertThat(limiter.acquire(6_000, 60_000)).isEqualTo(0L);
+		long waited = limiter.acquire(1_000, 60_000);
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(waited)).isEqualTo(10_000L);
+	}
+
+	@Test
+	void failsFastWhenWaitExceedsTimeoutWithoutReserving() {
+		RateLimiter limiter = limiter(1, 0);
+		limiter.acquire(0, 1_000);
+
+		assertThatThrownBy(() -> limiter.acquire(0, 1_000))
+				.isInstanceOf(LLMTimeoutException.class)
+				.hasMessageContaining("test/model");
+		assertThat(limiter.metrics().permits()).isEqualTo(1L);
+	}
+
+	@Test
+	void interruptedWaitHandsItsSlotBack() {
+		AtomicBoolean interrupt = new AtomicBoolean(true);
+		RateLimiter limiter = new RateLimiter("test/model", new RateLimiter.Limits(1, 0), clock::get, nanos -> {
+			if (interrupt.getAndSet(false)) throw new InterruptedException();
+			clock.addAndGet(nanos);
+		});
+		limiter.acquire(0, 120_000);
+
+		assertThatThrownBy(() -> limiter.acquire(0, 120_000)).isInstanceOf(LLMTimeoutException.class);
+		assertThat(Thread.interrupted()).isTrue();
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(limiter.acquire(0, 120_000))).isEqualTo(60_000L);
+		assertThat(limiter.metrics().permits()).isEqualTo(2L);
+	}
+
+	@Test
+	void engineEstimatesTokensForTheModelItLimits() {
+		RateLimiterRegistry registry = new RateLimiterRegistry()
+				.setLimits("mock-llm-provider", "mock-llm-model", new RateLimiter.Limits(0, 60_000));
+		List<String> estimatedModels = new ArrayList<>();
+		LLMEngine engine = new RateLimitedLLMEngine(new MockLLMEngine(), registry, instance -> {
+			estimatedModels.add(instance.provider() + "/" + instance.model());
+			return 100;
+		});
+
+		engine.invokeOnce(PromptInstance.builder().addUserMessage("Hi").build(), 1_000);
+
+		assertThat(estimatedModels).containsExactly("mock-llm-provider/mock-llm-model");
+		assertThat(registry.limiterFor("mock-llm-provider", "mock-llm-model").metrics().permits()).isEqualTo(1L);
+	}
+
+	@Test
+	void reconcileRefundsOverestimatedTokens() {
+		RateLimiter limiter = limiter(0, 6_000);
+		limiter.acquire(6_000, 60_000);
+		limiter.reconcile(6_000, 3_000);
+
+		assertThat(limiter.acquire(3_000, 60_000)).isEqualTo(0L);
+	}
+
+	@Test
+	void registryFallsBackToProviderLimits() {
+		RateLimiterRegistry registry = new RateLimiterRegistry()
+				.setLimits("openai", null, new RateLimiter.Limits(500, 0))
+				.setLimits("openai", "gpt-4o", new RateLimiter.Limits(100, 30_000));
+
+		assertThat(registry.limiterFor("openai", "gpt-4o").limits().requestsPerMinute()).isEqualTo(100);
+		assertThat(registry.limiterFor("openai", "gpt-4o-mini").limits().requestsPerMinute()).isEqualTo(500);
+		assertThat(registry.limiterFor("anthropic", "claude").limits().isUnlimited()).isTrue();
+		assertThat(registry.limiterFor("openai", "gpt-4o")).isSameAs(registry.limiterFor("openai", "gpt-4o"));
+	}
+}
@@ -0,0 +1,138 @@
+package org.promptunit.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.SampleSet;
+
+class SampleRunnerTest {
+
+	private final PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+	@Test
+	void keepsIdenticalResultsAsSeparateSamples() {
+		SampleSet samples = new MockLLMEngine().sample(instance, 5_000, 20);
+
+		assertThat(samples.size()).isEqualTo(20);
+		assertThat(samples.results()).hasSize(20);
+		assertThat(samples.isComplete()).isTrue();
+	}
+
+	@Test
+	void neverExceedsMaxInFlight() {
+		CountingEngine engine = new CountingEngine(i -> {
+			sleep(20);
+			return new PromptResult("ok", 20, 0.0, 1);
+		});
+
+		SampleSet samples = engine.sample(instance, 10_000, 40, 4);
+
+		assertThat(samples.successCount()).isEqualTo(40);
+		assertThat(engine.maxConcurrent.get()).isLessThanOrEqualTo(4);
+	}
+
+	@Test
+	void reportsPerSampleFailuresAndKeepsPartialResults() {
+		CountingEngine engine = new CountingEngine(i -> {
+			if (i % 3 == 0) throw new LLMInvocationException("HTTP error 429");
+			return new PromptResult("ok-" + i, 1, 0.0, 1);
+		});
+
+		SampleSet samples = engine.sample(instance, 5_000, 9, 1);
+
+		assertThat(samples.failureCount()).isEqualTo(3);
+		assertThat(samples.successCount()).isEqualTo(6);
+		assertThat(samples.samples().get(0).status()).isEqualTo(SampleSet.Status.FAILED);
+		assertThat(samples.samples().get(1).result().rawOutput()).isEqualTo("ok-1");
+		assertThatThrownBy(samples::resultsOrThrow)
+				.isInstanceOf(LLMInvocationException.class)
+				.hasMessageContaining("429");
+	}
+
+	@Test
+	void marksUnfinishedSamplesAsTimedOut() {
+		CountingEngine engine = new CountingEngine(i -> {
+			if (i >= 2) sleep(5_000);
+			return new PromptResult("fast", 1, 0.0, 1);
+		});
+
+		SampleSet samples = engine.sample(instance, 300, 6, 2);
+
+		assertThat(samples.size()).isEqualTo(6);
+		assertThat(samples.successCount()).isEqualTo(2);
+		assertThat(samples.timeoutCount()).isEqualTo(4);
+		assertThatThrownBy(samples::resultsOrThrow).isInstanceOf(LLMTimeoutException.class);
+	}
+
+	@Test
+	void nonPositiveTimeoutTimesOutEverySampleWithoutCallingTheEngine() {
+		CountingEngine engine = new CountingEngine(i -> new PromptResult("ok", 1, 0.0, 1));
+
+		SampleSet samples = engine.sample(instance, 0, 3, 3);
+
+		assertThat(samples.timeoutCount()).isEqualTo(3);
+		assertThat(engine.calls.get()).isZero();
+		assertThatThrownBy(() -> engine.execute(instance, -1, 2))
+				.isInstanceOf(LLMTimeoutException.class)
+				.hasMessageContaining("timed out after -1ms");
+	}
+
+	@Test
+	void executeWithNTimesStillThrowsOnFailure() {
+		CountingEngine engine = new CountingEngine(i -> {
+			throw new LLMInvocationException("boom");
+		});
+		assertThatThrownBy(() -> engine.execute(instance, 1_000, 3))
+				.isInstanceOf(LLMInvocationException.class)
+				.hasMessageContaining("boom");
+	}
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMTimeoutException("interrupted", e);
+		}
+	}
+
+	private static final class CountingEngine implements LLMEngine {
+		private final IntFunction<PromptResult> behaviour;
+		private final AtomicInteger calls = new AtomicInteger();
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+		private CountingEngine(IntFunction<PromptResult> behaviour) {
+			this.behaviour = behaviour;
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			int current = inFlight.incrementAndGet();
+			maxConcurrent.accumulateAndGet(current, Math::max);
+			try {
+				return behaviour.apply(calls.getAndIncrement());
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+		@Override
+		public String provider() {
+			return "test";
+		}
+
+		@Override
+		public String model() {
+			return "test";
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package org.promptunit.junit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.TestAbortedException;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+
+class SuiteLedgerTest {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+	@Test
+	void tracksPerTestLatencyTokensAndCost() {
+		SuiteLedger ledger = new SuiteLedger(SuiteBudget.UNLIMITED, clock::get);
+		SuiteLedger.TestRecord test = ledger.test("[method:a]", "ReviewTest.summarises()");
+
+		test.record(result(100, 0.002, 300));
+		test.record(result(300, 0.004, 500));
+		test.recordFailure();
+		test.finish(SuiteLedger.Status.PASSED);
+
+		assertThat(test.calls()).isEqualTo(3L);
+		assertThat(test.failedCalls()).isEqualTo(1L);
+		assertThat(test.meanLatencyMs()).isEqualTo(200L);
+		assertThat(test.maxLatencyMs()).isEqualTo(300L);
+		assertThat(ledger.totalTokens()).isEqualTo(800L);
+		assertThat(ledger.summary())
+				.contains("1 tests, 3 calls, 800 tokens, $0.0060")
+				.contains("ReviewTest.summarises()")
+				.contains("PASSED");
+	}
+
+	@Test
+	void countsResultsBuiltWithoutUsageByTheirTokenTotal() {
+		SuiteLedger ledger = new SuiteLedger(SuiteBudget.UNLIMITED, clock::get);
+		PromptResult legacy = new PromptResult("ok", 100, 0.001, 250);
+
+		ledger.test("[method:a]", "a").record(legacy);
+
+		assertThat(legacy.usage()).isEqualTo(TokenUsage.UNKNOWN);
+		assertThat(ledger.totalTokens()).isEqualTo(250L);
+	}
+
+	@Test
+	void reportsFirstExhaustedBudget() {
+		SuiteLedger ledger = new SuiteLedger(new SuiteBudget(Duration.ofMinutes(5), 1_000, 0.01), clock::get);
+		SuiteLedger.TestRecord test = ledger.test("[method:a]", "a");
+
+		test.record(result(10, 0.001, 999));
+		assertThat(ledger.exhaustedBudget()).isEmpty();
+
+		test.record(result(10, 0.001, 1));
+		assertThat(ledger.exhaustedBudget().orElseThrow()).contains("token budget of 1000");
+
+		clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+		assertThat(ledger.exhaustedBudget().orElseThrow()).contains("wall-clock budget");
+	}
+
+	@Test
+	void meteredEngineAbortsOnceBudgetIsSpent() {
+		SuiteLedger ledger = new SuiteLedger(new SuiteBudget(Duration.ZERO, 0, 0.0001), clock::get);
+		SuiteLedger.TestRecord test = ledger.test("[method:a]", "a");
+		test.record(result(10, 0.001, 10));
+		MeteredLLMEngine engine = new MeteredLLMEngine(new MockLLMEngine(), ledger, test);
+
+		assertThatThrownBy(() -> engine.execute(PromptInstance.builder().addUserMessage("Hi").build(), 1_000))
+				.isInstanceOf(TestAbortedException.class)
+				.hasMessageContaining("cost budget");
+	}
+
+	@Test
+	void readsBudgetFromConfigurationParameters() {
+		Map<String, String> params = Map.of(SuiteBudget.TOKENS, "50000", SuiteBudget.COST_USD, " 2.5 ");
+
+		SuiteBudget budget = SuiteBudget.from(key -> Optional.ofNullable(params.get(key)));
+
+		assertThat(budget).isEqualTo(new SuiteBudget(Duration.ZERO, 50_000, 2.5));
+		assertThatThrownBy(() -> SuiteBudget.from(key -> Optional.of("lots")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining(SuiteBudget.WALL_CLOCK_MS);
+	}
+
+	private static PromptResult result(long latencyMs, double cost, int tokens) {
+		return new PromptResult("ok", latencyMs, cost, tokens, null, null, List.of(), null, TokenUsage.of(tokens, 0));
+	}
+}
@@ -0,0 +1,137 @@
+package org.promptunit.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+
+class LoadGeneratorTest {
+
+	private final PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+	@Test
+	void histogramPercentilesStayWithinOnePercent() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 10_000; micros++) histogram.recordNanos(micros * 1_000);
+
+		assertThat(histogram.count()).isEqualTo(10_000L);
+		assertThat(histogram.valueAtPercentileNanos(50) / 1_000.0).isBetween(4_950.0, 5_050.0);
+		assertThat(histogram.valueAtPercentileNanos(99.9) / 1_000.0).isBetween(9_890.0, 10_000.0);
+		assertThat(histogram.valueAtPercentileNanos(100)).isEqualTo(10_000_000L);
+		assertThat(histogram.valueAtPercentileNanos(0)).isEqualTo(1_000L);
+		for (long v : new long[] {0, 255, 256, 511, 512, 123_456_789, Long.MAX_VALUE}) {
+			int index = LatencyHistogram.index(v);
+			assertThat(LatencyHistogram.lowerBound(index)).isLessThanOrEqualTo(v);
+			assertThat(v - LatencyHistogram.lowerBound(index)).isLessThanOrEqualTo(Math.max(0, v / 128));
+		}
+	}
+
+	@Test
+	void sendsAtTargetRateAndCountsErrors() {
+		AtomicInteger calls = new AtomicInteger();
+		LLMEngine engine = new FixedEngine(i -> {
+			sleep(10);
+			if (i % 5 == 4) throw new LLMInvocationException("HTTP error 500");
+		}, calls);
+
+		LoadReport report = LoadGenerator.builder(engine)
+				.withInstance(instance)
+				.withRate(100)
+				.withDuration(Duration.ofMillis(500))
+				.build()
+				.run();
+
+		assertThat(report.sent()).isEqualTo(50L);
+		assertThat(report.completed()).isEqualTo(50L);
+		assertThat(report.failed()).isEqualTo(10L);
+		assertThat(report.errors()).containsEntry("LLMInvocationException", 10L);
+		assertThat(report.errorRate()).isEqualTo(0.2);
+		assertThat(report.p50Ms()).isGreaterThanOrEqualTo(9.9);
+		assertThat(report.summary()).contains("50 sent, 40 ok, 10 failed");
+	}
+
+	@Test
+	void latencyIncludesTimeQueuedBehindSlowRequests() {
+		// A single-file engine taking 20ms per call cannot keep up with 100 rps: a closed-loop
+		// measurement would report ~20ms, the open-loop one sees the growing backlog.
+		ReentrantLock serial = new ReentrantLock();
+		LLMEngine engine = new FixedEngine(i -> {
+			serial.lock();
+			try {
+				sleep(20);
+			} finally {
+				serial.unlock();
+			}
+		}, new AtomicInteger());
+
+		LoadReport report = LoadGenerator.builder(engine)
+				.withInstance(instance)
+				.withRate(100)
+				.withDuration(Duration.ofMillis(400))
+				.build()
+				.run();
+
+		assertThat(report.serviceTime().valueAtPercentileMillis(50)).isGreaterThan(20.0);
+		assertThat(report.p99Ms()).isGreaterThan(300.0);
+		assertThat(report.throughputRps()).isLessThan(60.0);
+	}
+
+	@Test
+	void latencyIncludesTimedOutRequests() {
+		LLMEngine engine = new FixedEngine(i -> {
+			if (i % 2 == 1) {
+				sleep(80);
+				throw new LLMTimeoutException("LLM invocation timed out after 50ms");
+			}
+		}, new AtomicInteger());
+
+		LoadReport report = LoadGenerator.builder(engine)
+				.withInstance(instance)
+				.withRate(50)
+				.withDuration(Duration.ofMillis(200))
+				.withTimeoutMs(50)
+				.build()
+				.run();
+
+		assertThat(report.timedOut()).isEqualTo(5L);
+		assertThat(report.latency().count()).isEqualTo(report.succeeded() + report.timedOut());
+		assertThat(report.p99Ms()).isGreaterThanOrEqualTo(50.0);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLMInvocationException("interrupted", e);
+		}
+	}
+
+	private interface Behaviour {
+		void run(int call);
+	}
+
+	private record FixedEngine(Behaviour behaviour, AtomicInteger calls) implements LLMEngine {
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			behaviour.run(calls.getAndIncrement());
+			return new PromptResult("ok", 10, 0.0, 1);
+		}
+
+		@Override
+		public String provider() {
+			return "test";
+		}
+
+		@Override
+		public String model() {
+			return "test";
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package org.promptunit.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+
+class JsonPriceTableTest {
+
+	private final PriceTable bundled = PriceTables.bundled();
+
+	@Test
+	void bundledTableIsVersioned() {
+		assertThat(bundled.version()).isNotBlank();
+	}
+
+	@Test
+	void resolvesDatedModelNamesByLongestPrefix() {
+		assertThat(bundled.priceFor("openai", "gpt-4o-2024-08-06").orElseThrow().inputPerMillion()).isEqualTo(2.50);
+		assertThat(bundled.priceFor("openai", "gpt-4o-mini-2024-07-18").orElseThrow().inputPerMillion()).isEqualTo(0.15);
+		assertThat(bundled.priceFor("anthropic", "claude-3-5-haiku-20241022").orElseThrow().outputPerMillion()).isEqualTo(4.00);
+		assertThat(bundled.priceFor("ollama", "llama3.2")).isPresent();
+		assertThat(bundled.priceFor("openai", "unknown-model")).isEmpty();
+	}
+
+	@Test
+	void doesNotPriceModelVariantsAsTheirBaseModel() {
+		assertThat(bundled.priceFor("openai", "o3-mini").orElseThrow().inputPerMillion()).isEqualTo(1.10);
+		assertThat(bundled.priceFor("openai", "o3-pro-2025-06-10").orElseThrow().outputPerMillion()).isEqualTo(80.00);
+		assertThat(bundled.priceFor("openai", "o3-2025-04-16").orElseThrow().inputPerMillion()).isEqualTo(2.00);
+		assertThat(bundled.priceFor("openai", "o3-deep-research")).isEmpty();
+		assertThat(bundled.priceFor("openai", "gpt-4o-audio-preview")).isEmpty();
+	}
+
+	@Test
+	void pricesCachedPromptTokensSeparately() {
+		// 1000 prompt tokens of which 400 cached, 200 completion tokens on gpt-4o
+		double cost = bundled.cost("openai", "gpt-4o", new TokenUsage(1_000, 200, 400));
+
+		double expected = (600 * 2.50 + 400 * 1.25 + 200 * 10.00) / 1_000_000.0;
+		assertThat(cost).isCloseTo(expected, within(1e-12));
+	}
+
+	@Test
+	void pricesCacheWritesAboveTheInputRate() {
+		// 1000 prompt tokens of which 300 read from and 500 written to the cache on claude-3-5-haiku
+		double cost = bundled.cost("anthropic", "claude-3-5-haiku", new TokenUsage(1_000, 100, 300, 500));
+
+		double expected = (200 * 0.80 + 300 * 0.08 + 500 * 1.00 + 100 * 4.00) / 1_000_000.0;
+		assertThat(cost).isCloseTo(expected, within(1e-12));
+	}
+
+	@Test
+	void unknownUsageOrModelHasUnknownCost() {
+		assertThat(bundled.cost("openai", "gpt-4o", TokenUsage.UNKNOWN)).isEqualTo((double) PromptResult.UNKNOWN_COST);
+		assertThat(bundled.cost("acme", "model", TokenUsage.of(10, 10))).isEqualTo((double) PromptResult.UNKNOWN_COST);
+	}
+
+	@Test
+	void rejectsTablesWithoutVersion() throws Exception {
+		assertThatThrownBy(() -> JsonPriceTable.parse(new ObjectMapper().readTree("{\"providers\":{}}")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("version");
+	}
+}
@@ -32,8 +32,10 @@ class AnthropicEngineIT {
 				.isNotNull()
 				.isNotBlank();
 		assertThat(result.latencyMs()).isGreaterThanOrEqualTo(0);
+		assertThat(result.usage().isKnown()).isTrue();
+		assertThat(result.tokenUsage()).isPositive();
+		// The price table has no Anthropic entry for this model
 		assertThat(result.cost()).isEqualTo(PromptResult.UNKNOWN_COST);
-		assertThat(result.tokenUsage()).isEqualTo(PromptResult.UNKNOWN_TOKENS_USED);
 	}
 
 	@Test
@@ -0,0 +1,64 @@
+package org.promptunit.providers.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.promptunit.core.TokenUsage;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+class ChatUsageTest {
+
+	public record PromptTokensDetails(Integer cachedTokens) {}
+
+	public record OpenAiStyleUsage(PromptTokensDetails promptTokensDetails) {}
+
+	public record AnthropicStyleUsage(Integer cacheReadInputTokens, Integer cacheCreationInputTokens) {}
+
+	@Test
+	void readsOpenAiCachedTokensIncludedInPromptTokens() {
+		ChatResponse response = response(new DefaultUsage(1_000, 200, 1_200,
+				new OpenAiStyleUsage(new PromptTokensDetails(400))), "gpt-4o-2024-08-06");
+
+		TokenUsage usage = ChatUsage.from(response);
+
+		assertThat(usage).isEqualTo(new TokenUsage(1_000, 200, 400));
+		assertThat(usage.totalTokens()).isEqualTo(1_200);
+		assertThat(ChatUsage.cost("openai", "gpt-4o", response, usage)).isGreaterThan(0.0);
+	}
+
+	@Test
+	void addsAnthropicCacheTokensToPromptTokens() {
+		ChatResponse response = response(new DefaultUsage(100, 50, 150,
+				new AnthropicStyleUsage(900, 0)), "claude-3-5-haiku-20241022");
+
+		assertThat(ChatUsage.from(response)).isEqualTo(new TokenUsage(1_000, 50, 900));
+	}
+
+	@Test
+	void keepsAnthropicCacheWritesApartForPricing() {
+		ChatResponse response = response(new DefaultUsage(100, 50, 150,
+				new AnthropicStyleUsage(0, 900)), "claude-3-5-haiku-20241022");
+
+		TokenUsage usage = ChatUsage.from(response);
+
+		assertThat(usage).isEqualTo(new TokenUsage(1_000, 50, 0, 900));
+		assertThat(ChatUsage.cost("anthropic", "claude-3-5-haiku", response, usage))
+				.isCloseTo((100 * 0.80 + 900 * 1.00 + 50 * 4.00) / 1_000_000.0, within(1e-12));
+	}
+
+	@Test
+	void missingUsageIsUnknown() {
+		assertThat(ChatUsage.from(null)).isEqualTo(TokenUsage.UNKNOWN);
+		assertThat(ChatUsage.from(response(new DefaultUsage(0, 0, 0, null), "gpt-4o"))).isEqualTo(TokenUsage.UNKNOWN);
+	}
+
+	private static ChatResponse response(DefaultUsage usage, String model) {
+		return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+				ChatResponseMetadata.builder().usage(usage).model(model).build());
+	}
+}
@@ -0,0 +1,70 @@
+package org.promptunit.providers.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ProviderClientTest {
+
+	@Test
+	void createsClientLazilyAndOnlyOnce() throws Exception {
+		AtomicInteger creations = new AtomicInteger();
+		ProviderClient<Object> client = new ProviderClient<>("test", http -> {
+			creations.incrementAndGet();
+			return new Object();
+		});
+
+		assertThat(client.isInitialized()).isFalse();
+		assertThat(client.initializationNanos()).isEqualTo(-1L);
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Object>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 50; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return client.get();
+				}));
+			}
+			start.countDown();
+			Object first = futures.getFirst().get();
+			for (Future<Object> f : futures) {
+				assertThat(f.get()).isSameAs(first);
+			}
+		}
+
+		assertThat(creations.get()).isEqualTo(1);
+		assertThat(client.isInitialized()).isTrue();
+		assertThat(client.initializationNanos()).isGreaterThanOrEqualTo(0L);
+		client.close();
+	}
+
+	@Test
+	void getAfterCloseThrows() {
+		ProviderClient<String> client = new ProviderClient<>("test", http -> "client");
+		assertThat(client.get()).isEqualTo("client");
+		client.close();
+		assertThatThrownBy(client::get)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("closed");
+	}
+
+	@Test
+	void failedCreationIsRetriedOnNextCall() {
+		AtomicInteger attempts = new AtomicInteger();
+		ProviderClient<String> client = new ProviderClient<>("test", http -> {
+			if (attempts.incrementAndGet() == 1) throw new IllegalStateException("boom");
+			return "client";
+		});
+		assertThatThrownBy(client::get).isInstanceOf(IllegalStateException.class);
+		assertThat(client.get()).isEqualTo("client");
+		client.close();
+	}
+}
@@ -0,0 +1,50 @@
+package org.promptunit.providers.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.LLMTimeoutException;
+
+class RequestDeadlineTest {
+
+	@Test
+	void interruptsHungCallPromptlyAndClearsTheInterrupt() {
+		long start = System.nanoTime();
+
+		assertThatThrownBy(() -> RequestDeadline.callWithin(200, () -> {
+			try {
+				Thread.sleep(10_000);
+				return "late";
+			} catch (InterruptedException e) {
+				throw new LLMInvocationException("Error invoking provider", e);
+			}
+		})).isInstanceOf(LLMTimeoutException.class);
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000L);
+		assertThat(Thread.currentThread().isInterrupted()).isFalse();
+	}
+
+	@Test
+	void exposesDeadlineToRequestFactoryOnlyDuringTheCall() {
+		assertThat(RequestDeadline.current()).isEmpty();
+
+		long remaining = RequestDeadline.callWithin(5_000, () -> RequestDeadline.current().orElseThrow().remainingMillis());
+
+		assertThat(remaining).isGreaterThan(4_000L);
+		assertThat(RequestDeadline.current()).isEmpty();
+	}
+
+	@Test
+	void mapsHttpClientTimeoutsToLLMTimeoutException() {
+		assertThatThrownBy(() -> RequestDeadline.callWithin(5_000, () -> {
+			throw new IllegalStateException("I/O error", new HttpTimeoutException("request timed out"));
+		})).isInstanceOf(LLMTimeoutException.class);
+
+		assertThatThrownBy(() -> RequestDeadline.callWithin(5_000, () -> {
+			throw new LLMInvocationException("HTTP error 400");
+		})).isInstanceOf(LLMInvocationException.class);
+	}
+}
@@ -0,0 +1,177 @@
+package org.promptunit.recording;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.promptunit.dsl.PromptAssertions.assertThatResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.promptunit.LLMInvocationException;
+import org.promptunit.MockLLMEngine;
+import org.promptunit.core.OutputSchema;
+import org.promptunit.core.PromptFingerprint;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.core.TokenUsage;
+import org.promptunit.tools.NormalizedToolCall;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+class CachingLLMEngineTest {
+
+	@TempDir
+	Path recordings;
+
+	private final PromptInstance instance = PromptInstance.builder()
+			.addSystemMessage("You are a code reviewer")
+			.addUserMessage("Review this")
+			.withTemperature(0.0)
+			.build();
+
+	@Test
+	void recordIfMissingCallsProviderOnlyOnce() {
+		CountingEngine live = new CountingEngine();
+		CachingLLMEngine engine = new CachingLLMEngine(live, new DirectoryResponseStore(recordings), RecordMode.RECORD_IF_MISSING);
+
+		PromptResult first = engine.execute(instance, 1_000);
+		PromptResult second = engine.execute(instance, 1_000);
+
+		assertThat(live.calls.get()).isEqualTo(1);
+		assertThat(second.rawOutput()).isEqualTo(first.rawOutput());
+		assertThat(second.toolCalls()).hasSize(1);
+		assertThat(second.toolCalls().getFirst().args().get("id").asInt()).isEqualTo(7);
+		assertThat(engine.hitCount()).isEqualTo(1L);
+		assertThat(engine.recordCount()).isEqualTo(1L);
+	}
+
+	@Test
+	void replayServesRecordingsOfflineAndStillSupportsAssertions() {
+		new CachingLLMEngine(new CountingEngine(), new DirectoryResponseStore(recordings), RecordMode.RECORD)
+				.execute(instance, 1_000);
+
+		CountingEngine offline = new CountingEngine();
+		CachingLLMEngine replay = new CachingLLMEngine(offline, new DirectoryResponseStore(recordings), RecordMode.REPLAY);
+		PromptResult result = replay.execute(instance, 1_000);
+
+		assertThat(offline.calls.get()).isEqualTo(0);
+		assertThat(result.promptInstance()).isSameAs(instance);
+		assertThat(result.engineInfo()).isSameAs(replay);
+		assertThatResult(result).containsValidJson().contains("Mock review output").latencyBelow(100);
+	}
+
+	@Test
+	void replayKeepsTokenUsage() {
+		new CachingLLMEngine(new CountingEngine(), new DirectoryResponseStore(recordings), RecordMode.RECORD)
+				.execute(instance, 1_000);
+
+		PromptResult result = new CachingLLMEngine(new CountingEngine(), new DirectoryResponseStore(recordings), RecordMode.REPLAY)
+				.execute(instance, 1_000);
+
+		assertThat(result.usage()).isEqualTo(TokenUsage.of(80, 20));
+		assertThat(result.usage().isKnown()).isTrue();
+	}
+
+	@Test
+	void replayWithoutRecordingFails() {
+		CachingLLMEngine replay = new CachingLLMEngine(new CountingEngine(), new DirectoryResponseStore(recordings), RecordMode.REPLAY);
+		assertThatThrownBy(() -> replay.execute(instance, 1_000))
+				.isInstanceOf(LLMInvocationException.class)
+				.hasMessageContaining("No recording for prompt");
+	}
+
+	@Test
+	void delegatesForDifferentModelsDoNotShareRecordings() {
+		DirectoryResponseStore store = new DirectoryResponseStore(recordings);
+		CountingEngine mini = new CountingEngine("openai", "gpt-4o-mini");
+		CountingEngine full = new CountingEngine("openai", "gpt-4o");
+		new CachingLLMEngine(mini, store, RecordMode.RECORD_IF_MISSING).execute(instance, 1_000);
+		new CachingLLMEngine(full, store, RecordMode.RECORD_IF_MISSING).execute(instance, 1_000);
+		new CachingLLMEngine(full, store, RecordMode.RECORD_IF_MISSING).execute(instance, 1_000);
+
+		assertThat(mini.calls.get()).isEqualTo(1);
+		assertThat(full.calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void fingerprintIgnoresSchemaFormattingButNotContent() {
+		PromptInstance a = PromptInstance.builder().addUserMessage("Hi")
+				.withOutputSchema(new OutputSchema("{\"type\":\"object\",\"required\":[\"a\"]}")).build();
+		PromptInstance b = PromptInstance.builder().addUserMessage("Hi")
+				.withOutputSchema(new OutputSchema("{ \"required\": [\"a\"],\n \"type\": \"object\" }")).build();
+		PromptInstance c = PromptInstance.builder().addUserMessage("Hi")
+				.withOutputSchema(new OutputSchema("{\"type\":\"object\",\"required\":[\"b\"]}")).build();
+		PromptInstance d = PromptInstance.builder().addUserMessage("Hi").withTemperature(0.7)
+				.withOutputSchema(new OutputSchema("{\"type\":\"object\",\"required\":[\"a\"]}")).build();
+
+		assertThat(PromptFingerprint.of(a)).isEqualTo(PromptFingerprint.of(b));
+		assertThat(PromptFingerprint.of(a)).isNotEqualTo(PromptFingerprint.of(c));
+		assertThat(PromptFingerprint.of(a)).isNotEqualTo(PromptFingerprint.of(d));
+	}
+
+	@Test
+	void fingerprintCoversToolCallsAndResults() {
+		PromptInstance weather = toolConversation("get_weather", "{\"city\":\"Paris\",\"unit\":\"C\"}", "18 degrees");
+		PromptInstance reordered = toolConversation("get_weather", "{ \"unit\": \"C\", \"city\": \"Paris\" }", "18 degrees");
+
+		assertThat(PromptFingerprint.of(weather)).isEqualTo(PromptFingerprint.of(reordered));
+		assertThat(PromptFingerprint.of(weather)).isNotEqualTo(
+				PromptFingerprint.of(toolConversation("get_time", "{\"city\":\"Paris\",\"unit\":\"C\"}", "18 degrees")));
+		assertThat(PromptFingerprint.of(weather)).isNotEqualTo(
+				PromptFingerprint.of(toolConversation("get_weather", "{\"city\":\"Rome\",\"unit\":\"C\"}", "18 degrees")));
+		assertThat(PromptFingerprint.of(weather)).isNotEqualTo(
+				PromptFingerprint.of(toolConversation("get_weather", "{\"city\":\"Paris\",\"unit\":\"C\"}", "18 degrees and rain")));
+	}
+
+	private static PromptInstance toolConversation(String tool, String arguments, String result) {
+		List<Message> conversation = List.of(
+				new UserMessage("Weather in Paris?"),
+				new AssistantMessage("", Map.of(), List.of(new AssistantMessage.ToolCall("call_1", "function", tool, arguments))),
+				new ToolResponseMessage(List.of(new ToolResponseMessage.ToolResponse("call_1", tool, result))));
+		return new PromptInstance(conversation, null, null, null, null, null, Optional.empty());
+	}
+
+	private static final class CountingEngine extends MockLLMEngine {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final String provider;
+		private final String model;
+
+		CountingEngine() {
+			this("mock-llm-provider", "mock-llm-model");
+		}
+
+		CountingEngine(String provider, String model) {
+			this.provider = provider;
+			this.model = model;
+		}
+
+		@Override
+		public String provider() {
+			return provider;
+		}
+
+		@Override
+		public String model() {
+			return model;
+		}
+
+		@Override
+		public PromptResult invokeOnce(PromptInstance instance, long timeoutMs) {
+			calls.incrementAndGet();
+			PromptResult r = super.invokeOnce(instance, timeoutMs);
+			try {
+				return new PromptResult(r.rawOutput(), r.latencyMs(), r.cost(), r.tokenUsage(), instance, this,
+						List.of(new NormalizedToolCall("lookup", new ObjectMapper().readTree("{\"id\":7}"))),
+						null, TokenUsage.of(80, 20));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
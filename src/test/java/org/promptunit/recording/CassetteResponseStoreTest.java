@@ -0,0 +1,118 @@
+package org.promptunit.recording;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.promptunit.core.TokenUsage;
+
+class CassetteResponseStoreTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void survivesReopenAndIndexResize() {
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			for (int i = 0; i < 10_000; i++) {
+				store.put(key(i), result("out-" + i));
+			}
+		}
+
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			assertThat(store.size()).isEqualTo(10_000);
+			assertThat(store.find(key(0)).orElseThrow().rawOutput()).isEqualTo("out-0");
+			assertThat(store.find(key(9_999)).orElseThrow().rawOutput()).isEqualTo("out-9999");
+			assertThat(store.find(key(10_000))).isEmpty();
+		}
+	}
+
+	@Test
+	void compactionKeepsOnlyLatestRecording() {
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			for (int round = 0; round < 3; round++) {
+				for (int i = 0; i < 100; i++) {
+					store.put(key(i), result("round-" + round));
+				}
+			}
+			long before = store.segmentBytes();
+
+			long reclaimed = store.compact();
+
+			assertThat(reclaimed).isGreaterThan(before / 2);
+			assertThat(store.size()).isEqualTo(100);
+			assertThat(store.find(key(42)).orElseThrow().rawOutput()).isEqualTo("round-2");
+		}
+	}
+
+	@Test
+	void recoversRecordsMissingFromIndexAndDropsTornTail() throws IOException {
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			store.put(key(1), result("one"));
+			store.put(key(2), result("two"));
+		}
+		Files.delete(dir.resolve("cassette.idx"));
+		try (FileChannel seg = FileChannel.open(dir.resolve("cassette.seg"), StandardOpenOption.WRITE)) {
+			seg.truncate(seg.size() - 3);
+		}
+
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			assertThat(store.find(key(1)).orElseThrow().rawOutput()).isEqualTo("one");
+			assertThat(store.find(key(2))).isEmpty();
+			store.put(key(3), result("three"));
+			assertThat(store.find(key(3)).orElseThrow().rawOutput()).isEqualTo("three");
+		}
+	}
+
+	@Test
+	void servesConcurrentReaders() throws Exception {
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette");
+				ExecutorService executor = Executors.newFixedThreadPool(8)) {
+			for (int i = 0; i < 500; i++) {
+				store.put(key(i), result("out-" + i));
+			}
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 500; i++) {
+						if (!store.find(key(i)).orElseThrow().rawOutput().equals("out-" + i)) return false;
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> f : futures) {
+				assertThat(f.get()).isTrue();
+			}
+		}
+	}
+
+	@Test
+	void roundTripsTokenUsage() {
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			store.put(key(1), new RecordedResult("one", 12, 0.01, 15, List.of(), null, TokenUsage.of(10, 5)));
+			store.put(key(2), new RecordedResult("two", 12, 0.0, -1, List.of(), null, TokenUsage.UNKNOWN));
+		}
+
+		try (CassetteResponseStore store = new CassetteResponseStore(dir, "cassette")) {
+			assertThat(store.find(key(1)).orElseThrow().usage()).isEqualTo(TokenUsage.of(10, 5));
+			assertThat(store.find(key(2)).orElseThrow().usage()).isEqualTo(TokenUsage.UNKNOWN);
+		}
+	}
+
+	private static String key(int i) {
+		return "prompt-" + i;
+	}
+
+	private static RecordedResult result(String output) {
+		return new RecordedResult(output, 12, 0.0, 3, List.of(), null, null);
+	}
+}
@@ -0,0 +1,169 @@
+package org.promptunit.stub;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.promptunit.LLMEngine;
+import org.promptunit.LLMHttpException;
+import org.promptunit.LLMTimeoutException;
+import org.promptunit.core.PromptInstance;
+import org.promptunit.core.PromptResult;
+import org.promptunit.engine.ResilientLLMEngine;
+import org.promptunit.providers.openai.OpenAIEngine;
+import org.promptunit.providers.prompz.PrompzEngine;
+
+class StubLLMServerTest {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	@Test
+	void answersOpenAiAndAnthropicCompletions() throws Exception {
+		try (StubLLMServer server = StubLLMServer.builder()
+				.withResponder(request -> StubResponse.text("echo: " + request.userMessage()).withUsage(7, 3))
+				.start()) {
+			JsonNode openAi = mapper.readTree(post(server.baseUrl() + StubLLMServer.OPENAI_PATH, """
+					{"model": "gpt-4o-mini", "messages": [{"role": "user", "content": "hi"}]}""").body());
+			JsonNode anthropic = mapper.readTree(post(server.baseUrl() + StubLLMServer.ANTHROPIC_PATH, """
+					{"model": "claude", "max_tokens": 10,
+					 "messages": [{"role": "user", "content": [{"type": "text", "text": "yo"}]}]}""").body());
+
+			assertThat(openAi.at("/choices/0/message/content").asText()).isEqualTo("echo: hi");
+			assertThat(openAi.at("/usage/total_tokens").asInt()).isEqualTo(10);
+			assertThat(openAi.path("model").asText()).isEqualTo("gpt-4o-mini");
+			assertThat(anthropic.at("/content/0/text").asText()).isEqualTo("echo: yo");
+			assertThat(anthropic.at("/usage/output_tokens").asInt()).isEqualTo(3);
+			assertThat(server.requestCount(StubLLMServer.Format.OPENAI)).isEqualTo(1L);
+			assertThat(server.requestCount()).isEqualTo(2L);
+		}
+	}
+
+	@Test
+	void streamsOpenAiChunksAsServerSentEvents() throws Exception {
+		try (StubLLMServer server = StubLLMServer.builder().withResponse("one two three").start()) {
+			HttpResponse<String> response = post(server.baseUrl() + StubLLMServer.OPENAI_PATH, """
+					{"model": "m", "stream": true, "stream_options": {"include_usage": true},
+					 "messages": [{"role": "user", "content": "count"}]}""");
+
+			assertThat(response.headers().firstValue("Content-Type").orElseThrow()).isEqualTo("text/event-stream");
+			List<String> data = response.body().lines().filter(l -> l.startsWith("data: ")).map(l -> l.substring(6)).toList();
+			assertThat(data.get(data.size() - 1)).isEqualTo("[DONE]");
+			StringBuilder text = new StringBuilder();
+			for (String event : data.subList(0, data.size() - 1)) {
+				text.append(mapper.readTree(event).at("/choices/0/delta/content").asText(""));
+			}
+			assertThat(text.toString()).isEqualTo("one two three");
+			assertThat(mapper.readTree(data.get(data.size() - 2)).at("/usage/completion_tokens").asInt()).isPositive();
+		}
+	}
+
+	@Test
+	void servesPrompzEngineWithLatency() {
+		try (StubLLMServer server = StubLLMServer.builder()
+				.withResponse("{\"ok\": true}")
+				.withLatency(LatencyModel.fixed(Duration.ofMillis(50)))
+				.start()) {
+			PrompzEngine engine = new PrompzEngine(server.prompzBaseUrl());
+
+			long start = System.nanoTime();
+			PromptResult result = engine.execute(PromptInstance.builder().addUserMessage("Review this").build(), 5_000);
+
+			assertThat(result.rawOutput()).isEqualTo("{\"ok\": true}");
+			assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isGreaterThanOrEqualTo(50L);
+			assertThat(server.lastRequest().userMessage()).isEqualTo("Review this");
+		}
+	}
+
+	@Test
+	void injectsErrorsWithRetryAfter() {
+		try (StubLLMServer server = StubLLMServer.builder()
+				.withResponder(request -> StubResponse.error(429, "slow down").withRetryAfter(Duration.ofMillis(1500)))
+				.start()) {
+			PrompzEngine engine = new PrompzEngine(server.prompzBaseUrl());
+
+			assertThatThrownBy(() -> engine.invokeOnce(PromptInstance.builder().addUserMessage("Hi").build(), 5_000))
+					.isInstanceOfSatisfying(LLMHttpException.class, e -> {
+						assertThat(e.statusCode()).isEqualTo(429);
+						assertThat(e.retryAfter().orElseThrow()).isEqualTo(Duration.ofMillis(1500));
+					})
+					.hasMessageContaining("slow down");
+		}
+
+		try (StubLLMServer server = StubLLMServer.builder().withErrorRate(0.5, 503).withSeed(42).start()) {
+			for (int i = 0; i < 40; i++) post(server.baseUrl() + StubLLMServer.OLLAMA_PATH, "{\"stream\": false}");
+			assertThat(server.injectedErrorCount()).isBetween(8L, 32L);
+		}
+	}
+
+	@Test
+	void openAiEngineSurfacesRetryAfterAndLeavesRetriesToResilientEngine() {
+		AtomicInteger calls = new AtomicInteger();
+		try (StubLLMServer server = StubLLMServer.builder()
+				.withResponder(request -> calls.incrementAndGet() == 1
+						? StubResponse.error(429, "slow down").withRetryAfter(Duration.ofMillis(300))
+						: StubResponse.text("done"))
+				.start()) {
+			OpenAIEngine engine = new OpenAIEngine("gpt-4o-mini", server.baseUrl(), "test-key");
+			PromptInstance instance = PromptInstance.builder().addUserMessage("Hi").build();
+
+			assertThatThrownBy(() -> engine.invokeOnce(instance, 5_000))
+					.isInstanceOfSatisfying(LLMHttpException.class, e -> {
+						assertThat(e.statusCode()).isEqualTo(429);
+						assertThat(e.retryAfter().orElseThrow()).isEqualTo(Duration.ofMillis(300));
+					});
+			assertThat(server.requestCount()).isEqualTo(1L);
+
+			calls.set(0);
+			LLMEngine resilient = ResilientLLMEngine.builder(engine).withMaxAttempts(3).build();
+			long start = System.nanoTime();
+			PromptResult result = resilient.execute(instance, 5_000);
+
+			assertThat(result.rawOutput()).isEqualTo("done");
+			assertThat(server.requestCount()).isEqualTo(3L);
+			assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isGreaterThanOrEqualTo(300L);
+		}
+	}
+
+	@Test
+	void openAiStreamIsBoundedByTheWholeTimeoutNotTheGapBetweenChunks() {
+		try (StubLLMServer server = StubLLMServer.builder()
+				.withResponder(request -> StubResponse.text(request.userMessage().equals("Warm up")
+						? "ready" : "one two three four five six seven eight nine ten"))
+				.withTokenInterval(Duration.ofMillis(100))
+				.start()) {
+			OpenAIEngine engine = new OpenAIEngine("gpt-4o-mini", server.baseUrl(), "test-key");
+			// The first stream loads the client classes, which would otherwise eat into the timeout
+			engine.invokeStreaming(PromptInstance.builder().addUserMessage("Warm up").build(), 10_000, null);
+			PromptInstance instance = PromptInstance.builder().addUserMessage("Count").build();
+			List<String> chunks = new CopyOnWriteArrayList<>();
+
+			long start = System.nanoTime();
+			assertThatThrownBy(() -> engine.invokeStreaming(instance, 400, chunks::add))
+					.isInstanceOf(LLMTimeoutException.class);
+
+			assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(900L);
+			assertThat(chunks).isNotEmpty().hasSizeLessThan(10);
+		}
+	}
+
+	private HttpResponse<String> post(String url, String body) {
+		try {
+			return http.send(HttpRequest.newBuilder(URI.create(url))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body))
+					.build(), HttpResponse.BodyHandlers.ofString());
+		} catch (Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package org.promptunit.tokenizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.promptunit.dsl.PromptAssertions.assertThatPrompt;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.promptunit.core.PromptInstance;
+
+class BpeTokenizerTest {
+
+	// All 256 bytes (rank = byte value) plus the merges he, ll, llo, hello, " w", or, " wor", ld,
+	// " world", in, ing and é (ranks 256..267)
+	private final BpeTokenizer tokenizer = BpeTokenizer.fromResource(
+			"test_bpe", "/promptunit/tokenizers/test_bpe.tiktoken", BpeTokenizer.CL100K_PATTERN);
+
+	@Test
+	void mergesLowestRankFirstLikeTiktoken() {
+		// expected ids produced by tiktoken's byte_pair_merge over the same table
+		assertThat(tokenizer.encode("hello world")).containsExactly(259, 264);
+		assertThat(tokenizer.encode("hellx")).containsExactly(256, 257, 120);
+		assertThat(tokenizer.encode("llllo")).containsExactly(257, 258);
+		assertThat(tokenizer.encode("singing")).containsExactly(115, 266, 266);
+		assertThat(tokenizer.encode("café")).containsExactly(99, 97, 102, 267);
+	}
+
+	@Test
+	void splitsTextWithCl100kPreTokenizer() {
+		assertThat(tokenizer.pieces("I'm 12345 ok!!\n"))
+				.containsExactly("I", "'m", " ", "123", "45", " ok", "!!\n");
+	}
+
+	@Test
+	void countMatchesEncodingAcrossCachedPieces() {
+		String text = "singing singing hello worlds 😀";
+
+		assertThat(tokenizer.countTokens(text)).isEqualTo(tokenizer.encode(text).length);
+		assertThat(tokenizer.countTokens(text)).isEqualTo(tokenizer.encode(text).length);
+	}
+
+	@Test
+	void countsChatFramingPerMessage() {
+		PromptInstance instance = PromptInstance.builder()
+				.addSystemMessage("hello")
+				.addUserMessage("hello world")
+				.build();
+
+		int expected = Tokenizer.TOKENS_PER_REPLY + 2 * Tokenizer.TOKENS_PER_MESSAGE + 1 + 2;
+		assertThat(tokenizer.countTokens(instance)).isEqualTo(expected);
+		assertThatPrompt(instance).tokenCountBelow(expected, tokenizer);
+		assertThatThrownBy(() -> assertThatPrompt(instance).tokenCountBelow(expected - 1, tokenizer))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("test_bpe counted " + expected);
+	}
+
+	@Test
+	void rejectsTablesMissingSingleBytes() {
+		byte[] table = "aGU= 0\n".getBytes(StandardCharsets.US_ASCII);
+
+		assertThatThrownBy(() -> BpeTokenizer.parse("partial", new ByteArrayInputStream(table), BpeTokenizer.CL100K_PATTERN))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("no token for byte 0x00");
+	}
+
+	@Test
+	void selectsEncodingByModelAndFallsBackToEstimate() {
+		assertThat(Tokenizers.encodingFor("openai", "gpt-4o-mini")).isEqualTo(Tokenizers.O200K_BASE);
+		assertThat(Tokenizers.encodingFor("openai", "o3-mini")).isEqualTo(Tokenizers.O200K_BASE);
+		assertThat(Tokenizers.encodingFor("openai", "gpt-4-turbo")).isEqualTo(Tokenizers.CL100K_BASE);
+		assertThat(Tokenizers.encodingFor("anthropic", "claude-3-5-haiku")).isEqualTo(Tokenizers.CL100K_BASE);
+
+		// no rank files are on the test classpath
+		Tokenizer fallback = Tokenizers.forModel("openai", "gpt-4o");
+		assertThat(fallback.isExact()).isFalse();
+		assertThat(fallback.countTokens("12345678")).isEqualTo(2);
+	}
+
+	@Test
+	void tokenCountBelowRefusesToAssertAgainstAnEstimate() {
+		PromptInstance instance = PromptInstance.builder()
+				.withProvider("openai")
+				.withModel("gpt-4o")
+				.addUserMessage("hello")
+				.build();
+
+		assertThatThrownBy(() -> assertThatPrompt(instance).tokenCountBelow(1_000))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("No rank file for o200k_base");
+		assertThatPrompt(instance).tokenCountBelow(1_000, Tokenizers.forModel("openai", "gpt-4o"));
+	}
+}